@@ -0,0 +1,170 @@
+package com.crescer_aprender.escala.carga;
+
+import com.crescer_aprender.escala.EscalaApplication;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.crescer_aprender.escala.repository.UsuarioRepository;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import com.crescer_aprender.escala.security.JwtService;
+import com.crescer_aprender.escala.service.IndiceDisponibilidade;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A aplicação em um PostgreSQL embarcado, com dados sintéticos para o teste de carga:
+ * escalas de ANO_INICIAL_ESCALAS até ANO_INICIAL_DISPONIBILIDADE - 1 (uma por mês, aos sábados, 8 voluntários por dia)
+ * para as consultas, e voluntários disponíveis em parte dos sábados a partir de ANO_INICIAL_DISPONIBILIDADE, onde as
+ * escalas novas são criadas. Todos os usuários têm a senha SENHA, com hash BCrypt de verdade (o login confere o hash).
+ */
+public class AmbienteDeCarga implements AutoCloseable {
+
+    public static final String SENHA = "senha123";
+    public static final int ANO_INICIAL_ESCALAS = 2000;
+    public static final int ANO_INICIAL_DISPONIBILIDADE = 2030;
+    public static final int ANOS_DISPONIBILIDADE = 20;
+
+    private static final int VOLUNTARIOS_POR_DIA = 8;
+    // fração dos sábados em que cada voluntário está disponível: ~90 candidatos por data com 300 voluntários
+    private static final double DISPONIBILIDADE = 0.3;
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext contexto;
+    private final List<Map<String, Object>> voluntarios = new ArrayList<>();
+    private final String tokenCoordenador;
+
+    private AmbienteDeCarga(int quantidadeVoluntarios, boolean threadsVirtuais) throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        // o devtools reiniciaria a aplicação a partir da thread principal do Gatling
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        // argumentos de linha de comando para sobrepor o application.properties
+        contexto = new SpringApplicationBuilder(EscalaApplication.class)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres", "--spring.datasource.password=postgres",
+                        "--server.port=0", "--logging.level.root=WARN",
+                        "--spring.profiles.active=" + (threadsVirtuais ? "threads-virtuais" : "default"));
+        tokenCoordenador = popula(quantidadeVoluntarios);
+    }
+
+    // threadsVirtuais: sobe com o perfil threads-virtuais, para comparar com o pool de threads de plataforma do Tomcat
+    public static AmbienteDeCarga inicia(int quantidadeVoluntarios, boolean threadsVirtuais) {
+        try {
+            return new AmbienteDeCarga(quantidadeVoluntarios, threadsVirtuais);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String url() {
+        int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        return "http://localhost:" + porta;
+    }
+
+    // um registro por voluntário (id, email e token), para os feeders
+    public List<Map<String, Object>> voluntarios() {
+        return voluntarios;
+    }
+
+    public String tokenCoordenador() {
+        return tokenCoordenador;
+    }
+
+    public static List<LocalDate> sabados(int ano, int mes) {
+        List<LocalDate> sabados = new ArrayList<>();
+        for (LocalDate data = LocalDate.of(ano, mes, 1).with(TemporalAdjusters.nextOrSame(DayOfWeek.SATURDAY));
+             data.getMonthValue() == mes; data = data.plusWeeks(1)) {
+            sabados.add(data);
+        }
+        return sabados;
+    }
+
+    private String popula(int quantidadeVoluntarios) {
+        UsuarioRepository usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        VoluntarioRepository voluntarioRepository = contexto.getBean(VoluntarioRepository.class);
+        JwtService jwtService = contexto.getBean(JwtService.class);
+        // o hash é calculado uma vez: com um por usuário a carga inicial levaria minutos
+        String hash = new BCryptPasswordEncoder().encode(SENHA);
+
+        List<LocalDate> datasFuturas = new ArrayList<>();
+        for (int ano = ANO_INICIAL_DISPONIBILIDADE; ano < ANO_INICIAL_DISPONIBILIDADE + ANOS_DISPONIBILIDADE; ano++) {
+            for (int mes = 1; mes <= 12; mes++) {
+                datasFuturas.addAll(sabados(ano, mes));
+            }
+        }
+        Random random = new Random(42);
+        List<Usuario> usuarios = new ArrayList<>();
+        for (int i = 0; i < quantidadeVoluntarios; i++) {
+            PerfisUsuariosEnum perfil = i == 0 ? PerfisUsuariosEnum.COORDENADOR : PerfisUsuariosEnum.VOLUNTARIO;
+            usuarios.add(Usuario.builder().email("voluntario" + i + "@carga.com").senha(hash).role(perfil).build());
+        }
+        usuarios = usuarioRepository.saveAll(usuarios);
+        List<Voluntario> salvos = new ArrayList<>();
+        for (Usuario usuario : usuarios) {
+            Set<LocalDate> datas = new HashSet<>();
+            for (LocalDate data : datasFuturas) {
+                if (random.nextDouble() < DISPONIBILIDADE) {
+                    datas.add(data);
+                }
+            }
+            salvos.add(Voluntario.builder().nome("Voluntário " + usuario.getId()).usuario(usuario).datasDisponiveis(datas).build());
+        }
+        salvos = voluntarioRepository.saveAll(salvos);
+        for (Voluntario voluntario : salvos) {
+            Map<String, Object> registro = new HashMap<>();
+            registro.put("voluntarioId", voluntario.getId());
+            registro.put("email", voluntario.getUsuario().getEmail());
+            registro.put("token", jwtService.generateToken(voluntario.getUsuario()));
+            voluntarios.add(registro);
+        }
+        criaEscalas(salvos);
+        contexto.getBean(IndiceDisponibilidade.class).recarrega();
+        return jwtService.generateToken(salvos.get(0).getUsuario());
+    }
+
+    private void criaEscalas(List<Voluntario> voluntarios) {
+        EscalaRepository escalaRepository = contexto.getBean(EscalaRepository.class);
+        EscalaDiaJdbcRepository escalaDiaJdbcRepository = contexto.getBean(EscalaDiaJdbcRepository.class);
+        int alocacao = 0;
+        for (int ano = ANO_INICIAL_ESCALAS; ano < ANO_INICIAL_DISPONIBILIDADE; ano++) {
+            for (int mes = 1; mes <= 12; mes++) {
+                List<LocalDate> datas = sabados(ano, mes);
+                Escala escala = escalaRepository.save(Escala.builder().ano((long) ano).mes(mes).datas(new ArrayList<>(datas)).build());
+                List<EscalaDia> dias = new ArrayList<>();
+                for (LocalDate data : datas) {
+                    List<Voluntario> doDia = new ArrayList<>();
+                    for (int v = 0; v < VOLUNTARIOS_POR_DIA; v++) {
+                        doDia.add(voluntarios.get(alocacao++ % voluntarios.size()));
+                    }
+                    dias.add(EscalaDia.builder().data(data).voluntarios(doDia).build());
+                }
+                escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        contexto.close();
+        postgres.close();
+    }
+}
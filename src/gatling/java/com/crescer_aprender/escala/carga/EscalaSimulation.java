@@ -0,0 +1,187 @@
+package com.crescer_aprender.escala.carga;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.PopulationBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+/**
+ * Os fluxos da coleção do Bruno (collection-postman/Bruno-collection) sob carga, um endpoint por vez: para cada
+ * cenário a taxa de chegada sobe em degraus (modelo aberto: novos usuários por segundo, independente do tempo de
+ * resposta). No relatório, a vazão máxima sustentável de um endpoint é o último degrau em que as respostas por segundo
+ * acompanham a taxa de chegada sem falhas nem salto no p95/p99.
+ * Propriedades (-D): carga.cenario (um só cenário; padrão: todos, em sequência), carga.voluntarios (300),
+ * carga.degraus (5), carga.duracao-degrau (segundos, 20), carga.fator (multiplica a taxa de todos os degraus, 1) e
+ * carga.threads-virtuais (sobe a aplicação com o perfil threads-virtuais, false).
+ * Login, escalas e voluntários usam os tokens gerados na carga inicial; só o cenário de login confere senha.
+ */
+public class EscalaSimulation extends Simulation {
+
+    private static final String ESCALA = "/crescer-aprender/escala";
+    private static final String VOLUNTARIOS = "/crescer-aprender/voluntarios";
+
+    private final AmbienteDeCarga ambiente = AmbienteDeCarga.inicia(Integer.getInteger("carga.voluntarios", 300),
+            Boolean.getBoolean("carga.threads-virtuais"));
+    private final int degraus = Integer.getInteger("carga.degraus", 5);
+    private final int duracaoDegrau = Integer.getInteger("carga.duracao-degrau", 20);
+    private final double fator = Double.parseDouble(System.getProperty("carga.fator", "1"));
+
+    // meses livres para a criação de escalas: cada usuário pega um, cria a escala, a remove e devolve o mês
+    private final Queue<Map<String, Object>> mesesLivres = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger proximoMes = new AtomicInteger();
+
+    {
+        HttpProtocolBuilder protocolo = http.baseUrl(ambiente.url())
+                .acceptHeader("application/json")
+                .contentTypeHeader("application/json");
+
+        Map<String, PopulationBuilder> cenarios = Map.of(
+                "login", degraus(login(), 2),
+                "listagem", degraus(listagem(), 5),
+                "pesquisa", degraus(pesquisa(), 25),
+                "criacao", degraus(criacao(), 2),
+                "disponibilidade", degraus(disponibilidade(), 10));
+        List<String> ordem = List.of("login", "listagem", "pesquisa", "criacao", "disponibilidade");
+        String cenario = System.getProperty("carga.cenario");
+        PopulationBuilder populacao;
+        if (cenario != null) {
+            if (!cenarios.containsKey(cenario)) {
+                throw new IllegalArgumentException("Cenário desconhecido: " + cenario + ". Válidos: " + ordem);
+            }
+            populacao = cenarios.get(cenario);
+        } else {
+            populacao = cenarios.get(ordem.get(0));
+            for (String proximo : ordem.subList(1, ordem.size())) {
+                populacao = populacao.andThen(cenarios.get(proximo));
+            }
+        }
+        setUp(populacao).protocols(protocolo)
+                .assertions(global().failedRequests().percent().lt(1.0));
+    }
+
+    @Override
+    public void after() {
+        try {
+            ambiente.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // taxa inicial = passo; sobe um passo por degrau
+    private PopulationBuilder degraus(ScenarioBuilder cenario, double passo) {
+        return cenario.injectOpen(incrementUsersPerSec(passo * fator)
+                .times(degraus)
+                .eachLevelLasting(duracaoDegrau)
+                .separatedByRampsLasting(2)
+                .startingFrom(passo * fator));
+    }
+
+    private ChainBuilder autenticado(ChainBuilder chain) {
+        return feed(listFeeder(ambiente.voluntarios()).random()).exec(chain);
+    }
+
+    // Usuarios/Login.bru
+    private ScenarioBuilder login() {
+        return scenario("login").exec(autenticado(exec(http("Login").post("/auth/login")
+                .body(StringBody("{\"email\":\"#{email}\",\"senha\":\"" + AmbienteDeCarga.SENHA + "\"}"))
+                .check(status().is(200), jsonPath("$.token").exists()))));
+    }
+
+    // Escalas/Listar Escalas.bru: devolve todas as escalas, com dias e voluntários
+    private ScenarioBuilder listagem() {
+        return scenario("listagem").exec(autenticado(exec(http("Listar Escalas").get(ESCALA)
+                .header("Authorization", "Bearer #{token}")
+                .check(status().is(200)))));
+    }
+
+    // Escalas/Buscar Escala por Mês, Ano e Voluntário.bru, com a pesquisa paginada e a busca por data
+    private ScenarioBuilder pesquisa() {
+        Iterator<Map<String, Object>> mesesComEscala = Stream.generate(() -> {
+            int ano = ThreadLocalRandom.current().nextInt(AmbienteDeCarga.ANO_INICIAL_ESCALAS, AmbienteDeCarga.ANO_INICIAL_DISPONIBILIDADE);
+            int mes = ThreadLocalRandom.current().nextInt(1, 13);
+            return Map.<String, Object>of("ano", ano, "mes", mes, "data", LocalDate.of(ano, mes, 1).toString());
+        }).iterator();
+        return scenario("pesquisa").exec(autenticado(feed(mesesComEscala)
+                .exec(http("Pesquisar Escalas").get(ESCALA + "/pesquisa?ano=#{ano}&mes=#{mes}")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().is(200)))
+                .exec(http("Buscar Escala por Data").get(ESCALA + "/byDate/#{data}")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().is(200)))
+                .exec(http("Buscar Escala por Mes, Ano e Voluntario")
+                        .get(ESCALA + "/buscar-por-mes-ano-voluntario?mes=#{mes}&ano=#{ano}&idVoluntario=#{voluntarioId}")
+                        .header("Authorization", "Bearer #{token}")
+                        .check(status().in(200, 404)))));
+    }
+
+    // Escalas/Criar Escala.bru com seleção automática dos voluntários, seguido de Escalas/Deletar Escala.bru
+    private ScenarioBuilder criacao() {
+        Iterator<Map<String, Object>> meses = Stream.generate(this::mesLivre).iterator();
+        return scenario("criacao").feed(meses)
+                .exec(http("Criar Escala").post(ESCALA)
+                        .header("Authorization", "Bearer " + ambiente.tokenCoordenador())
+                        .body(StringBody("{\"mes\":#{mes},\"ano\":#{ano},\"datas\":#{datas},\"incluirVoluntariosAutomaticamente\":true}"))
+                        .check(status().is(200), jsonPath("$.id").saveAs("idEscala")))
+                .exitHereIfFailed()
+                .exec(http("Deletar Escala").delete(ESCALA + "/#{idEscala}")
+                        .header("Authorization", "Bearer " + ambiente.tokenCoordenador())
+                        .check(status().is(200)))
+                .exitHereIfFailed()
+                .exec(session -> {
+                    mesesLivres.add(Map.of("ano", session.get("ano"), "mes", session.get("mes"), "datas", session.get("datas")));
+                    return session;
+                });
+    }
+
+    // meses devolvidos primeiro; um mês novo só quando todos estão em uso (ano_mes é único)
+    private Map<String, Object> mesLivre() {
+        Map<String, Object> mes = mesesLivres.poll();
+        if (mes != null) {
+            return mes;
+        }
+        int indice = proximoMes.getAndIncrement();
+        int ano = AmbienteDeCarga.ANO_INICIAL_DISPONIBILIDADE + indice / 12;
+        int numeroMes = indice % 12 + 1;
+        String datas = AmbienteDeCarga.sabados(ano, numeroMes).stream()
+                .map(data -> "\"" + data + "\"").collect(Collectors.joining(",", "[", "]"));
+        return Map.of("ano", ano, "mes", numeroMes, "datas", datas);
+    }
+
+    // Voluntarios/Atualizar Voluntario.bru, pela alteração parcial das datas disponíveis: inclui um sábado e remove outro
+    private ScenarioBuilder disponibilidade() {
+        List<LocalDate> sabados = new ArrayList<>();
+        for (int ano = AmbienteDeCarga.ANO_INICIAL_DISPONIBILIDADE;
+             ano < AmbienteDeCarga.ANO_INICIAL_DISPONIBILIDADE + AmbienteDeCarga.ANOS_DISPONIBILIDADE; ano++) {
+            for (int mes = 1; mes <= 12; mes++) {
+                sabados.addAll(AmbienteDeCarga.sabados(ano, mes));
+            }
+        }
+        Iterator<Map<String, Object>> alteracoes = Stream.generate(() -> Map.<String, Object>of(
+                "incluir", sabados.get(ThreadLocalRandom.current().nextInt(sabados.size())).toString(),
+                "remover", sabados.get(ThreadLocalRandom.current().nextInt(sabados.size())).toString())).iterator();
+        return scenario("disponibilidade").exec(autenticado(feed(alteracoes)
+                .exec(http("Alterar Datas Disponiveis").patch(VOLUNTARIOS + "/#{voluntarioId}/datas-disponiveis")
+                        .header("Authorization", "Bearer #{token}")
+                        .body(StringBody("{\"incluir\":[\"#{incluir}\"],\"remover\":[\"#{remover}\"]}"))
+                        .check(status().is(200)))));
+    }
+}
@@ -0,0 +1,56 @@
+package com.crescer_aprender.escala.benchmark;
+
+import com.crescer_aprender.escala.service.alocacao.AlocacaoAleatoriaStrategy;
+import com.crescer_aprender.escala.service.alocacao.AlocacaoBalanceadaStrategy;
+import com.crescer_aprender.escala.service.alocacao.AlocacaoStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Alocação de um mês de 31 dias com 10 mil voluntários, cada um disponível em ~1/3 dos dias.
+ * Compara a estratégia balanceada (fila de prioridade por carga) com a aleatória (shuffle + sublist).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlocacaoStrategyBenchmark {
+
+    @Param({"10000"})
+    int voluntarios;
+
+    @Param({"31"})
+    int dias;
+
+    private Map<LocalDate, List<Long>> candidatosPorData;
+    private final AlocacaoStrategy balanceada = new AlocacaoBalanceadaStrategy();
+    private final AlocacaoStrategy aleatoria = new AlocacaoAleatoriaStrategy();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        candidatosPorData = new LinkedHashMap<>();
+        for (int dia = 0; dia < dias; dia++) {
+            List<Long> candidatos = new ArrayList<>();
+            for (long id = 1; id <= voluntarios; id++) {
+                if (random.nextInt(3) == 0) candidatos.add(id);
+            }
+            candidatosPorData.put(LocalDate.of(2025, 7, 1).plusDays(dia), candidatos);
+        }
+    }
+
+    @Benchmark
+    public Map<LocalDate, List<Long>> balanceada() {
+        return balanceada.aloca(candidatosPorData);
+    }
+
+    @Benchmark
+    public Map<LocalDate, List<Long>> aleatoria() {
+        return aleatoria.aloca(candidatosPorData);
+    }
+}
@@ -0,0 +1,121 @@
+package com.crescer_aprender.escala.benchmark;
+
+import com.crescer_aprender.escala.EscalaApplication;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.crescer_aprender.escala.repository.EscalaSpecifications;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pesquisa paginada (página de 20, como em /pesquisa) com EscalaSpecifications (EXISTS, sem DISTINCT) e com a
+ * versão anterior (join em datas + DISTINCT), em um PostgreSQL embarcado com 20 anos de escalas semanais.
+ * O filtro por voluntário só existe na versão nova: a anterior fazia join em um atributo inexistente e ignorava a chave.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EscalaFiltroBenchmark {
+
+    private static final int ANOS = 20;
+    private static final int ANO_INICIAL = 2000;
+    private static final Pageable PAGINA = PageRequest.of(0, 20);
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext contexto;
+    private EscalaRepository escalaRepository;
+
+    private Map<String, String> anoEMes;
+    private Map<String, String> anoEData;
+    private Map<String, String> voluntario;
+
+    @Setup
+    public void setUp() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        // argumentos de linha de comando para sobrepor o application.properties
+        contexto = new SpringApplicationBuilder(EscalaApplication.class)
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres", "--spring.datasource.password=postgres",
+                        "--server.port=0", "--logging.level.root=WARN");
+        escalaRepository = contexto.getBean(EscalaRepository.class);
+        VoluntarioRepository voluntarioRepository = contexto.getBean(VoluntarioRepository.class);
+        EscalaDiaJdbcRepository escalaDiaJdbcRepository = contexto.getBean(EscalaDiaJdbcRepository.class);
+
+        List<Voluntario> voluntarios = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            voluntarios.add(Voluntario.builder().nome("Voluntário " + i).datasDisponiveis(new HashSet<>()).build());
+        }
+        voluntarios = voluntarioRepository.saveAll(voluntarios);
+        int alocacao = 0;
+        for (int ano = ANO_INICIAL; ano < ANO_INICIAL + ANOS; ano++) {
+            for (int mes = 1; mes <= 12; mes++) {
+                Escala escala = escalaRepository.save(Escala.builder().ano((long) ano).mes(mes).datas(new ArrayList<>()).build());
+                List<EscalaDia> dias = new ArrayList<>();
+                for (LocalDate data = LocalDate.of(ano, mes, 1); data.getMonthValue() == mes; data = data.plusWeeks(1)) {
+                    escala.getDatas().add(data);
+                    List<Voluntario> doDia = new ArrayList<>();
+                    for (int v = 0; v < 8; v++) {
+                        doDia.add(voluntarios.get(alocacao++ % voluntarios.size()));
+                    }
+                    dias.add(EscalaDia.builder().data(data).voluntarios(doDia).build());
+                }
+                escalaRepository.save(escala);
+                escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+            }
+        }
+        anoEMes = Map.of("ano", "2010", "mes", "6");
+        anoEData = Map.of("ano", "2010", "data", "2010-06-15");
+        voluntario = Map.of("ano", "2010", "voluntario", String.valueOf(voluntarios.get(7).getId()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        contexto.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Page<Escala> anoEMesLegado() {
+        return escalaRepository.findAll(EscalaSpecificationsLegado.byFilters(anoEMes), PAGINA);
+    }
+
+    @Benchmark
+    public Page<Escala> anoEMes() {
+        return escalaRepository.findAll(EscalaSpecifications.byFilters(anoEMes), PAGINA);
+    }
+
+    @Benchmark
+    public Page<Escala> anoEDataLegado() {
+        return escalaRepository.findAll(EscalaSpecificationsLegado.byFilters(anoEData), PAGINA);
+    }
+
+    @Benchmark
+    public Page<Escala> anoEData() {
+        return escalaRepository.findAll(EscalaSpecifications.byFilters(anoEData), PAGINA);
+    }
+
+    @Benchmark
+    public Page<Escala> voluntario() {
+        return escalaRepository.findAll(EscalaSpecifications.byFilters(voluntario), PAGINA);
+    }
+}
@@ -0,0 +1,84 @@
+package com.crescer_aprender.escala.benchmark;
+
+import com.crescer_aprender.escala.dto.EscalaResponse;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização de um mês de escala (31 dias x 8 voluntários) como a API devolvia (entidade Escala, com usuário e
+ * datas disponíveis de cada voluntário) e como devolve agora (EscalaResponse). O tamanho do JSON é impresso no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscalaSerializacaoBenchmark {
+
+    @Param({"31"})
+    int dias;
+
+    // cada voluntário informa a disponibilidade de um semestre
+    @Param({"120"})
+    int datasDisponiveisPorVoluntario;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private Escala escala;
+    private EscalaResponse resposta;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        LocalDate inicio = LocalDate.of(2025, 7, 1);
+        List<Voluntario> voluntarios = new ArrayList<>();
+        for (long id = 1; id <= 60; id++) {
+            Set<LocalDate> datasDisponiveis = new HashSet<>();
+            for (int d = 0; d < datasDisponiveisPorVoluntario; d++) {
+                datasDisponiveis.add(inicio.plusDays(d));
+            }
+            Usuario usuario = Usuario.builder().id(id).email("voluntario" + id + "@email.com")
+                    .senha("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z1Qw6rYpQ4bW1yQk1GdQmU8e").role(PerfisUsuariosEnum.VOLUNTARIO).build();
+            voluntarios.add(Voluntario.builder().id(id).nome("Voluntário " + id).usuario(usuario).datasDisponiveis(datasDisponiveis).build());
+        }
+        escala = Escala.builder().id(1L).mes(7).ano(2025L).datas(new ArrayList<>()).dias(new ArrayList<>()).build();
+        for (int d = 0; d < dias; d++) {
+            List<Voluntario> doDia = new ArrayList<>();
+            for (int v = 0; v < 8; v++) {
+                doDia.add(voluntarios.get((d * 8 + v) % voluntarios.size()));
+            }
+            escala.getDatas().add(inicio.plusDays(d));
+            escala.getDias().add(EscalaDia.builder().id((long) d).data(inicio.plusDays(d)).voluntarios(doDia).escala(escala).build());
+        }
+        resposta = EscalaResponse.of(escala);
+        System.out.printf("Tamanho do JSON | entidade=%d bytes resposta=%d bytes%n",
+                objectMapper.writeValueAsBytes(escala).length, objectMapper.writeValueAsBytes(resposta).length);
+    }
+
+    @Benchmark
+    public byte[] entidade() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(escala);
+    }
+
+    @Benchmark
+    public byte[] resposta() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(resposta);
+    }
+}
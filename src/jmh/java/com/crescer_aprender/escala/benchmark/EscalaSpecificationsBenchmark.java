@@ -0,0 +1,85 @@
+package com.crescer_aprender.escala.benchmark;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.repository.EscalaSpecifications;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem do predicado de EscalaSpecifications.byFilters (conversão e validação dos filtros + Criteria API), sem banco:
+ * o SessionFactory é criado só com o mapeamento e o dialeto, sem acessar o JDBC. Compara com EscalaSpecificationsLegado.
+ * O custo da consulta em si está em EscalaFiltroBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscalaSpecificationsBenchmark {
+
+    // chaves separadas por vírgula; o filtro por voluntário não existe no legado
+    @Param({"ano,mes", "ano,data"})
+    String chaves;
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder builder;
+    private Map<String, String> filtros;
+
+    @Setup
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Escala.class)
+                .addAnnotatedClass(EscalaDia.class)
+                .addAnnotatedClass(Voluntario.class)
+                .addAnnotatedClass(Usuario.class)
+                .setProperty("hibernate.dialect", PostgreSQLDialect.class.getName())
+                .setProperty("hibernate.boot.allow_jdbc_metadata_access", "false")
+                .buildSessionFactory();
+        builder = sessionFactory.getCriteriaBuilder();
+        filtros = new LinkedHashMap<>();
+        for (String chave : chaves.split(",")) {
+            filtros.put(chave, switch (chave) {
+                case "ano" -> "2025";
+                case "mes" -> "7";
+                case "data" -> "2025-07-05";
+                default -> throw new IllegalArgumentException(chave);
+            });
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    private Predicate predicado(Specification<Escala> especificacao) {
+        CriteriaQuery<Escala> query = builder.createQuery(Escala.class);
+        Root<Escala> root = query.from(Escala.class);
+        return especificacao.toPredicate(root, query, builder);
+    }
+
+    @Benchmark
+    public Predicate atual() {
+        return predicado(EscalaSpecifications.byFilters(filtros));
+    }
+
+    @Benchmark
+    public Predicate legado() {
+        return predicado(EscalaSpecificationsLegado.byFilters(filtros));
+    }
+}
@@ -0,0 +1,65 @@
+package com.crescer_aprender.escala.benchmark;
+
+import com.crescer_aprender.escala.security.JwtService;
+import com.crescer_aprender.escala.security.TokenVerificado;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do JWT por requisição autenticada. "tresVerificacoes" reproduz o fluxo anterior do JwtAuthenticationFilter
+ * (extractUsername + isTokenValid, que lia o token de novo para o username e para a expiração): três leituras com
+ * verificação HS256. "umaVerificacao" é o primeiro uso de um token (lido uma vez) e "tokenEmCache" os seguintes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificacaoBenchmark {
+
+    private static final String SEGREDO = "segredo-do-benchmark-com-mais-de-32-bytes";
+
+    private JwtService jwtService;
+    private JwtParser parser;
+    private UserDetails usuario;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SEGREDO, 10_000);
+        parser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SEGREDO.getBytes(StandardCharsets.UTF_8))).build();
+        usuario = User.withUsername("voluntario@email.com").password("hash").authorities("VOLUNTARIO").build();
+        token = jwtService.generateToken(usuario);
+    }
+
+    @Benchmark
+    public boolean tresVerificacoes() {
+        String username = parser.parseSignedClaims(token).getPayload().getSubject();
+        boolean mesmoUsuario = parser.parseSignedClaims(token).getPayload().getSubject().equals(usuario.getUsername());
+        Date expiracao = parser.parseSignedClaims(token).getPayload().getExpiration();
+        return username != null && mesmoUsuario && expiracao.after(new Date());
+    }
+
+    @Benchmark
+    public boolean umaVerificacao() {
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        TokenVerificado verificado = new TokenVerificado(claims.getId(), claims.getSubject(), null, null,
+                claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant(), claims.getExpiration().toInstant());
+        return jwtService.isTokenValid(verificado, usuario);
+    }
+
+    @Benchmark
+    public boolean tokenEmCache() {
+        return jwtService.isTokenValid(jwtService.verifica(token), usuario);
+    }
+}
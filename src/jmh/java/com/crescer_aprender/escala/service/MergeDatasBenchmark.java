@@ -0,0 +1,70 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.Voluntario;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mescla das datas no PUT de escala (EscalaService.mergeDatas, List) e de voluntário
+ * (VoluntarioService.mergeDatasDisponiveis, Set) com listas grandes: metade das datas novas já existe e a outra metade
+ * substitui as que saem. Fica no pacote service porque os dois métodos são package-private. Cada chamada mescla uma
+ * cópia das datas atuais; "copiaLista" e "copiaSet" medem só a cópia, para descontar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MergeDatasBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    int datas;
+
+    private List<LocalDate> atuais;
+    private List<LocalDate> novas;
+    private Set<LocalDate> novasSet;
+
+    @Setup
+    public void setUp() {
+        LocalDate inicio = LocalDate.of(2000, 1, 1);
+        atuais = new ArrayList<>(datas);
+        novas = new ArrayList<>(datas);
+        for (int i = 0; i < datas; i++) {
+            atuais.add(inicio.plusDays(i));
+            novas.add(inicio.plusDays(i + datas / 2L));
+        }
+        novasSet = new HashSet<>(novas);
+    }
+
+    @Benchmark
+    public Escala mergeDatas() {
+        Escala escala = Escala.builder().datas(new ArrayList<>(atuais)).build();
+        EscalaService.mergeDatas(escala, novas);
+        return escala;
+    }
+
+    @Benchmark
+    public Voluntario mergeDatasDisponiveis() {
+        Voluntario voluntario = Voluntario.builder().datasDisponiveis(new HashSet<>(atuais)).build();
+        VoluntarioService.mergeDatasDisponiveis(voluntario, novasSet);
+        return voluntario;
+    }
+
+    @Benchmark
+    public List<LocalDate> copiaLista() {
+        return new ArrayList<>(atuais);
+    }
+
+    @Benchmark
+    public Set<LocalDate> copiaSet() {
+        return new HashSet<>(atuais);
+    }
+}
@@ -2,8 +2,10 @@ package com.crescer_aprender.escala;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class EscalaApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(EscalaApplication.class, args);
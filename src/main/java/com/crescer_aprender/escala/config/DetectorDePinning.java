@@ -0,0 +1,84 @@
+package com.crescer_aprender.escala.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Acompanha o evento JFR jdk.VirtualThreadPinned: uma thread virtual que bloqueia dentro de um synchronized (no Java 21)
+ * não solta a thread carrier, e com poucas carriers (uma por núcleo) algumas requisições presas assim param as demais.
+ * Cada ocorrência acima do limite vira um warn com o topo da pilha e entra no timer escala.threads.pinning, com a tag
+ * origem = primeiro pacote conhecido da pilha (driver JDBC, Hikari, Hibernate, Spring ou a aplicação).
+ */
+@Slf4j
+public class DetectorDePinning implements AutoCloseable {
+
+    static final String EVENTO = "jdk.VirtualThreadPinned";
+    // do mais específico para o mais genérico: a primeira origem encontrada no topo da pilha é a que segurou o monitor
+    private static final List<String> ORIGENS = List.of("org.postgresql", "com.zaxxer.hikari", "org.hibernate",
+            "org.springframework", "com.crescer_aprender");
+    private static final int FRAMES_NO_LOG = 8;
+
+    private final RecordingStream stream;
+    private final MeterRegistry registry;
+
+    public DetectorDePinning(Duration limite, MeterRegistry registry) {
+        this.registry = registry;
+        this.stream = new RecordingStream();
+        stream.enable(EVENTO).withThreshold(limite).withStackTrace();
+        stream.onEvent(EVENTO, this::registra);
+    }
+
+    public void inicia() {
+        stream.startAsync();
+        log.info("Detecção de pinning de threads virtuais ativa");
+    }
+
+    void registra(RecordedEvent evento) {
+        RecordedStackTrace pilha = evento.getStackTrace();
+        String origem = origem(pilha);
+        Timer.builder("escala.threads.pinning").tag("origem", origem)
+                .description("Tempo em que uma thread virtual ficou presa à carrier").register(registry)
+                .record(evento.getDuration());
+        log.warn("Thread virtual presa à carrier por {} ms | origem={} pilha={}", evento.getDuration().toMillis(), origem, resumo(pilha));
+    }
+
+    static String origem(RecordedStackTrace pilha) {
+        if (pilha == null) {
+            return "desconhecida";
+        }
+        for (RecordedFrame frame : pilha.getFrames()) {
+            if (frame.isJavaFrame()) {
+                String classe = frame.getMethod().getType().getName();
+                for (String origem : ORIGENS) {
+                    if (classe.startsWith(origem)) {
+                        return origem;
+                    }
+                }
+            }
+        }
+        return "outra";
+    }
+
+    private static String resumo(RecordedStackTrace pilha) {
+        if (pilha == null) {
+            return "[]";
+        }
+        return pilha.getFrames().stream().limit(FRAMES_NO_LOG)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- ", "[", "]"));
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
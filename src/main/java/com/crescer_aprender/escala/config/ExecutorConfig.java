@@ -0,0 +1,35 @@
+package com.crescer_aprender.escala.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class ExecutorConfig {
+
+    // threads virtuais, mas em número fixo: cada mês gerado segura uma conexão do pool durante a transação
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService escalaLoteExecutor(@Value("${escala.lote.paralelismo:4}") int paralelismo) {
+        return Executors.newFixedThreadPool(paralelismo, Thread.ofVirtual().name("escala-lote-", 0).factory());
+    }
+
+    // BCrypt é CPU pura: threads de plataforma em número fixo (padrão: metade dos núcleos) e fila curta, recusando o excedente
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService senhaExecutor(@Value("${escala.seguranca.senhas.threads:0}") int threads,
+                                         @Value("${escala.seguranca.senhas.fila:32}") int fila,
+                                         MeterRegistry registry) {
+        int tamanho = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), Thread.ofPlatform().name("senha-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(registry, executor, "senhas");
+    }
+}
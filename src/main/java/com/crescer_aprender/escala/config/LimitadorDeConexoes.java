@@ -0,0 +1,132 @@
+package com.crescer_aprender.escala.config;
+
+import com.crescer_aprender.escala.exception.BancoSobrecarregadoException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource que deixa no máximo "conexoes" conexões abertas ao mesmo tempo (o tamanho do pool do Hikari), na frente
+ * de todos os repositórios (JPA e JDBC). Com threads virtuais o Tomcat aceita tantas requisições simultâneas quanto
+ * chegarem, e sem o limite todas esperariam no pool do Hikari até o connection-timeout (30 s). Aqui no máximo "fila"
+ * requisições aguardam, por no máximo "esperaMaxima"; o excedente recebe 503.
+ * A permissão é devolvida quando a conexão é fechada (devolvida ao pool).
+ * Métricas: escala.banco.limitador.espera, escala.banco.limitador.rejeitadas e escala.banco.limitador.aguardando.
+ */
+@Slf4j
+public class LimitadorDeConexoes extends DelegatingDataSource {
+
+    private final Semaphore permissoes;
+    private final int fila;
+    private final Duration esperaMaxima;
+    private final AtomicInteger aguardando = new AtomicInteger();
+    private final Timer espera;
+    private final Counter rejeitadas;
+
+    public LimitadorDeConexoes(DataSource alvo, int conexoes, int fila, Duration esperaMaxima, MeterRegistry registry) {
+        super(alvo);
+        // sem fairness: em ordem de chegada, a permissão devolvida fica parada até a thread acordada conseguir uma carrier
+        // (com a CPU ocupada, centenas de ms por conexão); assim quem chega e encontra permissão livre já a usa
+        this.permissoes = new Semaphore(conexoes);
+        this.fila = fila;
+        this.esperaMaxima = esperaMaxima;
+        this.espera = Timer.builder("escala.banco.limitador.espera")
+                .description("Espera por uma permissão para abrir conexão").register(registry);
+        this.rejeitadas = Counter.builder("escala.banco.limitador.rejeitadas").register(registry);
+        Gauge.builder("escala.banco.limitador.aguardando", aguardando, AtomicInteger::get).register(registry);
+        log.info("Limitador de conexões ativo | conexoes={} fila={} esperaMaxima={}", conexoes, fila, esperaMaxima);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquire();
+        try {
+            return liberaAoFechar(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquire();
+        try {
+            return liberaAoFechar(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    private void adquire() {
+        try {
+            if (permissoes.tryAcquire()) {
+                return;
+            }
+            if (aguardando.incrementAndGet() > fila) {
+                aguardando.decrementAndGet();
+                rejeitadas.increment();
+                log.warn("Fila de conexões cheia, requisição recusada | aguardando={}", fila);
+                throw new BancoSobrecarregadoException();
+            }
+            long inicio = System.nanoTime();
+            try {
+                if (!permissoes.tryAcquire(esperaMaxima.toNanos(), TimeUnit.NANOSECONDS)) {
+                    rejeitadas.increment();
+                    log.warn("Nenhuma conexão livre em {} ms, requisição recusada", esperaMaxima.toMillis());
+                    throw new BancoSobrecarregadoException();
+                }
+            } finally {
+                aguardando.decrementAndGet();
+                espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando conexão com o banco", e);
+        }
+    }
+
+    // devolve a permissão no primeiro close(); equals e hashCode pela identidade do proxy, como nos proxies do Spring
+    private Connection liberaAoFechar(Connection conexao) {
+        AtomicBoolean fechada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(LimitadorDeConexoes.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, args) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "close" -> {
+                        try {
+                            yield invoca(conexao, metodo, args);
+                        } finally {
+                            if (fechada.compareAndSet(false, true)) {
+                                permissoes.release();
+                            }
+                        }
+                    }
+                    default -> invoca(conexao, metodo, args);
+                });
+    }
+
+    private static Object invoca(Connection conexao, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(conexao, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.crescer_aprender.escala.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Complementos do perfil threads-virtuais (spring.threads.virtual.enabled, que o Spring Boot aplica ao Tomcat, ao
+ * applicationTaskExecutor e ao @Scheduled): o LimitadorDeConexoes na frente do DataSource e o DetectorDePinning.
+ * Cada um pode ser ligado ou desligado pela sua propriedade, independente do perfil.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ThreadsVirtuaisConfig {
+
+    // estático: BeanPostProcessor é criado antes dos demais beans
+    @Bean
+    @ConditionalOnProperty(name = "escala.banco.limitador.habilitado", havingValue = "true")
+    public static BeanPostProcessor limitadorDeConexoes(@Value("${escala.banco.limitador.conexoes:0}") int conexoes,
+                                                        @Value("${escala.banco.limitador.fila:200}") int fila,
+                                                        @Value("${escala.banco.limitador.espera-maxima:2s}") Duration esperaMaxima,
+                                                        ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof LimitadorDeConexoes)) {
+                    // 0 = tamanho do pool do Hikari, já com as propriedades spring.datasource.hikari.* aplicadas
+                    int limite = conexoes > 0 ? conexoes
+                            : dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                    return new LimitadorDeConexoes(dataSource, limite, fila, esperaMaxima, registry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "escala.threads.pinning.habilitado", havingValue = "true")
+    public DetectorDePinning detectorDePinning(@Value("${escala.threads.pinning.limite:20ms}") Duration limite,
+                                               MeterRegistry registry) {
+        DetectorDePinning detector = new DetectorDePinning(limite, registry);
+        detector.inicia();
+        return detector;
+    }
+}
@@ -2,17 +2,19 @@ package com.crescer_aprender.escala.controller;
 
 import com.crescer_aprender.escala.entity.Usuario;
 import com.crescer_aprender.escala.entity.Voluntario;
-import com.crescer_aprender.escala.exception.UserEmailNotFoundException;
+import com.crescer_aprender.escala.exception.SenhasSobrecarregadasException;
 import com.crescer_aprender.escala.security.JwtService;
-import com.crescer_aprender.escala.service.VoluntarioService;
+import com.crescer_aprender.escala.security.RevogacaoTokens;
+import com.crescer_aprender.escala.security.TokenVerificado;
+import com.crescer_aprender.escala.service.LoginService;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import lombok.extern.slf4j.Slf4j;
@@ -26,32 +28,62 @@ import java.util.List;
 public class AuthController {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
-    @Autowired
-    private VoluntarioService voluntarioService;
+    private LoginService loginService;
 
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private RevogacaoTokens revogacaoTokens;
+
+    @Autowired
+    private MeterRegistry registry;
+
     @PostMapping("/login")
     public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest authRequest) {
         log.info("Tentativa de login para usuário={}", authRequest.getEmail());
+        Timer.Sample amostra = Timer.start();
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getSenha())
-            );
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            Voluntario userData = voluntarioService.findByUsuarioEmail(authRequest.email).orElseThrow(() -> new UserEmailNotFoundException(authRequest.getEmail()));
-            String token = jwtService.generateToken(userDetails);
+            Voluntario userData = loginService.autentica(authRequest.getEmail(), authRequest.getSenha());
+            String token = jwtService.generateToken(userData.getUsuario());
             log.info("Login bem-sucedido para usuário={}", authRequest.getEmail());
+            amostra.stop(tempoLogin("sucesso"));
             return ResponseEntity.ok(new AuthResponse(userData, token));
+        } catch (SenhasSobrecarregadasException e) {
+            // a senha não chegou a ser conferida: não é credencial inválida, o cliente pode tentar de novo
+            log.warn("Login recusado para usuário={}: pool de senhas sobrecarregado", authRequest.getEmail());
+            amostra.stop(tempoLogin("sobrecarga"));
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(null);
         } catch (Exception e) {
             log.warn("Falha no login para usuário={}: {}", authRequest.getEmail(), e.getMessage());
+            amostra.stop(tempoLogin("falha"));
             // Não expor mensagem de exceção interna ao cliente
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
         }
     }
 
+    private Timer tempoLogin(String resultado) {
+        return Timer.builder("escala.autenticacao.login").tag("resultado", resultado).publishPercentileHistogram().register(registry);
+    }
+
+    // revoga o token informado no cabeçalho Authorization; ele deixa de valer em todas as instâncias
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        try {
+            TokenVerificado token = jwtService.verifica(authorization.substring(7));
+            if (token.id() != null) {
+                revogacaoTokens.revogaToken(token);
+            }
+            return ResponseEntity.noContent().build();
+        } catch (JwtException e) {
+            log.warn("Logout com token inválido: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
     @Data
     public static class AuthRequest {
         private String email;
@@ -71,7 +103,7 @@ public class AuthController {
             this.email = user.getUsuario().getEmail();
             this.nome = user.getNome();
             this.role = user.getUsuario().getRole().name();
-            this.datasDisponiveis = user.getDatasDisponiveis();
+            this.datasDisponiveis = user.getDatasDisponiveis() == null ? null : user.getDatasDisponiveis().stream().sorted().toList();
             this.token = token;
         }
     }
@@ -4,18 +4,28 @@ import com.crescer_aprender.escala.entity.Escala;
 import com.crescer_aprender.escala.exception.EntityNotFoundException;
 import com.crescer_aprender.escala.exception.EscalaAlreadyExistsException;
 import com.crescer_aprender.escala.exception.VoluntarioNotExistException;
+import com.crescer_aprender.escala.enums.FormatosExportacaoEnum;
+import com.crescer_aprender.escala.service.EscalaExportacaoService;
+import com.crescer_aprender.escala.service.EscalaLoteService;
 import com.crescer_aprender.escala.service.EscalaService;
 import com.crescer_aprender.escala.dto.EscalaCreateRequest;
+import com.crescer_aprender.escala.dto.EscalaCursorResponse;
+import com.crescer_aprender.escala.dto.EscalaLoteResultado;
+import com.crescer_aprender.escala.dto.EscalaResponse;
 import com.crescer_aprender.escala.exception.InvalidVoluntarioDataException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import java.time.LocalDate;
 import java.util.List;
@@ -28,81 +38,112 @@ import java.util.Optional;
 public class EscalaController {
 
     private final EscalaService escalaService;
+    private final EscalaLoteService escalaLoteService;
+    private final EscalaExportacaoService escalaExportacaoService;
 
     @Autowired
-    public EscalaController(EscalaService escalaService) {
+    public EscalaController(EscalaService escalaService, EscalaLoteService escalaLoteService, EscalaExportacaoService escalaExportacaoService) {
         this.escalaService = escalaService;
+        this.escalaLoteService = escalaLoteService;
+        this.escalaExportacaoService = escalaExportacaoService;
     }
 
     @GetMapping
-    public ResponseEntity<List<Escala>> getAll() {
+    public ResponseEntity<List<EscalaResponse>> getAll() {
         log.info("Recebida requisição para listar todas as escalas.");
-        Optional<List<Escala>> escalas = escalaService.loadAll();
+        Optional<List<EscalaResponse>> escalas = escalaService.loadAllResponse();
         return escalas.map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.noContent().build());
     }
 
+    /**
+     * Exporta todas as escalas (ou as do ano informado) em NDJSON ou CSV. A resposta é escrita em stream conforme
+     * as linhas são lidas do banco, sem montar a lista de escalas em memória.
+     */
+    @GetMapping("/exportar")
+    public ResponseEntity<StreamingResponseBody> exportar(@RequestParam(required = false) Long ano,
+                                                          @RequestParam(defaultValue = "ndjson") String formato) {
+        FormatosExportacaoEnum formatoExportacao = FormatosExportacaoEnum.de(formato);
+        log.info("Recebida requisição para exportar escalas | ano={} formato={}", ano, formatoExportacao);
+        String arquivo = "escalas" + (ano == null ? "" : "-" + ano) + formatoExportacao.getExtensao();
+        StreamingResponseBody corpo = saida -> escalaExportacaoService.exporta(ano, formatoExportacao, saida);
+        return ResponseEntity.ok()
+                .contentType(formatoExportacao.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(arquivo).build().toString())
+                .body(corpo);
+    }
+
     @GetMapping("byId/{id}")
-    public ResponseEntity<Escala> getById(@PathVariable Long id) {
+    public ResponseEntity<EscalaResponse> getById(@PathVariable Long id) {
         log.info("Recebida requisição para buscar escala por ID: {}", id);
-        return escalaService.findById(id)
+        return escalaService.findResponseById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping("byDate/{data}")
-    public ResponseEntity<Escala> getByAnoAndMes(@PathVariable LocalDate data){
+    public ResponseEntity<EscalaResponse> getByAnoAndMes(@PathVariable LocalDate data){
         log.info("Recebida requisição para buscar escala por Ano e Mês: {}", data);
-        return escalaService.findByAnoAndMes(data)
+        return escalaService.findResponseByAnoAndMes(data)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PreAuthorize("hasAuthority('COORDENADOR')")
     @PostMapping
-    public ResponseEntity<Escala> create(@RequestBody EscalaCreateRequest request) {
+    public ResponseEntity<EscalaResponse> create(@RequestBody EscalaCreateRequest request) {
         log.info("Recebida requisição para criar nova escala via DTO.");
             Escala saved = escalaService.saveFromRequest(request);
-            return ResponseEntity.ok(saved);
+            return ResponseEntity.ok(EscalaResponse.of(saved));
+    }
+
+    /**
+     * Gera várias escalas (ex.: um semestre) em paralelo, uma transação por mês. O resultado é informado por mês.
+     */
+    @PreAuthorize("hasAuthority('COORDENADOR')")
+    @PostMapping("/lote")
+    public ResponseEntity<List<EscalaLoteResultado>> createLote(@RequestBody List<EscalaCreateRequest> requests) {
+        log.info("Recebida requisição para criar {} escalas em lote.", requests == null ? 0 : requests.size());
+        return ResponseEntity.ok(escalaLoteService.saveAll(requests));
     }
 
     @PreAuthorize("hasAuthority('COORDENADOR')")
     @PutMapping("/{id}")
-    public ResponseEntity<Escala> update(@PathVariable Long id, @RequestBody Escala escala) {
+    public ResponseEntity<EscalaResponse> update(@PathVariable Long id, @RequestBody Escala escala) {
             Escala updated = escalaService.update(id, escala);
-            return ResponseEntity.ok(updated);
+            return ResponseEntity.ok(EscalaResponse.of(updated));
     }
 
     @PreAuthorize("hasAuthority('COORDENADOR')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Escala> delete(@PathVariable Long id) {
+    public ResponseEntity<EscalaResponse> delete(@PathVariable Long id) {
         try {
             escalaService.delete(id);
             return ResponseEntity.ok().build();
         } catch (EntityNotFoundException e) {
-            return new ResponseEntity<>(Escala.builder().errorMessage(e.getMessage()).build(), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(EscalaResponse.builder().errorMessage(e.getMessage()).build(), HttpStatus.NOT_FOUND);
         }
     }
 
     @GetMapping("/buscar-por-mes-ano-voluntario")
-    public ResponseEntity<Escala> findByMesAnoVoluntario(
+    public ResponseEntity<EscalaResponse> findByMesAnoVoluntario(
             @RequestParam Integer mes,
             @RequestParam Long ano,
             @RequestParam Long idVoluntario) {
         try {
-            return ResponseEntity.ok(escalaService.findEscalaByMesAnoVoluntario(mes, ano, idVoluntario).get());
+            return ResponseEntity.ok(escalaService.findResponseByMesAnoVoluntario(mes, ano, idVoluntario));
         }catch (EntityNotFoundException e) {
-            return new ResponseEntity<>(Escala.builder().errorMessage(e.getMessage()).build(), HttpStatus.NOT_FOUND);
+            return new ResponseEntity<>(EscalaResponse.builder().errorMessage(e.getMessage()).build(), HttpStatus.NOT_FOUND);
         }
     }
 
     /**
      * Busca dinâmica e paginada por query params. Exemplo: /search?mes=5&ano=2025
-     * Aceita qualquer par chave=valor; chaves suportadas por EscalaSpecifications: id, mes, ano, data(s), voluntario(voluntarioId).
+     * Chaves suportadas por EscalaSpecifications: id, mes, ano, data(s), voluntario(voluntarioId); outras chaves devolvem 400.
      */
     @GetMapping("/pesquisa")
-    public ResponseEntity<Page<Escala>> searchByQueryParams(@RequestParam Map<String, String> params, @PageableDefault Pageable pageable) {
-        Page<Escala> results = escalaService.findByFiltersPaginated(params, pageable);
+    public ResponseEntity<Page<EscalaResponse>> searchByQueryParams(@RequestParam Map<String, String> params, @PageableDefault Pageable pageable) {
+        Page<EscalaResponse> results = escalaService.findResponseByFiltersPaginated(params, pageable);
         if (results == null || results.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
@@ -113,22 +154,67 @@ public class EscalaController {
      * Busca dinâmica e paginada     por body JSON. Exemplo POST /search with body {"mes":"5","ano":"2025"}
      */
     @PostMapping("/pesquisa")
-    public ResponseEntity<Page<Escala>> searchByBody(@RequestBody Map<String, String> filters, @PageableDefault Pageable pageable) {
-        Page<Escala> results = escalaService.findByFiltersPaginated(filters, pageable);
+    public ResponseEntity<Page<EscalaResponse>> searchByBody(@RequestBody Map<String, String> filters, @PageableDefault Pageable pageable) {
+        Page<EscalaResponse> results = escalaService.findResponseByFiltersPaginated(filters, pageable);
         if (results == null || results.isEmpty()) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.ok(results);
     }
 
+    /**
+     * Pesquisa por cursor (keyset), ordenada por ano, mês e id. Exemplo: /pesquisa/cursor?ano=2025&size=20
+     * Para a próxima página, repita a chamada com cursor = proximoCursor da resposta. Aceita as mesmas chaves de filtro de /pesquisa.
+     */
+    @GetMapping("/pesquisa/cursor")
+    public ResponseEntity<EscalaCursorResponse> searchByQueryParamsCursor(@RequestParam Map<String, String> params,
+                                                                          @RequestParam(required = false) String cursor,
+                                                                          @RequestParam(defaultValue = "20") int size) {
+        return respostaCursor(escalaService.findResponseByFiltersCursor(params, cursor, size));
+    }
+
+    @PostMapping("/pesquisa/cursor")
+    public ResponseEntity<EscalaCursorResponse> searchByBodyCursor(@RequestBody Map<String, String> filters,
+                                                                   @RequestParam(required = false) String cursor,
+                                                                   @RequestParam(defaultValue = "20") int size) {
+        return respostaCursor(escalaService.findResponseByFiltersCursor(filters, cursor, size));
+    }
+
+    /**
+     * Igual a /pesquisa, mas devolve um Slice: não executa o COUNT, informa apenas se há próxima página.
+     */
+    @GetMapping("/pesquisa/slice")
+    public ResponseEntity<Slice<EscalaResponse>> searchByQueryParamsSlice(@RequestParam Map<String, String> params, @PageableDefault Pageable pageable) {
+        return respostaSlice(escalaService.findResponseByFiltersSlice(params, pageable));
+    }
+
+    @PostMapping("/pesquisa/slice")
+    public ResponseEntity<Slice<EscalaResponse>> searchByBodySlice(@RequestBody Map<String, String> filters, @PageableDefault Pageable pageable) {
+        return respostaSlice(escalaService.findResponseByFiltersSlice(filters, pageable));
+    }
+
+    private static ResponseEntity<EscalaCursorResponse> respostaCursor(EscalaCursorResponse resultado) {
+        if (resultado.getContent().isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(resultado);
+    }
+
+    private static ResponseEntity<Slice<EscalaResponse>> respostaSlice(Slice<EscalaResponse> resultado) {
+        if (resultado.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(resultado);
+    }
+
     @PutMapping("/popula-voluntarios/{idEscala}")
-    public ResponseEntity<Escala> populateVoluntarios(@PathVariable Long idEscala) {
+    public ResponseEntity<EscalaResponse> populateVoluntarios(@PathVariable Long idEscala) {
         try {
             log.info("Populando escala previamente criada com dias a partir da lista de datas... | IdEscala ={}", idEscala);
-            return ResponseEntity.ok(escalaService.populaEscalaComVoluntarios(idEscala));
+            return ResponseEntity.ok(EscalaResponse.of(escalaService.populaEscalaComVoluntarios(idEscala)));
         } catch (Exception e) {
             log.error("Erro ao popular escala previamente criada com dias a partir da lista de datas | Error={}",e.getMessage());
-            return new ResponseEntity<>(Escala.builder().errorMessage(e.getMessage()).build(), HttpStatus.BAD_REQUEST);
+            return new ResponseEntity<>(EscalaResponse.builder().errorMessage(e.getMessage()).build(), HttpStatus.BAD_REQUEST);
         }
     }
 }
\ No newline at end of file
@@ -1,16 +1,24 @@
 package com.crescer_aprender.escala.controller;
 
+import com.crescer_aprender.escala.dto.ImportacaoResultado;
 import com.crescer_aprender.escala.entity.Usuario;
 import com.crescer_aprender.escala.entity.Voluntario;
 import com.crescer_aprender.escala.exception.EmailAlreadyExistsException;
+import com.crescer_aprender.escala.exception.InvalidImportacaoException;
+import com.crescer_aprender.escala.exception.SenhasSobrecarregadasException;
+import com.crescer_aprender.escala.service.ImportacaoVoluntariosService;
 import com.crescer_aprender.escala.service.UsuarioService;
 import com.crescer_aprender.escala.service.VoluntarioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import lombok.extern.slf4j.Slf4j;
@@ -22,11 +30,13 @@ public class UsuarioController {
 
     private final UsuarioService service;
     private final VoluntarioService voluntarioService;
+    private final ImportacaoVoluntariosService importacaoService;
 
     @Autowired
-    public UsuarioController(UsuarioService service, VoluntarioService voluntarioService) {
+    public UsuarioController(UsuarioService service, VoluntarioService voluntarioService, ImportacaoVoluntariosService importacaoService) {
         this.service = service;
         this.voluntarioService = voluntarioService;
+        this.importacaoService = importacaoService;
     }
     @PreAuthorize("hasAuthority('COORDENADOR')")
     @PostMapping
@@ -39,6 +49,27 @@ public class UsuarioController {
         } catch (EmailAlreadyExistsException e) {
             log.warn("Falha ao criar usuário/voluntário - email já existe: {}", voluntario.getUsuario() != null ? voluntario.getUsuario().getEmail() : "N/A");
             return new ResponseEntity<>(Voluntario.builder().errorMessage(e.getMessage()).build(), HttpStatus.BAD_REQUEST);
+        } catch (SenhasSobrecarregadasException e) {
+            log.warn("Falha ao criar usuário/voluntário {} - pool de senhas sobrecarregado", voluntario.getNome());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Voluntario.builder().errorMessage(e.getReason()).build());
+        }
+    }
+
+    // importação de uma turma inteira (CSV ou array JSON), lida em stream; o corpo não é carregado inteiro em memória
+    @PreAuthorize("hasAuthority('COORDENADOR')")
+    @PostMapping(value = "/importacao", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ImportacaoResultado> importa(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream corpo) throws IOException {
+        log.info("Solicitação: importar voluntários, contentType={}", contentType);
+        try {
+            ImportacaoResultado resultado = MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                    ? importacaoService.importaJson(corpo)
+                    : importacaoService.importaCsv(corpo);
+            log.info("Importação concluída: {} de {} linhas importadas", resultado.getImportados(), resultado.getLidas());
+            return resultado.getErrorMessage() == null ? ResponseEntity.ok(resultado) : new ResponseEntity<>(resultado, HttpStatus.BAD_REQUEST);
+        } catch (InvalidImportacaoException e) {
+            log.warn("Importação recusada: {}", e.getReason());
+            return new ResponseEntity<>(ImportacaoResultado.builder().erros(List.of()).errorMessage(e.getReason()).build(), HttpStatus.BAD_REQUEST);
         }
     }
 
@@ -1,17 +1,24 @@
 package com.crescer_aprender.escala.controller;
 
+import com.crescer_aprender.escala.dto.DisponibilidadeLoteResultado;
+import com.crescer_aprender.escala.dto.DisponibilidadeRequest;
 import com.crescer_aprender.escala.entity.Voluntario;
 import com.crescer_aprender.escala.exception.EmailAlreadyExistsException;
+import com.crescer_aprender.escala.exception.SenhasSobrecarregadasException;
 import com.crescer_aprender.escala.exception.EntityNotFoundException;
+import com.crescer_aprender.escala.exception.InvalidVoluntarioDataException;
 import com.crescer_aprender.escala.exception.VoluntarioIsScheduledException;
+import com.crescer_aprender.escala.service.DisponibilidadeLoteService;
 import com.crescer_aprender.escala.service.VoluntarioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,10 +28,12 @@ import lombok.extern.slf4j.Slf4j;
 public class VoluntarioController {
 
     private final VoluntarioService service;
+    private final DisponibilidadeLoteService disponibilidadeLoteService;
 
     @Autowired
-    public VoluntarioController(VoluntarioService service) {
+    public VoluntarioController(VoluntarioService service, DisponibilidadeLoteService disponibilidadeLoteService) {
         this.service = service;
+        this.disponibilidadeLoteService = disponibilidadeLoteService;
     }
 
     @PreAuthorize("hasAuthority('COORDENADOR')")
@@ -53,6 +62,10 @@ public class VoluntarioController {
         } catch (EmailAlreadyExistsException e) {
             log.warn("Falha ao criar voluntário - email já existe: {}", voluntario.getUsuario() != null ? voluntario.getUsuario().getEmail() : "N/A");
             return new ResponseEntity<>(Voluntario.builder().errorMessage(e.getMessage()).build(), HttpStatus.BAD_REQUEST);
+        } catch (SenhasSobrecarregadasException e) {
+            log.warn("Falha ao criar voluntário {} - pool de senhas sobrecarregado", voluntario.getNome());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Voluntario.builder().errorMessage(e.getReason()).build());
         }
     }
 
@@ -69,6 +82,34 @@ public class VoluntarioController {
         }
     }
 
+    @PatchMapping("/{id}/datas-disponiveis")
+    public ResponseEntity<Voluntario> alteraDatasDisponiveis(@PathVariable Long id, @RequestBody DisponibilidadeRequest request) {
+        log.info("Solicitação: alterar datas disponíveis do voluntário id={}", id);
+        try {
+            Voluntario updated = service.alteraDatasDisponiveis(id, request.getIncluir(), request.getRemover());
+            return ResponseEntity.ok(updated);
+        } catch (EntityNotFoundException e) {
+            log.warn("Falha ao alterar datas disponíveis do voluntário id={} - não encontrado", id);
+            return new ResponseEntity<>(Voluntario.builder().errorMessage(e.getMessage()).build(), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    // corpo: id do voluntário -> {"incluir": [...], "remover": [...]}; tudo ou nada, em uma transação
+    @PreAuthorize("hasAuthority('COORDENADOR')")
+    @PatchMapping("/datas-disponiveis")
+    public ResponseEntity<DisponibilidadeLoteResultado> alteraDatasDisponiveisEmLote(@RequestBody Map<Long, DisponibilidadeRequest> alteracoes) {
+        log.info("Solicitação: alterar datas disponíveis em lote, voluntarios={}", alteracoes.size());
+        try {
+            return ResponseEntity.ok(disponibilidadeLoteService.altera(alteracoes));
+        } catch (EntityNotFoundException e) {
+            log.warn("Falha ao alterar datas disponíveis em lote - {}", e.getReason());
+            return new ResponseEntity<>(DisponibilidadeLoteResultado.builder().errorMessage(e.getReason()).build(), HttpStatus.NOT_FOUND);
+        } catch (InvalidVoluntarioDataException e) {
+            log.warn("Falha ao alterar datas disponíveis em lote - {}", e.getReason());
+            return new ResponseEntity<>(DisponibilidadeLoteResultado.builder().errorMessage(e.getReason()).build(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PreAuthorize("hasAuthority('COORDENADOR')")
     @DeleteMapping("/{id}")
     public ResponseEntity<Voluntario> delete(@PathVariable Long id) {
@@ -0,0 +1,21 @@
+package com.crescer_aprender.escala.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// resultado da alteração de disponibilidade em lote: quantas datas entraram e saíram e os dias de escala alterados
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DisponibilidadeLoteResultado {
+    int voluntarios;
+    int datasIncluidas;
+    int datasRemovidas;
+    List<Long> diasAlterados;
+    String errorMessage;
+}
@@ -0,0 +1,19 @@
+package com.crescer_aprender.escala.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+// alteração parcial das datas disponíveis de um voluntário: só as datas informadas são gravadas
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DisponibilidadeRequest {
+    Set<LocalDate> incluir;
+    Set<LocalDate> remover;
+}
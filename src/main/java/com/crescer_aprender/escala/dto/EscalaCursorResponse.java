@@ -0,0 +1,19 @@
+package com.crescer_aprender.escala.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// página da pesquisa por cursor: proximoCursor é enviado de volta (parâmetro cursor) para buscar a página seguinte
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EscalaCursorResponse {
+    List<EscalaResponse> content;
+    String proximoCursor;
+    boolean temProximo;
+}
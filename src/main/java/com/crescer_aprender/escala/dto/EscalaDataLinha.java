@@ -0,0 +1,7 @@
+package com.crescer_aprender.escala.dto;
+
+import java.time.LocalDate;
+
+// linha (escala, data) de escala_datas, usada para montar EscalaResponse
+public record EscalaDataLinha(Long escalaId, LocalDate data) {
+}
@@ -0,0 +1,33 @@
+package com.crescer_aprender.escala.dto;
+
+import com.crescer_aprender.escala.entity.EscalaDia;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EscalaDiaResponse {
+    Long id;
+    LocalDate data;
+    List<VoluntarioResumo> voluntarios;
+
+    public static EscalaDiaResponse of(EscalaDia escalaDia) {
+        List<VoluntarioResumo> voluntarios = new ArrayList<>();
+        if (escalaDia.getVoluntarios() != null) {
+            escalaDia.getVoluntarios().forEach(v -> voluntarios.add(VoluntarioResumo.of(v)));
+        }
+        return EscalaDiaResponse.builder()
+                .id(escalaDia.getId())
+                .data(escalaDia.getData())
+                .voluntarios(voluntarios)
+                .build();
+    }
+}
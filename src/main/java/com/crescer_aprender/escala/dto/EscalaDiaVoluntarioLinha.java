@@ -0,0 +1,7 @@
+package com.crescer_aprender.escala.dto;
+
+import java.time.LocalDate;
+
+// uma linha por dia e voluntário escalado (voluntarioId nulo para dia sem voluntários), usada para montar EscalaResponse
+public record EscalaDiaVoluntarioLinha(Long escalaId, Long diaId, LocalDate data, Long voluntarioId, String voluntarioNome) {
+}
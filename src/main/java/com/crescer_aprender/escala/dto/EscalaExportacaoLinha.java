@@ -0,0 +1,7 @@
+package com.crescer_aprender.escala.dto;
+
+import java.time.LocalDate;
+
+// uma linha por escala, dia e voluntário escalado (colunas do dia/voluntário nulas quando não houver), lida em stream pela exportação
+public record EscalaExportacaoLinha(Long escalaId, Integer mes, Long ano, Long diaId, LocalDate data, Long voluntarioId, String voluntarioNome) {
+}
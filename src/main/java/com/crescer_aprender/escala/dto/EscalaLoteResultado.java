@@ -0,0 +1,19 @@
+package com.crescer_aprender.escala.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// resultado da geração de um mês dentro de um lote: id da escala criada ou a mensagem de erro
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EscalaLoteResultado {
+    Integer mes;
+    Long ano;
+    boolean sucesso;
+    Long escalaId;
+    String errorMessage;
+}
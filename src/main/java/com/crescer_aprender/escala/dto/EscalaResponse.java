@@ -0,0 +1,49 @@
+package com.crescer_aprender.escala.dto;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Escala como é devolvida pelos endpoints: cada dia traz apenas id e nome dos voluntários escalados.
+ * As leituras montam esta resposta direto de consultas de projeção (ver EscalaService), sem carregar as entidades.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EscalaResponse {
+    Long id;
+    Integer mes;
+    Long ano;
+    List<LocalDate> datas;
+    List<EscalaDiaResponse> dias;
+    String errorMessage;
+
+    public static EscalaResponse of(Escala escala) {
+        List<EscalaDiaResponse> dias = null;
+        if (escala.getDias() != null) {
+            dias = new ArrayList<>();
+            for (EscalaDia dia : escala.getDias()) {
+                dias.add(EscalaDiaResponse.of(dia));
+            }
+        }
+        return EscalaResponse.builder()
+                .id(escala.getId())
+                .mes(escala.getMes())
+                .ano(escala.getAno())
+                .datas(escala.getDatas() == null ? null : new ArrayList<>(escala.getDatas()))
+                .dias(dias)
+                .errorMessage(escala.getErrorMessage())
+                .build();
+    }
+}
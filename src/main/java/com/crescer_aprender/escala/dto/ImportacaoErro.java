@@ -0,0 +1,5 @@
+package com.crescer_aprender.escala.dto;
+
+// linha recusada na importação: número da linha no arquivo (CSV) ou posição no array (JSON), a partir de 1
+public record ImportacaoErro(long linha, String email, String mensagem) {
+}
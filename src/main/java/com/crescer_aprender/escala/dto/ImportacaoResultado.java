@@ -0,0 +1,20 @@
+package com.crescer_aprender.escala.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// resultado da importação de voluntários: linhas lidas, importadas e o motivo de cada linha recusada
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ImportacaoResultado {
+    long lidas;
+    long importados;
+    List<ImportacaoErro> erros;
+    String errorMessage;
+}
@@ -0,0 +1,7 @@
+package com.crescer_aprender.escala.dto;
+
+import java.time.LocalDate;
+
+// linha (voluntário, data) de voluntario_datas_disponiveis, usada para montar o índice de disponibilidade
+public record VoluntarioDataDisponivel(Long voluntarioId, LocalDate data) {
+}
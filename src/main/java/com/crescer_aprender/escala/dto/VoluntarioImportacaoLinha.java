@@ -0,0 +1,7 @@
+package com.crescer_aprender.escala.dto;
+
+import java.util.List;
+
+// um voluntário (com usuário) a importar, como veio do arquivo; a validação e a conversão ficam no serviço
+public record VoluntarioImportacaoLinha(String nome, String email, String senha, String role, List<String> datasDisponiveis) {
+}
@@ -0,0 +1,21 @@
+package com.crescer_aprender.escala.dto;
+
+import com.crescer_aprender.escala.entity.Voluntario;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// voluntário como aparece nas respostas de escala: só id e nome (sem usuário, senha ou datas disponíveis)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class VoluntarioResumo {
+    Long id;
+    String nome;
+
+    public static VoluntarioResumo of(Voluntario voluntario) {
+        return new VoluntarioResumo(voluntario.getId(), voluntario.getNome());
+    }
+}
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 @Entity
@@ -27,12 +28,14 @@ public class Escala {
 	Long ano;
     //@TODO verificar necessidade de usar ainda esse campo
 	@ElementCollection
+	@BatchSize(size = 100)
 	@Column(name = "DATAS_ESCALA")
 	List<LocalDate> datas;
 
 	// representa os voluntários escalados por cada data (1..n dias)
 	@JsonManagedReference
 	@OneToMany(mappedBy = "escala", cascade = CascadeType.ALL, orphanRemoval = true)
+	@BatchSize(size = 100)
 	List<EscalaDia> dias;
 
 	@Transient
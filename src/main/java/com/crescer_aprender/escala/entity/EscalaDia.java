@@ -8,6 +8,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
 @Data
@@ -24,6 +25,7 @@ public class EscalaDia {
     LocalDate data;
 
     @ManyToMany
+    @BatchSize(size = 100)
     @JoinTable(
             name = "escala_dia_voluntario",
             joinColumns = @JoinColumn(name = "escala_dia_id"),
@@ -3,8 +3,10 @@ package com.crescer_aprender.escala.entity;
 import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
+@BatchSize(size = 100)
 @Data
 @Builder
 @AllArgsConstructor
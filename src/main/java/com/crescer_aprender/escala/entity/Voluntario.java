@@ -1,14 +1,16 @@
 package com.crescer_aprender.escala.entity;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.util.Set;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 @Entity
+@BatchSize(size = 100)
 @Data
 @Builder
 @AllArgsConstructor
@@ -26,9 +28,14 @@ public class Voluntario {
 	@JoinColumn(name = "USUARIO_ID")
 	Usuario usuario;
 
+	// conjunto com (voluntario_id, data) único: uma alteração grava só as datas incluídas ou removidas, em vez de
+	// apagar e regravar todas as datas do voluntário como acontecia com a List (bag)
 	@ElementCollection
-	@Column(name = "DATAS_DISPONIVEIS")
-	List<LocalDate> datasDisponiveis;
+	@BatchSize(size = 100)
+	@CollectionTable(name = "voluntario_datas_disponiveis", joinColumns = @JoinColumn(name = "voluntario_id"))
+	@Column(name = "DATAS_DISPONIVEIS", nullable = false)
+	@OrderBy
+	Set<LocalDate> datasDisponiveis;
 
 	@Transient
 	String errorMessage;
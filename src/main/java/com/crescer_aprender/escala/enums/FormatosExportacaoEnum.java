@@ -0,0 +1,36 @@
+package com.crescer_aprender.escala.enums;
+
+import com.crescer_aprender.escala.exception.InvalidFormatoExportacaoException;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+public enum FormatosExportacaoEnum {
+    NDJSON(MediaType.APPLICATION_NDJSON, ".ndjson"),
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), ".csv");
+
+    private final MediaType contentType;
+    private final String extensao;
+
+    FormatosExportacaoEnum(MediaType contentType, String extensao) {
+        this.contentType = contentType;
+        this.extensao = extensao;
+    }
+
+    public MediaType getContentType() {
+        return contentType;
+    }
+
+    public String getExtensao() {
+        return extensao;
+    }
+
+    public static FormatosExportacaoEnum de(String formato) {
+        for (FormatosExportacaoEnum valor : values()) {
+            if (valor.name().equalsIgnoreCase(formato)) {
+                return valor;
+            }
+        }
+        throw new InvalidFormatoExportacaoException(formato);
+    }
+}
@@ -0,0 +1,9 @@
+package com.crescer_aprender.escala.enums;
+
+/**
+ * Como o JwtAuthenticationFilter monta a autenticação de um token válido (propriedade escala.seguranca.autenticacao.modo).
+ * TOKEN: pelo perfil e id gravados no próprio token, sem consultar o banco; BANCO: carregando o usuário pelo email.
+ */
+public enum ModosAutenticacaoEnum {
+    TOKEN, BANCO
+}
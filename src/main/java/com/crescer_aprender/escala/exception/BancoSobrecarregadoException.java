@@ -0,0 +1,19 @@
+package com.crescer_aprender.escala.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+// lançada pelo LimitadorDeConexoes; chega ao cliente como 503 mesmo quando o Hibernate/Spring a embrulham em outra exceção
+public class BancoSobrecarregadoException extends ResponseStatusException {
+    public BancoSobrecarregadoException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Muitas requisições aguardando conexão com o banco. Tente novamente em instantes.");
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return headers;
+    }
+}
@@ -5,6 +5,12 @@ public class ConstantExceptionUtil {
     public static final String EMAIL_ALREADY_EXISTS = "O e-mail %s já está em uso.";
     public static final String INVALID_VOLUNTARIO_NAME = "O nome do voluntário é obrigatório.";
     public static final String INVALID_VOLUNTARIO_EMAIL = "O e-mail do voluntário é inválido.";
+    public static final String INVALID_USUARIO_SENHA = "A senha do usuário é obrigatória.";
+    public static final String INVALID_USUARIO_ROLE = "Perfil %s inválido.";
+    public static final String INVALID_DATA = "Data %s inválida (use o formato yyyy-MM-dd).";
+    public static final String EMAIL_REPETIDO_NA_IMPORTACAO = "O e-mail %s aparece mais de uma vez no arquivo.";
+    public static final String VOLUNTARIOS_NOT_FOUND = "Voluntários não encontrados: %s.";
+    public static final String INVALID_DISPONIBILIDADE_LOTE = "O lote deve conter entre 1 e %d voluntários.";
     public static final String DATABASE_ERROR = "Erro ao acessar o banco de dados.";
     public static final String ESCALA_ALREADY_EXISTS = "A escala para %s/%s já existe";
 
@@ -0,0 +1,10 @@
+package com.crescer_aprender.escala.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidCursorException extends ResponseStatusException {
+    public InvalidCursorException(String cursor) {
+        super(HttpStatus.BAD_REQUEST, "Cursor de paginação inválido: " + cursor);
+    }
+}
@@ -0,0 +1,10 @@
+package com.crescer_aprender.escala.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidEscalaLoteException extends ResponseStatusException {
+    public InvalidEscalaLoteException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
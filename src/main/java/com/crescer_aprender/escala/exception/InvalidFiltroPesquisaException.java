@@ -0,0 +1,10 @@
+package com.crescer_aprender.escala.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidFiltroPesquisaException extends ResponseStatusException {
+    public InvalidFiltroPesquisaException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
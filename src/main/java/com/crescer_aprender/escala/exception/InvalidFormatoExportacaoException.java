@@ -0,0 +1,10 @@
+package com.crescer_aprender.escala.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidFormatoExportacaoException extends ResponseStatusException {
+    public InvalidFormatoExportacaoException(String formato) {
+        super(HttpStatus.BAD_REQUEST, "Formato de exportação inválido: " + formato + ". Use ndjson ou csv.");
+    }
+}
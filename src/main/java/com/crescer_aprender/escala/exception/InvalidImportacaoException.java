@@ -0,0 +1,10 @@
+package com.crescer_aprender.escala.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class InvalidImportacaoException extends ResponseStatusException {
+    public InvalidImportacaoException(String message) {
+        super(HttpStatus.BAD_REQUEST, message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.crescer_aprender.escala.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class SenhasSobrecarregadasException extends ResponseStatusException {
+    public SenhasSobrecarregadasException() {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Muitas operações de senha em andamento. Tente novamente em instantes.");
+    }
+}
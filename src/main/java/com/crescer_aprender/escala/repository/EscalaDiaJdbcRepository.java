@@ -0,0 +1,107 @@
+package com.crescer_aprender.escala.repository;
+
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Voluntario;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gravação em massa dos dias de uma escala recém-gerada (escala_dia + escala_dia_voluntario).
+ * As entidades usam IDENTITY, o que impede o batching do Hibernate: pelo cascade de repository.save(escala)
+ * cada dia e cada voluntário escalado vira um INSERT separado. Aqui os ids são reservados da sequence de
+ * escala_dia em uma única consulta e as duas tabelas são gravadas com JDBC batch.
+ * Deve ser chamado dentro da transação do serviço, depois que a Escala já tiver id.
+ */
+@Slf4j
+@Repository
+public class EscalaDiaJdbcRepository {
+
+    static final int TAMANHO_DO_LOTE = 500;
+
+    private static final String RESERVA_IDS =
+            "SELECT nextval(pg_get_serial_sequence('escala_dia', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERE_DIA =
+            "INSERT INTO escala_dia (id, data_escala_dia, escala_id) VALUES (?, ?, ?)";
+    private static final String INSERE_VOLUNTARIO_DIA =
+            "INSERT INTO escala_dia_voluntario (escala_dia_id, voluntario_id) VALUES (?, ?)";
+    private static final String REMOVE_DIAS_DA_ESCALA =
+            "DELETE FROM escala_dia WHERE escala_id = ?";
+    private static final String REMOVE_VOLUNTARIO_DOS_DIAS_INDISPONIVEIS =
+            "DELETE FROM escala_dia_voluntario edv USING escala_dia ed " +
+            "WHERE ed.id = edv.escala_dia_id AND edv.voluntario_id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM voluntario_datas_disponiveis vdd " +
+            "WHERE vdd.voluntario_id = edv.voluntario_id AND vdd.datas_disponiveis = ed.data_escala_dia) " +
+            "RETURNING edv.escala_dia_id";
+    private static final String REMOVE_VOLUNTARIOS_DAS_DATAS =
+            "WITH removidos AS (DELETE FROM escala_dia_voluntario edv " +
+            "USING escala_dia ed, unnest(?::bigint[], ?::date[]) AS r(voluntario_id, data) " +
+            "WHERE ed.id = edv.escala_dia_id AND edv.voluntario_id = r.voluntario_id AND ed.data_escala_dia = r.data " +
+            "RETURNING edv.escala_dia_id) SELECT DISTINCT escala_dia_id FROM removidos ORDER BY escala_dia_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EscalaDiaJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // grava os dias informados para a escala e preenche o id de cada EscalaDia
+    public void insereDias(Long escalaId, List<EscalaDia> dias) {
+        if (dias == null || dias.isEmpty()) {
+            return;
+        }
+        List<Long> ids = jdbcTemplate.queryForList(RESERVA_IDS, Long.class, dias.size());
+        List<Object[]> linhasDias = new ArrayList<>(dias.size());
+        List<Object[]> linhasVoluntarios = new ArrayList<>();
+        for (int i = 0; i < dias.size(); i++) {
+            EscalaDia dia = dias.get(i);
+            dia.setId(ids.get(i));
+            linhasDias.add(new Object[]{dia.getId(), dia.getData() == null ? null : Date.valueOf(dia.getData()), escalaId});
+            // o mesmo voluntário repetido no dia violaria a PK de escala_dia_voluntario
+            List<Voluntario> voluntarios = dia.getVoluntarios() == null ? Collections.emptyList() : dia.getVoluntarios();
+            voluntarios.stream().map(Voluntario::getId).distinct()
+                    .forEach(voluntarioId -> linhasVoluntarios.add(new Object[]{dia.getId(), voluntarioId}));
+        }
+        executaEmLotes(INSERE_DIA, linhasDias);
+        executaEmLotes(INSERE_VOLUNTARIO_DIA, linhasVoluntarios);
+        log.info("Dias da escala gravados em lote | escalaId={} dias={} alocacoes={}", escalaId, linhasDias.size(), linhasVoluntarios.size());
+    }
+
+    // remove os dias já gravados da escala; as alocações saem junto pelo ON DELETE CASCADE de escala_dia_voluntario
+    public int removeDias(Long escalaId) {
+        return jdbcTemplate.update(REMOVE_DIAS_DA_ESCALA, escalaId);
+    }
+
+    // tira o voluntário dos dias cuja data não está mais entre as suas datas disponíveis, em um único comando,
+    // e devolve os ids dos dias alterados; as datas disponíveis já devem estar gravadas (flush) na transação
+    public List<Long> removeVoluntarioDosDiasIndisponiveis(Long voluntarioId) {
+        return jdbcTemplate.queryForList(REMOVE_VOLUNTARIO_DOS_DIAS_INDISPONIVEIS, Long.class, voluntarioId);
+    }
+
+    // tira cada voluntário dos dias de escala na data correspondente (pares nas mesmas posições das duas listas),
+    // em um único comando para todos os voluntários e dias, e devolve os ids dos dias alterados
+    public List<Long> removeVoluntariosDasDatas(List<Long> voluntarioIds, List<LocalDate> datas) {
+        if (voluntarioIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(REMOVE_VOLUNTARIOS_DAS_DATAS);
+            ps.setArray(1, con.createArrayOf("bigint", voluntarioIds.toArray()));
+            ps.setArray(2, con.createArrayOf("date", datas.stream().map(Date::valueOf).toArray()));
+            return ps;
+        }, (rs, linha) -> rs.getLong(1));
+    }
+
+    private void executaEmLotes(String sql, List<Object[]> linhas) {
+        for (int inicio = 0; inicio < linhas.size(); inicio += TAMANHO_DO_LOTE) {
+            jdbcTemplate.batchUpdate(sql, linhas.subList(inicio, Math.min(inicio + TAMANHO_DO_LOTE, linhas.size())));
+        }
+    }
+}
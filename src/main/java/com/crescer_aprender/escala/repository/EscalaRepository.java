@@ -1,16 +1,26 @@
 package com.crescer_aprender.escala.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import com.crescer_aprender.escala.dto.EscalaDataLinha;
+import com.crescer_aprender.escala.dto.EscalaDiaVoluntarioLinha;
+import com.crescer_aprender.escala.dto.EscalaExportacaoLinha;
 import com.crescer_aprender.escala.entity.Escala;
-import com.crescer_aprender.escala.entity.Voluntario;
 
 @Repository
 public interface EscalaRepository extends JpaRepository<Escala, Long>, JpaSpecificationExecutor<Escala> {
@@ -20,11 +30,33 @@ public interface EscalaRepository extends JpaRepository<Escala, Long>, JpaSpecif
 
     Optional<Escala> findByAnoAndMes(Integer ano, Integer mes);
 
+    // projeções usadas para montar EscalaResponse: só as colunas devolvidas pela API, para várias escalas de uma vez
+    @Query("SELECT new com.crescer_aprender.escala.dto.EscalaDataLinha(esc.id, d) FROM Escala esc JOIN esc.datas d WHERE esc.id IN :ids ORDER BY d")
+    List<EscalaDataLinha> findDatasByEscalaIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.crescer_aprender.escala.dto.EscalaDiaVoluntarioLinha(d.escala.id, d.id, d.data, v.id, v.nome) " +
+            "FROM EscalaDia d LEFT JOIN d.voluntarios v WHERE d.escala.id IN :ids ORDER BY d.data, d.id, v.nome")
+    List<EscalaDiaVoluntarioLinha> findDiasComVoluntariosByEscalaIds(@Param("ids") Collection<Long> ids);
+
+    // datas das escalas no intervalo (inclusive), para as métricas de disponibilidade
+    @Query("SELECT DISTINCT d FROM Escala esc JOIN esc.datas d WHERE d BETWEEN :inicio AND :fim ORDER BY d")
+    List<LocalDate> findDatasEntre(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+
+    // exportação: linhas lidas do cursor do banco em blocos de 500 (precisa de transação aberta e do fechamento do Stream)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.crescer_aprender.escala.dto.EscalaExportacaoLinha(esc.id, esc.mes, esc.ano, d.id, d.data, v.id, v.nome) " +
+            "FROM Escala esc LEFT JOIN esc.dias d LEFT JOIN d.voluntarios v " +
+            "WHERE (:ano IS NULL OR esc.ano = :ano) ORDER BY esc.ano, esc.mes, esc.id, d.data, d.id, v.nome")
+    Stream<EscalaExportacaoLinha> streamLinhasExportacao(@Param("ano") Long ano);
+
+    // datas das escalas exportadas, na mesma ordem de escalas de streamLinhasExportacao, para juntar as duas por escala_id
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.crescer_aprender.escala.dto.EscalaDataLinha(esc.id, d) FROM Escala esc JOIN esc.datas d " +
+            "WHERE (:ano IS NULL OR esc.ano = :ano) ORDER BY esc.ano, esc.mes, esc.id, d")
+    Stream<EscalaDataLinha> streamDatasExportacao(@Param("ano") Long ano);
+
     // verifica se existe alguma escala onde o voluntario está alocado em algum dia
     @Query("SELECT CASE WHEN COUNT(d) > 0 THEN true ELSE false END FROM Escala esc JOIN esc.dias d JOIN d.voluntarios v WHERE v.id = :voluntarioId")
     Boolean existsByVoluntarioId(@Param("voluntarioId") Long voluntarioId);
 
-    @Query("SELECT esc FROM Escala esc JOIN esc.dias d JOIN d.voluntarios v WHERE v = :voluntario")
-    Optional<List<Escala>> findByVoluntario(@Param("voluntario") Voluntario voluntario);
-
 }
@@ -1,77 +1,138 @@
 package com.crescer_aprender.escala.repository;
 
 import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
 import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.exception.InvalidFiltroPesquisaException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
-import java.util.Objects;
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Classe Auxiliar para criar especificações dinâmicas para o Escala.
- * Chaves de filtro suportadas: id, mes, ano, data (ou datas) como data ISO (aaaa-MM-dd), voluntario ou voluntarioId
+ * Chaves de filtro suportadas: id, mes, ano, data (ou datas) como data ISO (aaaa-MM-dd), voluntario ou voluntarioId.
+ * Os filtros por data (nas datas da escala, mesmo antes de os dias serem gerados) e por voluntário (nos dias em que está
+ * escalado) são subconsultas EXISTS, então cada escala aparece uma vez no resultado sem DISTINCT.
+ * Chaves desconhecidas ou valores que não convertem para o tipo da chave são rejeitados (400).
  */
 public class EscalaSpecifications {
 
+    // parâmetros de paginação que chegam no mesmo Map dos filtros quando a pesquisa vem pela query string
+    public static final Set<String> PARAMETROS_DE_PAGINACAO = Set.of("page", "size", "sort", "cursor");
+
+    private static final Map<String, Filtro> FILTROS_POR_CHAVE = Arrays.stream(Filtro.values())
+            .flatMap(filtro -> filtro.chaves.stream().map(chave -> Map.entry(chave, filtro)))
+            .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+
+    private EscalaSpecifications() {
+    }
+
+    // valida e converte os filtros já na chamada, para o erro sair antes de a consulta ser montada; o EnumMap é percorrido
+    // na ordem do enum, então a mesma combinação de chaves gera sempre o mesmo SQL, mudando só os parâmetros
     public static Specification<Escala> byFilters(Map<String, String> filters) {
+        EnumMap<Filtro, Object> valores = converte(filters);
         return (root, query, builder) -> {
-            List<jakarta.persistence.criteria.Predicate> predicates = new ArrayList<>();
-
-            if (filters == null || filters.isEmpty()) {
+            if (valores.isEmpty()) {
                 return builder.conjunction();
             }
+            Predicate[] predicados = new Predicate[valores.size()];
+            int i = 0;
+            for (Map.Entry<Filtro, Object> filtro : valores.entrySet()) {
+                predicados[i++] = filtro.getKey().predicado(root, query, builder, filtro.getValue());
+            }
+            return builder.and(predicados);
+        };
+    }
 
-            filters.forEach((key, value) -> {
-                if (value == null) return;
-                switch (key) {
-                    case "id":
-                        try {
-                            predicates.add(builder.equal(root.get("id"), Long.valueOf(value)));
-                        } catch (Exception ignored) {}
-                        break;
-                    case "mes":
-                        try {
-                            predicates.add(builder.equal(root.get("mes"), Integer.valueOf(value)));
-                        } catch (Exception ignored) {}
-                        break;
-                    case "ano":
-                        try {
-                            predicates.add(builder.equal(root.get("ano"), Long.valueOf(value)));
-                        } catch (Exception ignored) {}
-                        break;
-                    case "data":
-                    case "datas":
-                        try {
-                            LocalDate date = LocalDate.parse(value);
-                            // join de datas para coleção de datas
-                            jakarta.persistence.criteria.Join<?, ?> join = root.join("datas");
-                            predicates.add(builder.equal(join, date));
-                        } catch (Exception ignored) {
-                        }
-                        break;
-                    case "voluntario":
-                    case "voluntarioId":
-                        try {
-                            jakarta.persistence.criteria.Join<?, ?> joinV = root.join("voluntarios");
-                            predicates.add(builder.equal(joinV.get("id"), Long.valueOf(value)));
-                        } catch (Exception ignored) {
-                        }
-                        break;
-                    default:
-                        // fallback: tenta comparar as chaves com string
-                        try {
-                            predicates.add(builder.equal(root.get(key).as(String.class), value));
-                        } catch (Exception ignored) {
-                            //ignora em caso de erro
-                        }
-                }
-            });
+    private static EnumMap<Filtro, Object> converte(Map<String, String> filters) {
+        EnumMap<Filtro, Object> valores = new EnumMap<>(Filtro.class);
+        if (filters == null) {
+            return valores;
+        }
+        filters.forEach((chave, valor) -> {
+            if (PARAMETROS_DE_PAGINACAO.contains(chave) || valor == null || valor.isBlank()) {
+                return;
+            }
+            Filtro filtro = FILTROS_POR_CHAVE.get(chave);
+            if (filtro == null) {
+                throw new InvalidFiltroPesquisaException("Filtro de pesquisa desconhecido: " + chave
+                        + ". Use id, mes, ano, data ou voluntario.");
+            }
+            if (valores.containsKey(filtro)) {
+                throw new InvalidFiltroPesquisaException("Filtro de pesquisa informado mais de uma vez: " + filtro.chaves);
+            }
+            try {
+                valores.put(filtro, filtro.conversor.apply(valor.trim()));
+            } catch (RuntimeException e) {
+                throw new InvalidFiltroPesquisaException("Valor inválido para o filtro " + chave + ": " + valor);
+            }
+        });
+        return valores;
+    }
 
-            query.distinct(true);
-            return builder.and(predicates.toArray(new jakarta.persistence.criteria.Predicate[0]));
+    enum Filtro {
+        ID(List.of("id"), Long::valueOf) {
+            @Override
+            Predicate predicado(Root<Escala> root, CriteriaQuery<?> query, CriteriaBuilder builder, Object valor) {
+                return builder.equal(root.get("id"), valor);
+            }
+        },
+        MES(List.of("mes"), Integer::valueOf) {
+            @Override
+            Predicate predicado(Root<Escala> root, CriteriaQuery<?> query, CriteriaBuilder builder, Object valor) {
+                return builder.equal(root.get("mes"), valor);
+            }
+        },
+        ANO(List.of("ano"), Long::valueOf) {
+            @Override
+            Predicate predicado(Root<Escala> root, CriteriaQuery<?> query, CriteriaBuilder builder, Object valor) {
+                return builder.equal(root.get("ano"), valor);
+            }
+        },
+        // EXISTS (SELECT 1 FROM escala_datas d WHERE d.escala_id = e.id AND d.datas_escala = ?)
+        DATA(List.of("data", "datas"), LocalDate::parse) {
+            @Override
+            Predicate predicado(Root<Escala> root, CriteriaQuery<?> query, CriteriaBuilder builder, Object valor) {
+                Subquery<Integer> subquery = query.subquery(Integer.class);
+                Join<Escala, LocalDate> data = subquery.correlate(root).join("datas");
+                subquery.select(builder.literal(1)).where(builder.equal(data, valor));
+                return builder.exists(subquery);
+            }
+        },
+        // EXISTS (SELECT 1 FROM escala_dia d JOIN escala_dia_voluntario dv ... WHERE d.escala_id = e.id AND dv.voluntario_id = ?)
+        VOLUNTARIO(List.of("voluntario", "voluntarioId"), Long::valueOf) {
+            @Override
+            Predicate predicado(Root<Escala> root, CriteriaQuery<?> query, CriteriaBuilder builder, Object valor) {
+                Subquery<Integer> subquery = query.subquery(Integer.class);
+                Root<EscalaDia> dia = subquery.from(EscalaDia.class);
+                Join<EscalaDia, Voluntario> voluntario = dia.join("voluntarios");
+                subquery.select(builder.literal(1))
+                        .where(builder.equal(dia.get("escala"), root), builder.equal(voluntario.get("id"), valor));
+                return builder.exists(subquery);
+            }
         };
+
+        private final List<String> chaves;
+        private final Function<String, Object> conversor;
+
+        Filtro(List<String> chaves, Function<String, Object> conversor) {
+            this.chaves = chaves;
+            this.conversor = conversor;
+        }
+
+        abstract Predicate predicado(Root<Escala> root, CriteriaQuery<?> query, CriteriaBuilder builder, Object valor);
     }
 }
@@ -0,0 +1,154 @@
+package com.crescer_aprender.escala.repository;
+
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Gravação em massa de usuários, voluntários e datas disponíveis (importação e alteração de disponibilidade em lote).
+ * Cada método é um único comando para o lote inteiro, com os valores passados como arrays e expandidos por unnest no banco: com reWriteBatchedInserts o
+ * driver não informa quais linhas de um batch foram gravadas, e aqui o RETURNING devolve os ids gerados de cada uma.
+ * Deve ser chamado dentro de uma transação.
+ */
+@Repository
+public class VoluntarioJdbcRepository {
+
+    private static final String EMAILS_CADASTRADOS =
+            "SELECT email FROM usuario WHERE email = ANY (?)";
+    private static final String INSERE_USUARIOS =
+            "INSERT INTO usuario (email, senha, role) SELECT * FROM unnest(?::varchar[], ?::varchar[], ?::varchar[]) " +
+            "ON CONFLICT (email) DO NOTHING RETURNING id, email";
+    private static final String INSERE_VOLUNTARIOS =
+            "INSERT INTO voluntario (nom_usuario, usuario_id) SELECT * FROM unnest(?::varchar[], ?::bigint[]) " +
+            "RETURNING id, usuario_id";
+    private static final String INSERE_DATAS_DISPONIVEIS =
+            "INSERT INTO voluntario_datas_disponiveis (voluntario_id, datas_disponiveis) " +
+            "SELECT * FROM unnest(?::bigint[], ?::date[]) ON CONFLICT DO NOTHING";
+    private static final String VOLUNTARIOS_CADASTRADOS =
+            "SELECT id FROM voluntario WHERE id = ANY (?)";
+    private static final String REMOVE_DATAS_DISPONIVEIS =
+            "DELETE FROM voluntario_datas_disponiveis vdd USING unnest(?::bigint[], ?::date[]) AS r(voluntario_id, data) " +
+            "WHERE vdd.voluntario_id = r.voluntario_id AND vdd.datas_disponiveis = r.data";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public VoluntarioJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // quais dos emails informados já têm usuário, em uma consulta
+    public Set<String> emailsCadastrados(Collection<String> emails) {
+        Set<String> cadastrados = new HashSet<>();
+        if (emails.isEmpty()) {
+            return cadastrados;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EMAILS_CADASTRADOS);
+            ps.setArray(1, con.createArrayOf("varchar", emails.toArray()));
+            return ps;
+        }, rs -> {
+            cadastrados.add(rs.getString(1));
+        });
+        return cadastrados;
+    }
+
+    // grava os usuários e devolve o id gerado por email; um email gravado por outra requisição nesse meio-tempo fica de fora
+    public Map<String, Long> insereUsuarios(List<Usuario> usuarios) {
+        Map<String, Long> idsPorEmail = new HashMap<>();
+        if (usuarios.isEmpty()) {
+            return idsPorEmail;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERE_USUARIOS);
+            ps.setArray(1, con.createArrayOf("varchar", usuarios.stream().map(Usuario::getEmail).toArray()));
+            ps.setArray(2, con.createArrayOf("varchar", usuarios.stream().map(Usuario::getSenha).toArray()));
+            ps.setArray(3, con.createArrayOf("varchar", usuarios.stream().map(u -> u.getRole().name()).toArray()));
+            return ps;
+        }, rs -> {
+            idsPorEmail.put(rs.getString("email"), rs.getLong("id"));
+        });
+        return idsPorEmail;
+    }
+
+    // grava os voluntários (cada um com o usuário já gravado) e devolve o id gerado por id de usuário
+    public Map<Long, Long> insereVoluntarios(List<Voluntario> voluntarios) {
+        Map<Long, Long> idsPorUsuario = new HashMap<>();
+        if (voluntarios.isEmpty()) {
+            return idsPorUsuario;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERE_VOLUNTARIOS);
+            ps.setArray(1, con.createArrayOf("varchar", voluntarios.stream().map(Voluntario::getNome).toArray()));
+            ps.setArray(2, con.createArrayOf("bigint", voluntarios.stream().map(v -> v.getUsuario().getId()).toArray()));
+            return ps;
+        }, rs -> {
+            idsPorUsuario.put(rs.getLong("usuario_id"), rs.getLong("id"));
+        });
+        return idsPorUsuario;
+    }
+
+    // grava as datas disponíveis dos voluntários já gravados; datas que o voluntário já tem são ignoradas
+    public int insereDatasDisponiveis(List<Voluntario> voluntarios) {
+        List<Long> ids = new ArrayList<>();
+        List<LocalDate> datas = new ArrayList<>();
+        for (Voluntario voluntario : voluntarios) {
+            if (voluntario.getDatasDisponiveis() == null) {
+                continue;
+            }
+            for (LocalDate data : voluntario.getDatasDisponiveis()) {
+                ids.add(voluntario.getId());
+                datas.add(data);
+            }
+        }
+        return insereDatasDisponiveis(ids, datas);
+    }
+
+    // pares (voluntário, data) nas posições correspondentes das duas listas
+    public int insereDatasDisponiveis(List<Long> voluntarioIds, List<LocalDate> datas) {
+        return executaComPares(INSERE_DATAS_DISPONIVEIS, voluntarioIds, datas);
+    }
+
+    public int removeDatasDisponiveis(List<Long> voluntarioIds, List<LocalDate> datas) {
+        return executaComPares(REMOVE_DATAS_DISPONIVEIS, voluntarioIds, datas);
+    }
+
+    // quais dos ids informados são de voluntários cadastrados, em uma consulta
+    public Set<Long> voluntariosCadastrados(Collection<Long> ids) {
+        Set<Long> cadastrados = new HashSet<>();
+        if (ids.isEmpty()) {
+            return cadastrados;
+        }
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(VOLUNTARIOS_CADASTRADOS);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, rs -> {
+            cadastrados.add(rs.getLong(1));
+        });
+        return cadastrados;
+    }
+
+    private int executaComPares(String sql, List<Long> voluntarioIds, List<LocalDate> datas) {
+        if (voluntarioIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("bigint", voluntarioIds.toArray()));
+            ps.setArray(2, con.createArrayOf("date", datas.stream().map(Date::valueOf).toArray()));
+            return ps;
+        });
+    }
+}
@@ -1,7 +1,11 @@
 package com.crescer_aprender.escala.repository;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +13,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.crescer_aprender.escala.dto.VoluntarioDataDisponivel;
 import com.crescer_aprender.escala.entity.Voluntario;
 
 @Repository
@@ -17,12 +22,44 @@ public interface VoluntarioRepository extends JpaRepository<Voluntario, Long>{
     @Query("SELECT v FROM Voluntario v JOIN v.datasDisponiveis d WHERE d = :data")
     Optional<List<Voluntario>> findVoluntariosByData(@Param("data") LocalDate data);
 
-    @Query("SELECT v FROM Voluntario v WHERE v.id IN :ids")
+    @Query("SELECT DISTINCT v FROM Voluntario v LEFT JOIN FETCH v.usuario LEFT JOIN FETCH v.datasDisponiveis WHERE v.id IN :ids")
     Optional<List<Voluntario>> findVoluntariosByIds(@Param("ids") List<Long> ids);
 
+    // voluntários disponíveis em qualquer uma das datas, já com usuario e datasDisponiveis carregados (um único SELECT);
+    // o EXISTS vai direto ao índice de datas, sem juntar voluntario de novo só para obter o id
+    @Query("SELECT DISTINCT v FROM Voluntario v LEFT JOIN FETCH v.usuario LEFT JOIN FETCH v.datasDisponiveis " +
+            "WHERE EXISTS (SELECT 1 FROM v.datasDisponiveis d2 WHERE d2 IN :datas)")
+    List<Voluntario> findVoluntariosDisponiveisNasDatas(@Param("datas") Collection<LocalDate> datas);
+
+    // agrupa o resultado de findVoluntariosDisponiveisNasDatas por data, mantendo a ordem das datas informadas
+    default Map<LocalDate, List<Voluntario>> findVoluntariosAgrupadosPorData(Collection<LocalDate> datas) {
+        Map<LocalDate, List<Voluntario>> porData = new LinkedHashMap<>();
+        if (datas == null || datas.isEmpty()) {
+            return porData;
+        }
+        datas.forEach(data -> porData.putIfAbsent(data, new ArrayList<>()));
+        for (Voluntario voluntario : findVoluntariosDisponiveisNasDatas(porData.keySet())) {
+            for (LocalDate data : voluntario.getDatasDisponiveis()) {
+                List<Voluntario> voluntariosNaData = porData.get(data);
+                if (voluntariosNaData != null) {
+                    voluntariosNaData.add(voluntario);
+                }
+            }
+        }
+        return porData;
+    }
+
     Optional<Voluntario> findByUsuarioEmail(String email);
 
+    // login: usuário, voluntário e datas disponíveis em um único SELECT, usado para conferir a senha e montar a resposta
+    @Query("SELECT v FROM Voluntario v JOIN FETCH v.usuario u LEFT JOIN FETCH v.datasDisponiveis WHERE u.email = :email")
+    Optional<Voluntario> findParaLoginByEmail(@Param("email") String email);
+
     @Query("SELECT v.datasDisponiveis FROM Voluntario v WHERE v.id = :idVoluntario")
     List<LocalDate> getDatasDisponiveisByIdVoluntario(Long idVoluntario);
 
+    // todas as disponibilidades em uma única consulta, sem materializar as entidades (usado pelo IndiceDisponibilidade)
+    @Query("SELECT new com.crescer_aprender.escala.dto.VoluntarioDataDisponivel(v.id, d) FROM Voluntario v JOIN v.datasDisponiveis d")
+    List<VoluntarioDataDisponivel> findAllDisponibilidades();
+
 }
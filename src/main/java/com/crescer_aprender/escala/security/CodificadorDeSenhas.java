@@ -0,0 +1,137 @@
+package com.crescer_aprender.escala.security;
+
+import com.crescer_aprender.escala.exception.SenhasSobrecarregadasException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * PasswordEncoder que executa o encoder real (BCrypt) no pool limitado "senhaExecutor", e não na thread da requisição.
+ * Uma rajada de logins ocupa no máximo as threads do pool; com a fila cheia (ou a espera estourada) a operação falha na
+ * hora com 503 em vez de segurar threads do Tomcat que atenderiam os demais endpoints.
+ * Métricas: escala.senhas.hash (tempo do hash, por operação) e escala.senhas.rejeitadas; a fila e as threads ativas
+ * vêm de executor.* com name=senhas.
+ */
+@Slf4j
+public class CodificadorDeSenhas implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final ExecutorService executor;
+    private final Duration esperaMaxima;
+    private final Timer tempoCodifica;
+    private final Timer tempoConfere;
+    private final Counter rejeitadas;
+
+    public CodificadorDeSenhas(PasswordEncoder delegado, ExecutorService executor, Duration esperaMaxima, MeterRegistry registry) {
+        this.delegado = delegado;
+        this.executor = executor;
+        this.esperaMaxima = esperaMaxima;
+        this.tempoCodifica = Timer.builder("escala.senhas.hash").tag("operacao", "codifica").register(registry);
+        this.tempoConfere = Timer.builder("escala.senhas.hash").tag("operacao", "confere").register(registry);
+        this.rejeitadas = Counter.builder("escala.senhas.rejeitadas").register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executa(() -> tempoCodifica.recordCallable(() -> delegado.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executa(() -> tempoConfere.recordCallable(() -> delegado.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    // codifica várias senhas em paralelo (importação), com no máximo maximoEmAndamento tarefas no pool por vez para
+    // sobrar fila para os logins; se o pool recusar, a senha é codificada na própria thread em vez de falhar a importação
+    public List<String> encodeTodas(List<? extends CharSequence> senhas, int maximoEmAndamento) {
+        Semaphore vagas = new Semaphore(Math.max(1, maximoEmAndamento));
+        List<Future<String>> resultados = new ArrayList<>(senhas.size());
+        for (CharSequence senha : senhas) {
+            vagas.acquireUninterruptibly();
+            Callable<String> tarefa = () -> {
+                try {
+                    return tempoCodifica.recordCallable(() -> delegado.encode(senha));
+                } finally {
+                    vagas.release();
+                }
+            };
+            try {
+                resultados.add(executor.submit(tarefa));
+            } catch (RejectedExecutionException e) {
+                FutureTask<String> naThread = new FutureTask<>(tarefa);
+                naThread.run();
+                resultados.add(naThread);
+            }
+        }
+        List<String> hashes = new ArrayList<>(resultados.size());
+        for (Future<String> resultado : resultados) {
+            hashes.add(aguarda(resultado));
+        }
+        return hashes;
+    }
+
+    private <T> T executa(Callable<T> operacao) {
+        Future<T> resultado;
+        try {
+            resultado = executor.submit(operacao);
+        } catch (RejectedExecutionException e) {
+            rejeitadas.increment();
+            log.warn("Fila de senhas cheia, operação recusada");
+            throw new SenhasSobrecarregadasException();
+        }
+        try {
+            return resultado.get(esperaMaxima.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            rejeitadas.increment();
+            log.warn("Operação de senha não concluída em {} ms, recusada", esperaMaxima.toMillis());
+            throw new SenhasSobrecarregadasException();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando operação de senha", e);
+        } catch (ExecutionException e) {
+            throw causa(e);
+        }
+    }
+
+    // sem espera máxima: a importação já limita quantas senhas estão no pool
+    private static <T> T aguarda(Future<T> resultado) {
+        try {
+            return resultado.get();
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando operação de senha", e);
+        } catch (ExecutionException e) {
+            throw causa(e);
+        }
+    }
+
+    private static RuntimeException causa(ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        return new IllegalStateException(e.getCause());
+    }
+}
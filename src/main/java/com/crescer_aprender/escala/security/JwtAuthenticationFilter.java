@@ -1,13 +1,18 @@
 package com.crescer_aprender.escala.security;
 
+import com.crescer_aprender.escala.enums.ModosAutenticacaoEnum;
 import com.crescer_aprender.escala.service.UsuarioDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -23,11 +28,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UsuarioDetailsService usuarioDetailsService;
+    private final RevogacaoTokens revogacaoTokens;
+    private final ModosAutenticacaoEnum modo;
+    // tempo da autenticação do token (sem o restante da requisição), por resultado
+    private final Timer tempoAutenticado;
+    private final Timer tempoRecusado;
+    private final Timer tempoInvalido;
+    private final Timer tempoRevogado;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtService jwtService, UsuarioDetailsService usuarioDetailsService) {
+    public JwtAuthenticationFilter(JwtService jwtService, UsuarioDetailsService usuarioDetailsService, RevogacaoTokens revogacaoTokens,
+                                   @Value("${escala.seguranca.autenticacao.modo:token}") ModosAutenticacaoEnum modo,
+                                   MeterRegistry registry) {
         this.jwtService = jwtService;
         this.usuarioDetailsService = usuarioDetailsService;
+        this.revogacaoTokens = revogacaoTokens;
+        this.modo = modo;
+        this.tempoAutenticado = tempo(registry, "autenticado");
+        this.tempoRecusado = tempo(registry, "recusado");
+        this.tempoInvalido = tempo(registry, "invalido");
+        this.tempoRevogado = tempo(registry, "revogado");
+    }
+
+    private static Timer tempo(MeterRegistry registry, String resultado) {
+        return Timer.builder("escala.autenticacao.jwt").tag("resultado", resultado).publishPercentileHistogram().register(registry);
     }
 
 
@@ -36,7 +60,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
+        final TokenVerificado token;
 
         log.debug("Processando autenticação JWT para path={}", request.getRequestURI());
 
@@ -47,29 +71,52 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
+        Timer.Sample amostra = Timer.start();
         try {
-            username = jwtService.extractUsername(jwt);
-            log.debug("Username extraído do token JWT: {}", username);
+            token = jwtService.verifica(jwt);
+            log.debug("Username extraído do token JWT: {}", token.username());
         } catch (Exception e) {
             log.warn("Token JWT inválido/expirado: {}", e.getMessage());
+            amostra.stop(tempoInvalido);
             response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
             response.getWriter().write("Token incorreto");
             return;
         }
 
+        if (revogacaoTokens.isRevogado(token)) {
+            log.warn("Token JWT revogado: jti={} username={}", token.id(), token.username());
+            amostra.stop(tempoRevogado);
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.getWriter().write("Token revogado");
+            return;
+        }
+
+        final String username = token.username();
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = usuarioDetailsService.loadUserByUsername(username);
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            UserDetails userDetails = usuarioDoToken(token);
+            if (jwtService.isTokenValid(token, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
                 log.debug("Autenticação populada no contexto para username={}", username);
+                amostra.stop(tempoAutenticado);
             } else {
                 log.warn("Token JWT não é válido para o usuário={}", username);
+                amostra.stop(tempoRecusado);
             }
         }
         filterChain.doFilter(request, response);
     }
 
+    // no modo TOKEN o perfil vem do token já verificado; tokens sem perfil (emitidos sem o Usuario) ainda consultam o banco
+    private UserDetails usuarioDoToken(TokenVerificado token) {
+        if (modo == ModosAutenticacaoEnum.TOKEN && token.role() != null) {
+            return User.withUsername(token.username())
+                    .password("")
+                    .authorities(token.role().name())
+                    .build();
+        }
+        return usuarioDetailsService.loadUserByUsername(token.username());
+    }
 }
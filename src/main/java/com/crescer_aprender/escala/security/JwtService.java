@@ -1,27 +1,54 @@
 package com.crescer_aprender.escala.security;
 
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
+@Slf4j
 @Service
 public class JwtService {
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
 
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
+    static final Duration VALIDADE_DO_TOKEN = Duration.ofHours(10);
+    static final String CLAIM_USUARIO_ID = "uid";
+    static final String CLAIM_ROLE = "role";
+
+    // tamanho mínimo de chave para HS256
+    private static final int TAMANHO_MINIMO_DA_CHAVE = 32;
+
+    private final SecretKey chave;
+    private final JwtParser parser;
+    // tokens já verificados, pelo hash SHA-256 do token; cada entrada sai do cache quando o token expira
+    private final Cache<String, TokenVerificado> tokensVerificados;
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    public JwtService(@Value("${jwt.secret}") String segredo,
+                      @Value("${escala.seguranca.cache-tokens.tamanho-maximo:10000}") long tamanhoMaximoDoCache) {
+        this.chave = Keys.hmacShaKeyFor(bytesDaChave(segredo));
+        this.parser = Jwts.parser().verifyWith(chave).build();
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximoDoCache)
+                .expireAfter(Expiry.creating((String hash, TokenVerificado token) ->
+                        Duration.between(Instant.now(), token.expiracao())))
+                .build();
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -29,30 +56,83 @@ public class JwtService {
         return createToken(claims, userDetails.getUsername());
     }
 
+    // com o id e o perfil no token, o filtro autentica sem consultar o banco (ModosAutenticacaoEnum.TOKEN)
+    public String generateToken(Usuario usuario) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USUARIO_ID, usuario.getId());
+        claims.put(CLAIM_ROLE, usuario.getRole().name());
+        return createToken(claims, usuario.getEmail());
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        Instant agora = Instant.now();
         return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10))
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY)
+                .claims(claims)
+                .id(UUID.randomUUID().toString())
+                .subject(subject)
+                .issuedAt(Date.from(agora))
+                .expiration(Date.from(agora.plus(VALIDADE_DO_TOKEN)))
+                .signWith(chave, Jwts.SIG.HS256)
                 .compact();
     }
 
+    // lê o token e verifica assinatura e expiração uma única vez; lança JwtException se o token for inválido ou expirado
+    public TokenVerificado verifica(String token) {
+        String hash = hash(token);
+        TokenVerificado verificado = tokensVerificados.getIfPresent(hash);
+        if (verificado != null && !verificado.isExpirado()) {
+            return verificado;
+        }
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        verificado = new TokenVerificado(claims.getId(), claims.getSubject(), claims.get(CLAIM_USUARIO_ID, Long.class),
+                role(claims.get(CLAIM_ROLE, String.class)), claims.getIssuedAt().toInstant(), claims.getExpiration().toInstant());
+        tokensVerificados.put(hash, verificado);
+        return verificado;
+    }
+
+    public String extractUsername(String token) {
+        return verifica(token).username();
+    }
+
+    public boolean isTokenValid(TokenVerificado token, UserDetails userDetails) {
+        return token.username().equals(userDetails.getUsername()) && !token.isExpirado();
+    }
+
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isTokenValid(verifica(token), userDetails);
+    }
+
+    private static PerfisUsuariosEnum role(String role) {
+        if (role == null) {
+            return null;
+        }
+        try {
+            return PerfisUsuariosEnum.valueOf(role);
+        } catch (IllegalArgumentException e) {
+            log.warn("Perfil desconhecido no token: {}", role);
+            return null;
+        }
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // a chave HMAC precisa de 256 bits; um segredo mais curto é estendido com SHA-256 (configure um segredo longo em produção)
+    private static byte[] bytesDaChave(String segredo) {
+        byte[] bytes = segredo.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= TAMANHO_MINIMO_DA_CHAVE) {
+            return bytes;
+        }
+        log.warn("jwt.secret tem menos de {} bytes; a chave de assinatura será derivada com SHA-256", TAMANHO_MINIMO_DA_CHAVE);
+        return sha256(bytes);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static String hash(String token) {
+        return HexFormat.of().formatHex(sha256(token.getBytes(StandardCharsets.UTF_8)));
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(token).getBody();
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
     }
 }
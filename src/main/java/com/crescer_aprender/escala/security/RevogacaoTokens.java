@@ -0,0 +1,83 @@
+package com.crescer_aprender.escala.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tokens JWT revogados antes de expirar, consultados pelo JwtAuthenticationFilter em memória (sem ir ao banco por requisição).
+ * As revogações são gravadas em token_revogado / usuario_revogacao e valem na hora nesta instância; as demais instâncias
+ * as recebem na próxima atualização periódica (escala.seguranca.revogacao.intervalo). Uma revogação nunca é desfeita,
+ * então a atualização só acrescenta e descarta o que já expirou.
+ */
+@Slf4j
+@Component
+public class RevogacaoTokens {
+
+    private static final String INSERE_TOKEN =
+            "INSERT INTO token_revogado (jti, expira_em) VALUES (?, ?) ON CONFLICT (jti) DO NOTHING";
+    private static final String INSERE_USUARIO =
+            "INSERT INTO usuario_revogacao (usuario_id, revogado_em) VALUES (?, ?) " +
+            "ON CONFLICT (usuario_id) DO UPDATE SET revogado_em = GREATEST(usuario_revogacao.revogado_em, EXCLUDED.revogado_em)";
+    private static final String REMOVE_TOKENS_EXPIRADOS = "DELETE FROM token_revogado WHERE expira_em < ?";
+    private static final String BUSCA_TOKENS = "SELECT jti, expira_em FROM token_revogado";
+    // revogações mais antigas que a validade de um token não alcançam mais nenhum token aceito
+    private static final String BUSCA_USUARIOS = "SELECT usuario_id, revogado_em FROM usuario_revogacao WHERE revogado_em > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<String, Instant> tokensRevogados = new ConcurrentHashMap<>();
+    private final Map<Long, Instant> usuariosRevogados = new ConcurrentHashMap<>();
+
+    public RevogacaoTokens(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public boolean isRevogado(TokenVerificado token) {
+        if (token.id() != null && tokensRevogados.containsKey(token.id())) {
+            return true;
+        }
+        if (token.usuarioId() == null) {
+            return false;
+        }
+        Instant revogadoEm = usuariosRevogados.get(token.usuarioId());
+        // iat tem precisão de segundos: um token emitido no mesmo segundo da revogação também é recusado
+        return revogadoEm != null && !token.emitidoEm().isAfter(revogadoEm);
+    }
+
+    // revoga um único token (logout)
+    public void revogaToken(TokenVerificado token) {
+        jdbcTemplate.update(INSERE_TOKEN, token.id(), Timestamp.from(token.expiracao()));
+        tokensRevogados.put(token.id(), token.expiracao());
+        log.info("Token revogado | jti={} username={}", token.id(), token.username());
+    }
+
+    // revoga todos os tokens já emitidos para o usuário; os emitidos depois (novo login) continuam valendo
+    public void revogaUsuario(Long usuarioId) {
+        Instant agora = Instant.now();
+        jdbcTemplate.update(INSERE_USUARIO, usuarioId, Timestamp.from(agora));
+        usuariosRevogados.merge(usuarioId, agora, (atual, nova) -> atual.isAfter(nova) ? atual : nova);
+        log.info("Tokens do usuário revogados | usuarioId={}", usuarioId);
+    }
+
+    @Scheduled(fixedDelayString = "${escala.seguranca.revogacao.intervalo:30s}")
+    public void atualiza() {
+        Instant agora = Instant.now();
+        jdbcTemplate.update(REMOVE_TOKENS_EXPIRADOS, Timestamp.from(agora));
+        jdbcTemplate.query(BUSCA_TOKENS, rs -> {
+            tokensRevogados.put(rs.getString("jti"), rs.getTimestamp("expira_em").toInstant());
+        });
+        jdbcTemplate.query(BUSCA_USUARIOS, rs -> {
+            usuariosRevogados.merge(rs.getLong("usuario_id"), rs.getTimestamp("revogado_em").toInstant(),
+                    (atual, nova) -> atual.isAfter(nova) ? atual : nova);
+        }, Timestamp.from(agora.minus(JwtService.VALIDADE_DO_TOKEN)));
+        tokensRevogados.values().removeIf(expiracao -> expiracao.isBefore(agora));
+        usuariosRevogados.values().removeIf(revogadoEm -> revogadoEm.isBefore(agora.minus(JwtService.VALIDADE_DO_TOKEN)));
+        log.debug("Revogações atualizadas | tokens={} usuarios={}", tokensRevogados.size(), usuariosRevogados.size());
+    }
+}
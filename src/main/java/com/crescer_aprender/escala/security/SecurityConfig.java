@@ -1,6 +1,10 @@
 package com.crescer_aprender.escala.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,10 +12,12 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
@@ -30,7 +36,11 @@ public class SecurityConfig {
                         .accessDeniedHandler(accessDeniedHandler)
                 )
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/publico/**", "/swagger-ui/**", "/v3/api-docs/**", "/auth/**", "/swagger.yaml").permitAll()
+                        // retomada de respostas assíncronas (ex.: exportação em stream) e página de erro do container (ex.: 503 do
+                        // LimitadorDeConexoes), já autorizadas no dispatch original; sem isso o erro chegaria ao cliente como 403
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
+                        .requestMatchers("/publico/**", "/swagger-ui/**", "/v3/api-docs/**", "/auth/**", "/swagger.yaml", "/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority("COORDENADOR")
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
@@ -43,7 +53,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public CodificadorDeSenhas passwordEncoder(@Qualifier("senhaExecutor") ExecutorService senhaExecutor,
+                                           @Value("${escala.seguranca.senhas.espera-maxima:5s}") Duration esperaMaxima,
+                                           MeterRegistry registry) {
+        return new CodificadorDeSenhas(new BCryptPasswordEncoder(), senhaExecutor, esperaMaxima, registry);
     }
 }
@@ -0,0 +1,18 @@
+package com.crescer_aprender.escala.security;
+
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+
+import java.time.Instant;
+
+/**
+ * Claims de um JWT cuja assinatura já foi verificada por JwtService.verifica: o token é lido e verificado uma vez
+ * por requisição (e fica em cache até expirar), não a cada claim consultada.
+ * id (jti), usuarioId e role só existem nos tokens gerados a partir do Usuario (login).
+ */
+public record TokenVerificado(String id, String username, Long usuarioId, PerfisUsuariosEnum role,
+                              Instant emitidoEm, Instant expiracao) {
+
+    public boolean isExpirado() {
+        return !expiracao.isAfter(Instant.now());
+    }
+}
@@ -0,0 +1,99 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.DisponibilidadeLoteResultado;
+import com.crescer_aprender.escala.dto.DisponibilidadeRequest;
+import com.crescer_aprender.escala.exception.ConstantExceptionUtil;
+import com.crescer_aprender.escala.exception.EntityNotFoundException;
+import com.crescer_aprender.escala.exception.InvalidVoluntarioDataException;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
+import com.crescer_aprender.escala.repository.VoluntarioJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Alteração das datas disponíveis de vários voluntários de uma vez (ex.: disponibilidade coletada em papel).
+ * Tudo roda em uma transação com um número fixo de comandos, independente de quantos voluntários e datas vierem:
+ * uma consulta dos ids, um DELETE e um INSERT das datas e uma única limpeza dos dias de escala em que algum
+ * voluntário deixou de estar disponível. Uma data nas duas listas do mesmo voluntário fica incluída.
+ */
+@Slf4j
+@Service
+public class DisponibilidadeLoteService {
+
+    private final VoluntarioJdbcRepository voluntarioJdbcRepository;
+    private final EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+    private final IndiceDisponibilidade indiceDisponibilidade;
+    private final int maximoDeVoluntarios;
+
+    public DisponibilidadeLoteService(VoluntarioJdbcRepository voluntarioJdbcRepository, EscalaDiaJdbcRepository escalaDiaJdbcRepository,
+                                      IndiceDisponibilidade indiceDisponibilidade,
+                                      @Value("${escala.disponibilidade.lote.maximo-voluntarios:1000}") int maximoDeVoluntarios) {
+        this.voluntarioJdbcRepository = voluntarioJdbcRepository;
+        this.escalaDiaJdbcRepository = escalaDiaJdbcRepository;
+        this.indiceDisponibilidade = indiceDisponibilidade;
+        this.maximoDeVoluntarios = maximoDeVoluntarios;
+    }
+
+    @Transactional
+    public DisponibilidadeLoteResultado altera(Map<Long, DisponibilidadeRequest> alteracoes) {
+        if (alteracoes == null || alteracoes.isEmpty() || alteracoes.size() > maximoDeVoluntarios) {
+            throw new InvalidVoluntarioDataException(String.format(ConstantExceptionUtil.INVALID_DISPONIBILIDADE_LOTE, maximoDeVoluntarios));
+        }
+        Set<Long> cadastrados = voluntarioJdbcRepository.voluntariosCadastrados(alteracoes.keySet());
+        List<Long> naoEncontrados = alteracoes.keySet().stream().filter(id -> !cadastrados.contains(id)).sorted().toList();
+        if (!naoEncontrados.isEmpty()) {
+            log.warn("Alteração de disponibilidade em lote com voluntários inexistentes ids={}", naoEncontrados);
+            throw new EntityNotFoundException(String.format(ConstantExceptionUtil.VOLUNTARIOS_NOT_FOUND, naoEncontrados));
+        }
+
+        // pares (voluntário, data) achatados para os comandos com unnest
+        List<Long> idsIncluir = new ArrayList<>();
+        List<LocalDate> datasIncluir = new ArrayList<>();
+        List<Long> idsRemover = new ArrayList<>();
+        List<LocalDate> datasRemover = new ArrayList<>();
+        alteracoes.forEach((id, request) -> {
+            Set<LocalDate> incluir = semNulos(request == null ? null : request.getIncluir());
+            Set<LocalDate> remover = semNulos(request == null ? null : request.getRemover());
+            remover.removeAll(incluir);
+            incluir.forEach(data -> {
+                idsIncluir.add(id);
+                datasIncluir.add(data);
+            });
+            remover.forEach(data -> {
+                idsRemover.add(id);
+                datasRemover.add(data);
+            });
+            indiceDisponibilidade.altera(id, incluir, remover);
+        });
+
+        int removidas = voluntarioJdbcRepository.removeDatasDisponiveis(idsRemover, datasRemover);
+        int incluidas = voluntarioJdbcRepository.insereDatasDisponiveis(idsIncluir, datasIncluir);
+        List<Long> diasAlterados = escalaDiaJdbcRepository.removeVoluntariosDasDatas(idsRemover, datasRemover);
+        log.info("Disponibilidade alterada em lote | voluntarios={} incluidas={} removidas={} diasAlterados={}",
+                alteracoes.size(), incluidas, removidas, diasAlterados.size());
+        return DisponibilidadeLoteResultado.builder()
+                .voluntarios(alteracoes.size())
+                .datasIncluidas(incluidas)
+                .datasRemovidas(removidas)
+                .diasAlterados(diasAlterados)
+                .build();
+    }
+
+    private static Set<LocalDate> semNulos(Set<LocalDate> datas) {
+        Set<LocalDate> copia = new HashSet<>();
+        if (datas != null) {
+            datas.stream().filter(Objects::nonNull).forEach(copia::add);
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,51 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.exception.InvalidCursorException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cursor opaco da pesquisa paginada por keyset: a posição (ano, mes, id) da última escala devolvida,
+ * codificada em base64 para o cliente apenas repassar, sem depender do formato.
+ */
+final class EscalaCursor {
+
+    static final Sort ORDEM = Sort.by("ano", "mes", "id");
+
+    private static final String VERSAO = "v1";
+
+    private EscalaCursor() {
+    }
+
+    static String codifica(Escala ultima) {
+        String posicao = VERSAO + ":" + ultima.getAno() + ":" + ultima.getMes() + ":" + ultima.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static KeysetScrollPosition decodifica(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] partes = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (partes.length != 4 || !VERSAO.equals(partes[0])) {
+                throw new InvalidCursorException(cursor);
+            }
+            // a ordem das chaves precisa ser a mesma de ORDEM
+            Map<String, Object> chaves = new LinkedHashMap<>();
+            chaves.put("ano", Long.valueOf(partes[1]));
+            chaves.put("mes", Integer.valueOf(partes[2]));
+            chaves.put("id", Long.valueOf(partes[3]));
+            return ScrollPosition.forward(chaves);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
+}
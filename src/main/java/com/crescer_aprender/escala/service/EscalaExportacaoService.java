@@ -0,0 +1,139 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.EscalaDataLinha;
+import com.crescer_aprender.escala.dto.EscalaDiaResponse;
+import com.crescer_aprender.escala.dto.EscalaExportacaoLinha;
+import com.crescer_aprender.escala.dto.EscalaResponse;
+import com.crescer_aprender.escala.dto.VoluntarioResumo;
+import com.crescer_aprender.escala.enums.FormatosExportacaoEnum;
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Exportação de todas as escalas (ou das de um ano) em NDJSON (uma EscalaResponse por linha, a mesma de GET /escala)
+ * ou CSV (uma linha por dia e voluntário). As linhas vêm em stream do banco e são escritas conforme chegam, sem montar
+ * a lista de escalas nem carregar entidades: a memória usada é a de uma escala, independente do histórico.
+ * No NDJSON as datas da escala (escala_datas) vêm de um segundo stream, na mesma ordem de escalas, juntado por escala_id.
+ */
+@Slf4j
+@Service
+public class EscalaExportacaoService {
+
+    static final String CABECALHO_CSV = "escala_id,ano,mes,dia_id,data,voluntario_id,voluntario_nome";
+
+    private final EscalaRepository repository;
+    private final ObjectMapper objectMapper;
+
+    public EscalaExportacaoService(EscalaRepository repository, ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+    }
+
+    // chamado de dentro do StreamingResponseBody: a transação (e o cursor) ficam abertos enquanto a resposta é escrita
+    @Transactional(readOnly = true)
+    public void exporta(Long ano, FormatosExportacaoEnum formato, OutputStream saida) throws IOException {
+        log.info("Iniciando exportação de escalas | ano={} formato={}", ano, formato);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+        long escritas;
+        try (Stream<EscalaExportacaoLinha> linhas = repository.streamLinhasExportacao(ano)) {
+            escritas = switch (formato) {
+                case NDJSON -> {
+                    try (Stream<EscalaDataLinha> datas = repository.streamDatasExportacao(ano)) {
+                        yield escreveNdjson(linhas.iterator(), datas.iterator(), writer);
+                    }
+                }
+                case CSV -> escreveCsv(linhas.iterator(), writer);
+            };
+        }
+        writer.flush();
+        log.info("Exportação de escalas finalizada | ano={} formato={} linhas={}", ano, formato, escritas);
+    }
+
+    // as linhas e as datas chegam ordenadas por escala; cada escala é escrita assim que a próxima começa.
+    // Toda escala tem linha (LEFT JOIN), mas só as que têm datas aparecem em datas
+    private long escreveNdjson(Iterator<EscalaExportacaoLinha> linhas, Iterator<EscalaDataLinha> datas, Writer writer) throws IOException {
+        long escritas = 0;
+        EscalaResponse atual = null;
+        EscalaDiaResponse diaAtual = null;
+        EscalaDataLinha proximaData = datas.hasNext() ? datas.next() : null;
+        while (linhas.hasNext()) {
+            EscalaExportacaoLinha linha = linhas.next();
+            if (atual == null || !atual.getId().equals(linha.escalaId())) {
+                if (atual != null) {
+                    escreveLinhaJson(atual, writer);
+                    escritas++;
+                }
+                atual = EscalaResponse.builder().id(linha.escalaId()).mes(linha.mes()).ano(linha.ano())
+                        .datas(new ArrayList<>()).dias(new ArrayList<>()).build();
+                diaAtual = null;
+                while (proximaData != null && proximaData.escalaId().equals(atual.getId())) {
+                    atual.getDatas().add(proximaData.data());
+                    proximaData = datas.hasNext() ? datas.next() : null;
+                }
+            }
+            if (linha.diaId() == null) {
+                continue;
+            }
+            if (diaAtual == null || !diaAtual.getId().equals(linha.diaId())) {
+                diaAtual = EscalaDiaResponse.builder().id(linha.diaId()).data(linha.data()).voluntarios(new ArrayList<>()).build();
+                atual.getDias().add(diaAtual);
+            }
+            if (linha.voluntarioId() != null) {
+                diaAtual.getVoluntarios().add(new VoluntarioResumo(linha.voluntarioId(), linha.voluntarioNome()));
+            }
+        }
+        if (atual != null) {
+            escreveLinhaJson(atual, writer);
+            escritas++;
+        }
+        return escritas;
+    }
+
+    private void escreveLinhaJson(EscalaResponse escala, Writer writer) throws IOException {
+        writer.write(objectMapper.writeValueAsString(escala));
+        writer.write('\n');
+    }
+
+    private static long escreveCsv(Iterator<EscalaExportacaoLinha> linhas, Writer writer) throws IOException {
+        long escritas = 0;
+        writer.write(CABECALHO_CSV);
+        writer.write('\n');
+        while (linhas.hasNext()) {
+            EscalaExportacaoLinha linha = linhas.next();
+            writer.write(String.join(",",
+                    valor(linha.escalaId()), valor(linha.ano()), valor(linha.mes()), valor(linha.diaId()),
+                    valor(linha.data()), valor(linha.voluntarioId()), textoCsv(linha.voluntarioNome())));
+            writer.write('\n');
+            escritas++;
+        }
+        return escritas;
+    }
+
+    private static String valor(Object valor) {
+        return valor == null ? "" : valor.toString();
+    }
+
+    // aspas apenas quando o nome tiver separador, aspas ou quebra de linha (RFC 4180)
+    static String textoCsv(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        if (texto.contains(",") || texto.contains("\"") || texto.contains("\n") || texto.contains("\r")) {
+            return "\"" + texto.replace("\"", "\"\"") + "\"";
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,97 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.EscalaCreateRequest;
+import com.crescer_aprender.escala.dto.EscalaLoteResultado;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.exception.EscalaAlreadyExistsException;
+import com.crescer_aprender.escala.exception.InvalidEscalaLoteException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Geração de vários meses de escala de uma vez (ex.: um semestre).
+ * Cada mês roda em paralelo no executor limitado escalaLoteExecutor, em sua própria transação
+ * (EscalaService.saveFromRequest), e o resultado/erro é devolvido por mês, na ordem da requisição.
+ */
+@Slf4j
+@Service
+public class EscalaLoteService {
+
+    private final EscalaService escalaService;
+    private final ExecutorService executor;
+    private final int maximoDeMeses;
+
+    public EscalaLoteService(EscalaService escalaService,
+                             @Qualifier("escalaLoteExecutor") ExecutorService executor,
+                             @Value("${escala.lote.maximo-meses:12}") int maximoDeMeses) {
+        this.escalaService = escalaService;
+        this.executor = executor;
+        this.maximoDeMeses = maximoDeMeses;
+    }
+
+    public List<EscalaLoteResultado> saveAll(List<EscalaCreateRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new InvalidEscalaLoteException("O lote deve conter pelo menos uma escala.");
+        }
+        if (requests.size() > maximoDeMeses) {
+            throw new InvalidEscalaLoteException("O lote pode conter no máximo " + maximoDeMeses + " escalas.");
+        }
+        log.info("Iniciando geração em lote de {} escalas", requests.size());
+
+        // o mesmo mês repetido no lote falharia na corrida entre as threads; rejeita as repetições antes de gerar
+        Set<String> mesesDoLote = new HashSet<>();
+        List<CompletableFuture<EscalaLoteResultado>> resultados = new ArrayList<>(requests.size());
+        for (EscalaCreateRequest request : requests) {
+            if (request.getAno() == null || request.getMes() == null) {
+                resultados.add(CompletableFuture.completedFuture(falha(request, "Mês e ano da escala são obrigatórios.")));
+            } else if (!mesesDoLote.add(request.getAno() + "/" + request.getMes())) {
+                resultados.add(CompletableFuture.completedFuture(falha(request, new EscalaAlreadyExistsException(request.getAno(), request.getMes()).getReason())));
+            } else {
+                resultados.add(CompletableFuture.supplyAsync(() -> gera(request), executor)
+                        .exceptionally(e -> falha(request, mensagem(e))));
+            }
+        }
+        List<EscalaLoteResultado> lote = resultados.stream().map(CompletableFuture::join).toList();
+        log.info("Geração em lote finalizada | sucesso={} falhas={}", lote.stream().filter(EscalaLoteResultado::isSucesso).count(),
+                lote.stream().filter(r -> !r.isSucesso()).count());
+        return lote;
+    }
+
+    private EscalaLoteResultado gera(EscalaCreateRequest request) {
+        log.info("Gerando escala do lote | mes={} ano={}", request.getMes(), request.getAno());
+        Escala escala = escalaService.saveFromRequest(request);
+        return EscalaLoteResultado.builder()
+                .mes(escala.getMes())
+                .ano(escala.getAno())
+                .sucesso(true)
+                .escalaId(escala.getId())
+                .build();
+    }
+
+    private static EscalaLoteResultado falha(EscalaCreateRequest request, String mensagem) {
+        log.warn("Falha ao gerar escala do lote | mes={} ano={} erro={}", request.getMes(), request.getAno(), mensagem);
+        return EscalaLoteResultado.builder()
+                .mes(request.getMes())
+                .ano(request.getAno())
+                .sucesso(false)
+                .errorMessage(mensagem)
+                .build();
+    }
+
+    private static String mensagem(Throwable e) {
+        Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (causa instanceof ResponseStatusException rse && rse.getReason() != null) {
+            return rse.getReason();
+        }
+        log.error("Erro inesperado na geração em lote", causa);
+        return "Erro ao gerar a escala: " + causa.getMessage();
+    }
+}
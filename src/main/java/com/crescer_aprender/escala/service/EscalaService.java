@@ -7,15 +7,33 @@ import com.crescer_aprender.escala.exception.EntityNotFoundException;
 import com.crescer_aprender.escala.exception.EscalaAlreadyExistsException;
 import com.crescer_aprender.escala.exception.InvalidVoluntarioDataException;
 import com.crescer_aprender.escala.exception.VoluntarioNotExistException;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
 import com.crescer_aprender.escala.repository.EscalaRepository;
 import com.crescer_aprender.escala.repository.EscalaSpecifications;
 import com.crescer_aprender.escala.repository.VoluntarioRepository;
 import com.crescer_aprender.escala.dto.EscalaCreateRequest;
+import com.crescer_aprender.escala.dto.EscalaCursorResponse;
+import com.crescer_aprender.escala.dto.EscalaDataLinha;
 import com.crescer_aprender.escala.dto.EscalaDiaRequest;
+import com.crescer_aprender.escala.dto.EscalaDiaResponse;
+import com.crescer_aprender.escala.dto.EscalaDiaVoluntarioLinha;
+import com.crescer_aprender.escala.dto.EscalaResponse;
+import com.crescer_aprender.escala.dto.VoluntarioResumo;
+import com.crescer_aprender.escala.service.alocacao.AlocacaoStrategy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,18 +44,35 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 public class EscalaService {
+    static final int TAMANHO_MAXIMO_PAGINA = 100;
 
     private final EscalaRepository repository;
     private final VoluntarioRepository voluntarioRepository;
+    private final IndiceDisponibilidade indiceDisponibilidade;
+    private final AlocacaoStrategy alocacaoStrategy;
+    private final EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+    private final Timer tempoCriacao;
+    private final Timer tempoPopulacao;
+    private final DistributionSummary candidatosPorDia;
+    private final Counter diasComPoucosVoluntarios;
 
     @Autowired
-    public EscalaService(EscalaRepository repository, VoluntarioRepository voluntarioRepository) {
+    public EscalaService(EscalaRepository repository, VoluntarioRepository voluntarioRepository, IndiceDisponibilidade indiceDisponibilidade,
+                         AlocacaoStrategy alocacaoStrategy, EscalaDiaJdbcRepository escalaDiaJdbcRepository, MeterRegistry registry) {
         this.repository = repository;
         this.voluntarioRepository = voluntarioRepository;
-    }
-
-    public Page<Escala> findByFiltersPaginated(Map<String, String> filters, Pageable pageable) {
-        return repository.findAll(EscalaSpecifications.byFilters(filters), pageable);
+        this.indiceDisponibilidade = indiceDisponibilidade;
+        this.alocacaoStrategy = alocacaoStrategy;
+        this.escalaDiaJdbcRepository = escalaDiaJdbcRepository;
+        this.tempoCriacao = Timer.builder("escala.escalas.geracao").tag("operacao", "cria")
+                .publishPercentileHistogram().register(registry);
+        this.tempoPopulacao = Timer.builder("escala.escalas.geracao").tag("operacao", "popula")
+                .publishPercentileHistogram().register(registry);
+        this.candidatosPorDia = DistributionSummary.builder("escala.dias.candidatos")
+                .description("Voluntários disponíveis para cada dia gerado")
+                .publishPercentileHistogram().maximumExpectedValue(1000.0).register(registry);
+        this.diasComPoucosVoluntarios = Counter.builder("escala.dias.poucos-voluntarios")
+                .description("Dias gerados com menos voluntários disponíveis que o mínimo").register(registry);
     }
 
     public Optional<Escala> findEscalaByMesAnoVoluntario(Integer mes, Long ano, Long voluntario) {
@@ -49,22 +84,100 @@ public class EscalaService {
         }
     }
 
-    public Optional<Escala> findByAnoAndMes(LocalDate data) {
-        return repository.findByAnoAndMes(data.getYear(), data.getMonthValue());
+    // leituras para os endpoints: EscalaResponse montada por projeção, sem o grafo de entidades (usuário, datas disponíveis...)
+    @Transactional(readOnly = true)
+    public Optional<List<EscalaResponse>> loadAllResponse() {
+        return Optional.of(montaRespostas(repository.findAll()));
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<EscalaResponse> findResponseById(Long id) {
+        return repository.findById(id).map(this::montaResposta);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<EscalaResponse> findResponseByAnoAndMes(LocalDate data) {
+        return repository.findByAnoAndMes(data.getYear(), data.getMonthValue()).map(this::montaResposta);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<EscalaResponse> findResponseByFiltersPaginated(Map<String, String> filters, Pageable pageable) {
+        Page<Escala> pagina = repository.findAll(EscalaSpecifications.byFilters(filters), pageable);
+        return new PageImpl<>(montaRespostas(pagina.getContent()), pagina.getPageable(), pagina.getTotalElements());
     }
 
-    public Optional<Escala> findById(Long id) {
-        return repository.findById(id);
+    // sem COUNT: busca tamanho + 1 linhas só para saber se há próxima página; sem ordenação informada, usa (ano, mes, id)
+    @Transactional(readOnly = true)
+    public Slice<EscalaResponse> findResponseByFiltersSlice(Map<String, String> filters, Pageable pageable) {
+        Pageable ordenado = pageable.getSort().isSorted() ? pageable
+                : PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), EscalaCursor.ORDEM);
+        Slice<Escala> fatia = repository.findBy(EscalaSpecifications.byFilters(filters), q -> q.slice(ordenado));
+        return new SliceImpl<>(montaRespostas(fatia.getContent()), fatia.getPageable(), fatia.hasNext());
     }
 
-    public Optional<List<Escala>> loadAll() {
-        return Optional.of(repository.findAll());
+    // keyset: continua a partir da posição (ano, mes, id) do cursor, sem OFFSET nem COUNT, com custo constante em qualquer página
+    @Transactional(readOnly = true)
+    public EscalaCursorResponse findResponseByFiltersCursor(Map<String, String> filters, String cursor, int tamanho) {
+        int limite = Math.clamp(tamanho, 1, TAMANHO_MAXIMO_PAGINA);
+        Window<Escala> janela = repository.findBy(EscalaSpecifications.byFilters(filters),
+                q -> q.sortBy(EscalaCursor.ORDEM).limit(limite).scroll(EscalaCursor.decodifica(cursor)));
+        List<Escala> escalas = janela.getContent();
+        return EscalaCursorResponse.builder()
+                .content(montaRespostas(escalas))
+                .proximoCursor(janela.hasNext() ? EscalaCursor.codifica(escalas.get(escalas.size() - 1)) : null)
+                .temProximo(janela.hasNext())
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public EscalaResponse findResponseByMesAnoVoluntario(Integer mes, Long ano, Long voluntario) {
+        return montaResposta(findEscalaByMesAnoVoluntario(mes, ano, voluntario).get());
+    }
+
+    private EscalaResponse montaResposta(Escala escala) {
+        return montaRespostas(List.of(escala)).get(0);
+    }
+
+    // duas consultas para qualquer número de escalas: datas e (dia, voluntário); as linhas chegam ordenadas por data
+    private List<EscalaResponse> montaRespostas(List<Escala> escalas) {
+        if (escalas.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, EscalaResponse> respostasPorId = new LinkedHashMap<>();
+        for (Escala escala : escalas) {
+            respostasPorId.put(escala.getId(), EscalaResponse.builder()
+                    .id(escala.getId())
+                    .mes(escala.getMes())
+                    .ano(escala.getAno())
+                    .datas(new ArrayList<>())
+                    .dias(new ArrayList<>())
+                    .build());
+        }
+        for (EscalaDataLinha linha : repository.findDatasByEscalaIds(respostasPorId.keySet())) {
+            respostasPorId.get(linha.escalaId()).getDatas().add(linha.data());
+        }
+        Map<Long, EscalaDiaResponse> diasPorId = new HashMap<>();
+        for (EscalaDiaVoluntarioLinha linha : repository.findDiasComVoluntariosByEscalaIds(respostasPorId.keySet())) {
+            EscalaDiaResponse dia = diasPorId.computeIfAbsent(linha.diaId(), diaId -> {
+                EscalaDiaResponse novo = EscalaDiaResponse.builder().id(diaId).data(linha.data()).voluntarios(new ArrayList<>()).build();
+                respostasPorId.get(linha.escalaId()).getDias().add(novo);
+                return novo;
+            });
+            if (linha.voluntarioId() != null) {
+                dia.getVoluntarios().add(new VoluntarioResumo(linha.voluntarioId(), linha.voluntarioNome()));
+            }
+        }
+        return new ArrayList<>(respostasPorId.values());
     }
 
 
     // novo: salvar a partir de request DTO (recomendado para endpoints)
     @Transactional
     public Escala saveFromRequest(EscalaCreateRequest request) {
+        return tempoCriacao.record(() -> criaEscala(request));
+    }
+
+    private Escala criaEscala(EscalaCreateRequest request) {
         Escala escala = new Escala();
         escala.setMes(request.getMes());
         escala.setAno(request.getAno());
@@ -72,10 +185,27 @@ public class EscalaService {
 
         verificaSeHaEscalaCadastradaNaData(escala);
 
+        List<EscalaDia> dias = null;
         if (request.getIncluirVoluntariosAutomaticamente() != null && request.getIncluirVoluntariosAutomaticamente()) {
-            populaEscalaComDias(escala, request);
+            dias = geraDias(escala, request);
+        }
+        Escala salva;
+        try {
+            // os dias não passam pelo cascade (um INSERT por dia e por voluntário); são gravados em lote logo abaixo
+            salva = repository.save(escala);
+        } catch (DataIntegrityViolationException e) {
+            // outra transação (ex.: geração em lote) gravou o mesmo mês depois da verificação acima
+            if (e.getMostSpecificCause().getMessage() != null && e.getMostSpecificCause().getMessage().contains("ux_escala_ano_mes")) {
+                log.info("Escala para o ano {} e mês {} gravada por outra transação concorrente", escala.getAno(), escala.getMes());
+                throw new EscalaAlreadyExistsException(escala.getAno(), escala.getMes());
+            }
+            throw e;
         }
-        return repository.save(escala);
+        if (dias == null) {
+            return salva;
+        }
+        escalaDiaJdbcRepository.insereDias(salva.getId(), dias);
+        return comDias(salva, dias);
     }
 
     @Transactional
@@ -97,17 +227,9 @@ public class EscalaService {
             mergeDatas(oldEscala, dates);
             // após mesclar as datas, recria os dias conforme disponibilidades
             List<EscalaDia> diasRecriados = new ArrayList<>();
+            Map<LocalDate, List<Voluntario>> selecionadosPorData = selecionaVoluntariosDisponiveis(oldEscala.getDatas());
             for (LocalDate data : oldEscala.getDatas()) {
-                List<Voluntario> listaVoluntariosNaData = voluntarioRepository.findVoluntariosByData(data).orElse(Collections.emptyList());
-                if (listaVoluntariosNaData.isEmpty() || listaVoluntariosNaData.size() < 4) {
-                    log.warn("Menos de 4 voluntários disponíveis para a data: {}", data);
-                }
-                List<Voluntario> candidatos = new ArrayList<>(listaVoluntariosNaData);
-                Collections.shuffle(candidatos);
-                int seleciona = Math.min(8, candidatos.size());
-                List<Voluntario> selecionados = new ArrayList<>(candidatos.subList(0, seleciona));
-
-                EscalaDia dia = EscalaDia.builder().data(data).voluntarios(selecionados).build();
+                EscalaDia dia = EscalaDia.builder().data(data).voluntarios(selecionadosPorData.get(data)).build();
                 diasRecriados.add(dia);
             }
             diasRecriados.forEach(d -> d.setEscala(oldEscala));
@@ -134,14 +256,34 @@ public class EscalaService {
 
     @Transactional
     public Escala populaEscalaComVoluntarios(Long idEscala) {
-        // carregar a instância gerenciada e modificá-la diretamente para evitar conflitos de coleção (orphanRemoval)
+        return tempoPopulacao.record(() -> populaEscala(idEscala));
+    }
+
+    private Escala populaEscala(Long idEscala) {
         Escala escala = repository.findById(idEscala).orElseThrow(() -> new EntityNotFoundException("Escala", idEscala));
-        populaEscalaComDias(escala, EscalaCreateRequest.of(escala));
-        // Como estamos em uma transação, simplesmente salvar a entidade gerenciada mantém a integridade das coleções
-        return repository.save(escala);
+        List<EscalaDia> dias = geraDias(escala, EscalaCreateRequest.of(escala));
+        // a entidade gerenciada não é alterada: os dias antigos são removidos e os novos gravados em lote, fora do cascade
+        escalaDiaJdbcRepository.removeDias(escala.getId());
+        escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+        return comDias(escala, dias);
+    }
+
+    // cópia não gerenciada da escala com os dias gravados em lote, para a resposta; anexá-los à entidade gerenciada
+    // faria o flush tentar persistir de novo, pelo cascade, dias que já têm id
+    private static Escala comDias(Escala escala, List<EscalaDia> dias) {
+        Escala resposta = Escala.builder()
+                .id(escala.getId())
+                .mes(escala.getMes())
+                .ano(escala.getAno())
+                .datas(escala.getDatas() == null ? null : new ArrayList<>(escala.getDatas()))
+                .dias(dias)
+                .build();
+        dias.forEach(d -> d.setEscala(resposta));
+        return resposta;
     }
 
-    private void mergeDatas(Escala escala, List<LocalDate> novasDatas) {
+    // package-private e estático para o MergeDatasBenchmark (src/jmh)
+    static void mergeDatas(Escala escala, List<LocalDate> novasDatas) {
         List<LocalDate> datasAtuais = escala.getDatas();
 
         datasAtuais.removeIf(date -> !novasDatas.contains(date));
@@ -166,117 +308,153 @@ public class EscalaService {
         }
     }
 
-    private void populaEscalaComDias(Escala escala, EscalaCreateRequest request) {
+    // monta os dias da escala (voluntários informados na request ou selecionados entre os disponíveis) sem gravá-los
+    private List<EscalaDia> geraDias(Escala escala, EscalaCreateRequest request) {
         log.info("Iniciando população da escala com dias e voluntários... | Escala ={}", escala);
         // Metodo que verifica se a request foram passados dias completos com voluntários
         List<EscalaDia> dias = new ArrayList<>();
         if (request.getDias() != null && !request.getDias().isEmpty()) {
             log.info("Percorrendo dias passados pela request, para maepar em EscalaDia e adicionar os voluntários...");
+            // disponibilidade de todas as datas da request em uma única consulta, ao invés de uma por dia
+            Map<LocalDate, List<Voluntario>> disponiveisPorData = voluntarioRepository.findVoluntariosAgrupadosPorData(
+                    request.getDias().stream().map(EscalaDiaRequest::getData).filter(Objects::nonNull).toList());
+            List<EscalaDia> diasSemVoluntarios = new ArrayList<>();
             for (EscalaDiaRequest diaRequest : request.getDias()) {
                 log.info("Processando EscalaDiaRequest para data = {}", diaRequest.getData());
                 EscalaDia escalaDia = new EscalaDia();
                 escalaDia.setData(diaRequest.getData());
+                List<Voluntario> disponiveisNaData = disponiveisPorData.getOrDefault(diaRequest.getData(), Collections.emptyList());
                 if (diaRequest.getVoluntarios() != null && !diaRequest.getVoluntarios().isEmpty()) {
-                    log.info("Processando Voluntarios para data = {}", diaRequest.getVoluntarios());
-                    // busca por ids
-                    Optional<List<Voluntario>> voluntariosNoBanco = voluntarioRepository.findVoluntariosByIds(diaRequest.getVoluntarios());
-                    if (voluntariosNoBanco.isPresent()) {
-                        log.info("Validando voluntarios para data = {}", diaRequest.getVoluntarios());
-                        validaVoluntariosExistentes(diaRequest, voluntariosNoBanco);
-                        validaDisponibilidadeVoluntarios(diaRequest, voluntariosNoBanco);
-                        escalaDia.setVoluntarios(voluntariosNoBanco.get());
-                        log.info("Voluntarios validados e atribuídos para data = {}", diaRequest.getData());
-
-                    }
+                    log.info("Validando voluntarios para data = {}", diaRequest.getVoluntarios());
+                    escalaDia.setVoluntarios(validaVoluntariosDaRequest(diaRequest, disponiveisNaData));
+                    log.info("Voluntarios validados e atribuídos para data = {}", diaRequest.getData());
                 } else {
-                    // se não passou ids, deixa que o método de persistência selecione baseado em disponibilidade
-                    log.info("Request não possui voluntários específicos para a data ={}. Selecionando aleatoriamente entre os disponíveis.", diaRequest.getData());
-                    escalaVoluntariosAleatoriosDisponiveis(diaRequest, escalaDia);
-                    log.info("Voluntarios aleatórios atribuídos para data = {}", diaRequest.getData());
+                    // se não passou ids, a estratégia de alocação seleciona entre os disponíveis, junto com os demais dias sem ids
+                    log.info("Request não possui voluntários específicos para a data ={}. Selecionando entre os disponíveis.", diaRequest.getData());
+                    if (disponiveisNaData.isEmpty()) {
+                        InvalidVoluntarioDataException e = new InvalidVoluntarioDataException("Não há voluntarios disponíveis para a data =" + diaRequest.getData());
+                        log.error(e.getMessage());
+                        throw e;
+                    }
+                    diasSemVoluntarios.add(escalaDia);
                 }
                 dias.add(escalaDia);
             }
-            dias.forEach(d -> d.setEscala(escala));
-            // ao invés de substituir a coleção gerenciada pelo JPA, muta a instância existente para evitar problemas com orphanRemoval
-            if (escala.getDias() == null) {
-                escala.setDias(new ArrayList<>());
-            } else {
-                escala.getDias().clear();
-            }
-            escala.getDias().addAll(dias);
-        } else {
-            criaDiasComVoluntariosDisponiveis(escala);
+            escalaVoluntariosDisponiveis(diasSemVoluntarios, disponiveisPorData);
+            return dias;
+        }
+        return criaDiasComVoluntariosDisponiveis(escala);
+    }
+
+    // os voluntários informados precisam estar entre os disponíveis na data; só consulta o banco de novo para explicar a falha
+    private List<Voluntario> validaVoluntariosDaRequest(EscalaDiaRequest diaRequest, List<Voluntario> disponiveisNaData) {
+        Map<Long, Voluntario> disponiveisPorId = new HashMap<>();
+        disponiveisNaData.forEach(v -> disponiveisPorId.put(v.getId(), v));
+        List<Long> foraDaData = diaRequest.getVoluntarios().stream().filter(id -> !disponiveisPorId.containsKey(id)).distinct().toList();
+        if (!foraDaData.isEmpty()) {
+            List<Voluntario> encontrados = voluntarioRepository.findVoluntariosByIds(foraDaData).orElse(Collections.emptyList());
+            validaVoluntariosExistentes(diaRequest, foraDaData, encontrados);
+            validaDisponibilidadeVoluntarios(diaRequest, encontrados);
         }
+        return diaRequest.getVoluntarios().stream().distinct().map(disponiveisPorId::get).collect(Collectors.toCollection(ArrayList::new));
     }
 
-    private static void validaVoluntariosExistentes(EscalaDiaRequest diaRequest, Optional<List<Voluntario>> voluntariosNoBanco) {
+    private static void validaVoluntariosExistentes(EscalaDiaRequest diaRequest, List<Long> ids, List<Voluntario> voluntariosNoBanco) {
         log.info("Verificando se todos os voluntarios do EscalaDiaRequest : {} existem no banco", diaRequest.getData());
-        if (voluntariosNoBanco.isEmpty() || voluntariosNoBanco.get().size() != diaRequest.getVoluntarios().size()) {
-            List<Long> missing = new ArrayList<>();
-            if (voluntariosNoBanco.isPresent()) {
-                Set<Long> found = voluntariosNoBanco.get().stream().map(Voluntario::getId).collect(Collectors.toSet());
-                for (Long id : diaRequest.getVoluntarios()) if (!found.contains(id)) missing.add(id);
-            } else missing.addAll(diaRequest.getVoluntarios());
+        Set<Long> found = voluntariosNoBanco.stream().map(Voluntario::getId).collect(Collectors.toSet());
+        List<Long> missing = ids.stream().filter(id -> !found.contains(id)).toList();
+        if (!missing.isEmpty()) {
             throw new VoluntarioNotExistException(missing);
         }
         log.info("Voluntarios para o EscalaDiaRequest: {} válidos.", diaRequest.getData());
     }
 
-    private static void validaDisponibilidadeVoluntarios(EscalaDiaRequest diaRequest, Optional<List<Voluntario>> voluntariosNoBanco) {
+    private static void validaDisponibilidadeVoluntarios(EscalaDiaRequest diaRequest, List<Voluntario> voluntariosIndisponiveis) {
         log.info("Verificando se todos voluntários passados para o EscalaDiaRequest : {} estão de fato disponíveis para o dia.", diaRequest.getData());
-        // valida disponibilidade: cada voluntario especificado deve conter a data em datasDisponiveis
-        List<Voluntario> voluntariosList = voluntariosNoBanco.orElse(Collections.emptyList());
-        List<Long> notAvailable = voluntariosList.stream().filter(v -> v.getDatasDisponiveis() == null || !v.getDatasDisponiveis().contains(diaRequest.getData())).map(Voluntario::getId).toList();
+        List<Long> notAvailable = voluntariosIndisponiveis.stream().map(Voluntario::getId).toList();
         if (!notAvailable.isEmpty()) {
             throw new InvalidVoluntarioDataException("Voluntários não disponíveis para a data " + diaRequest.getData() + ": " + notAvailable);
         }
         log.info("Todos Voluntários passados estão disponíveis para o dia {}", diaRequest.getData());
     }
 
-    private void escalaVoluntariosAleatoriosDisponiveis(EscalaDiaRequest diaRequest, EscalaDia escalaDia) {
-        List<Voluntario> candidatos = voluntarioRepository.findVoluntariosByData(diaRequest.getData()).orElse(Collections.emptyList());
-        if (candidatos.isEmpty()) {
-            InvalidVoluntarioDataException e = new InvalidVoluntarioDataException("Não há voluntarios disponíveis para a data =" + diaRequest.getData());
-            log.error(e.getMessage());
-            throw e;
+    private void escalaVoluntariosDisponiveis(List<EscalaDia> dias, Map<LocalDate, List<Voluntario>> disponiveisPorData) {
+        if (dias.isEmpty()) {
+            return;
+        }
+        Map<LocalDate, List<Long>> candidatosPorData = new LinkedHashMap<>();
+        Map<Long, Voluntario> voluntariosPorId = new HashMap<>();
+        for (EscalaDia dia : dias) {
+            List<Voluntario> candidatos = disponiveisPorData.getOrDefault(dia.getData(), Collections.emptyList());
+            registraCandidatos(candidatos.size());
+            if (candidatos.size() < AlocacaoStrategy.MIN_VOLUNTARIOS_POR_DIA) {
+                log.warn("Poucos voluntários para o dia = {}", dia.getData());
+            }
+            candidatos.forEach(v -> voluntariosPorId.put(v.getId(), v));
+            candidatosPorData.put(dia.getData(), candidatos.stream().map(Voluntario::getId).toList());
         }
-        if (candidatos.size() < 4) {
-            log.warn("Poucos voluntários para o dia = {}", diaRequest.getData());
+        Map<LocalDate, List<Long>> alocacao = alocacaoStrategy.aloca(candidatosPorData);
+        for (EscalaDia dia : dias) {
+            dia.setVoluntarios(alocacao.get(dia.getData()).stream().map(voluntariosPorId::get).collect(Collectors.toCollection(ArrayList::new)));
+            log.info("Voluntarios atribuídos para data = {}", dia.getData());
         }
-        List<Voluntario> voluntariosCandidatos = new ArrayList<>(candidatos);
-        Collections.shuffle(voluntariosCandidatos);
-        int seleciona = Math.min(8, voluntariosCandidatos.size());
-        List<Voluntario> selecionados = new ArrayList<>(voluntariosCandidatos.subList(0, seleciona));
-        escalaDia.setVoluntarios(selecionados);
     }
 
-    private void criaDiasComVoluntariosDisponiveis(Escala escala) {
+    // seleciona até 8 voluntários por data com a estratégia de alocação, a partir do índice de disponibilidade, e carrega os escolhidos em uma única consulta
+    private Map<LocalDate, List<Voluntario>> selecionaVoluntariosDisponiveis(List<LocalDate> datas) {
+        Map<LocalDate, List<Long>> candidatosPorData = indiceDisponibilidade.voluntariosDisponiveis(datas);
+        candidatosPorData.forEach((data, candidatos) -> {
+            registraCandidatos(candidatos.size());
+            if (candidatos.size() < AlocacaoStrategy.MIN_VOLUNTARIOS_POR_DIA) {
+                log.warn("Dia gerado com poucos voluntários disponíveis para serem escalados | dia ={} ", data, new InvalidVoluntarioDataException("Menos de 4 voluntários disponíveis para a data: " + data));
+            }
+        });
+        Map<LocalDate, List<Long>> idsPorData = alocacaoStrategy.aloca(candidatosPorData);
+        Set<Long> todosSelecionados = new LinkedHashSet<>();
+        idsPorData.values().forEach(todosSelecionados::addAll);
+
+        Map<Long, Voluntario> voluntariosPorId = new HashMap<>();
+        if (!todosSelecionados.isEmpty()) {
+            voluntarioRepository.findVoluntariosByIds(new ArrayList<>(todosSelecionados)).orElse(Collections.emptyList())
+                    .forEach(v -> voluntariosPorId.put(v.getId(), v));
+        }
+
+        Map<LocalDate, List<Voluntario>> selecionadosPorData = new LinkedHashMap<>();
+        idsPorData.forEach((data, ids) -> {
+            List<Voluntario> voluntarios = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                Voluntario voluntario = voluntariosPorId.get(id);
+                if (voluntario != null) {
+                    voluntarios.add(voluntario);
+                } else {
+                    log.warn("Voluntário id={} presente no índice de disponibilidade não foi encontrado no banco", id);
+                }
+            }
+            selecionadosPorData.put(data, voluntarios);
+        });
+        return selecionadosPorData;
+    }
+
+    private void registraCandidatos(int candidatos) {
+        candidatosPorDia.record(candidatos);
+        if (candidatos < AlocacaoStrategy.MIN_VOLUNTARIOS_POR_DIA) {
+            diasComPoucosVoluntarios.increment();
+        }
+    }
+
+    private List<EscalaDia> criaDiasComVoluntariosDisponiveis(Escala escala) {
         // compatibilidade: se não houver dias preenchidos, seleciona voluntários por data (4..8) baseado nas disponibilidades
         List<EscalaDia> diasGerados = new ArrayList<>();
         if (escala.getDatas() == null || escala.getDatas().isEmpty()) {
             throw new InvalidVoluntarioDataException("A escala deve conter pelo menos uma data.");
         }
+        Map<LocalDate, List<Voluntario>> selecionadosPorData = selecionaVoluntariosDisponiveis(escala.getDatas());
         for (LocalDate data : escala.getDatas()) {
-            List<Voluntario> candidatos = new ArrayList<>(voluntarioRepository.findVoluntariosByData(data).orElse(Collections.emptyList()));
-            if (candidatos.isEmpty() || candidatos.size() < 4) {
-                log.warn("Dia gerado com poucos voluntários disponíveis para serem escalados | dia ={} ", data, new InvalidVoluntarioDataException("Menos de 4 voluntários disponíveis para a data: " + data));
-            }
-            Collections.shuffle(candidatos);
-            int seleciona = Math.min(8, candidatos.size());
-            List<Voluntario> selecionados = new ArrayList<>(candidatos.subList(0, seleciona));
-
             EscalaDia dia = new EscalaDia();
             dia.setData(data);
-            dia.setVoluntarios(selecionados);
+            dia.setVoluntarios(selecionadosPorData.get(data));
             diasGerados.add(dia);
         }
-        diasGerados.forEach(d -> d.setEscala(escala));
-        // ao invés de substituir a coleção gerenciada pelo JPA, muta a instância existente para evitar problemas com orphanRemoval
-        if (escala.getDias() == null) {
-            escala.setDias(new ArrayList<>());
-        } else {
-            escala.getDias().clear();
-        }
-        escala.getDias().addAll(diasGerados);
+        return diasGerados;
     }
 }
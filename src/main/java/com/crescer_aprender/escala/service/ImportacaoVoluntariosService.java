@@ -0,0 +1,367 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.ImportacaoErro;
+import com.crescer_aprender.escala.dto.ImportacaoResultado;
+import com.crescer_aprender.escala.dto.VoluntarioImportacaoLinha;
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.exception.ConstantExceptionUtil;
+import com.crescer_aprender.escala.exception.InvalidImportacaoException;
+import com.crescer_aprender.escala.repository.VoluntarioJdbcRepository;
+import com.crescer_aprender.escala.security.CodificadorDeSenhas;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Importação de voluntários (com usuário) a partir de um CSV ou de um array JSON, lidos em stream e processados em
+ * lotes de TAMANHO_DO_LOTE linhas: uma consulta de emails já cadastrados por lote (antes do hash, para não gastar
+ * BCrypt com quem será recusado), hash das senhas em paralelo no pool de senhas e um INSERT por tabela por lote,
+ * cada lote na sua transação. Linhas inválidas não interrompem a importação: são devolvidas em erros com o motivo.
+ */
+@Slf4j
+@Service
+public class ImportacaoVoluntariosService {
+
+    static final int TAMANHO_DO_LOTE = 500;
+    static final String CABECALHO_CSV = "nome,email,senha,role,datas_disponiveis";
+    private static final String SEPARADOR_DE_DATAS = ";";
+
+    private final VoluntarioJdbcRepository repository;
+    private final CodificadorDeSenhas codificadorDeSenhas;
+    private final IndiceDisponibilidade indiceDisponibilidade;
+    private final TransactionOperations transacao;
+    private final ObjectMapper objectMapper;
+    private final int senhasEmAndamento;
+
+    public ImportacaoVoluntariosService(VoluntarioJdbcRepository repository, CodificadorDeSenhas codificadorDeSenhas,
+                                        IndiceDisponibilidade indiceDisponibilidade, TransactionOperations transacao,
+                                        ObjectMapper objectMapper,
+                                        @Value("${escala.importacao.senhas-em-andamento:4}") int senhasEmAndamento) {
+        this.repository = repository;
+        this.codificadorDeSenhas = codificadorDeSenhas;
+        this.indiceDisponibilidade = indiceDisponibilidade;
+        this.transacao = transacao;
+        this.objectMapper = objectMapper;
+        this.senhasEmAndamento = senhasEmAndamento;
+    }
+
+    // CSV com cabeçalho (colunas em qualquer ordem; nome, email e senha obrigatórias) e datas separadas por ';'
+    public ImportacaoResultado importaCsv(InputStream entrada) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        String cabecalho = reader.readLine();
+        if (cabecalho == null) {
+            throw new InvalidImportacaoException("Arquivo vazio: esperado o cabeçalho " + CABECALHO_CSV);
+        }
+        Map<String, Integer> colunas = new HashMap<>();
+        List<String> nomes = campos(cabecalho.replace("\uFEFF", ""));
+        for (int i = 0; i < nomes.size(); i++) {
+            colunas.put(nomes.get(i).trim().toLowerCase(), i);
+        }
+        for (String obrigatoria : List.of("nome", "email", "senha")) {
+            if (!colunas.containsKey(obrigatoria)) {
+                throw new InvalidImportacaoException("Coluna obrigatória ausente no cabeçalho: " + obrigatoria + " (esperado " + CABECALHO_CSV + ")");
+            }
+        }
+        return importa(new LinhasCsv(reader, colunas));
+    }
+
+    // array JSON de objetos {nome, email, senha, role, datasDisponiveis}, lido um elemento por vez
+    public ImportacaoResultado importaJson(InputStream entrada) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(entrada);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new InvalidImportacaoException("O JSON deve ser um array de voluntários");
+        }
+        return importa(new ElementosJson(parser));
+    }
+
+    private ImportacaoResultado importa(Iterator<Registro> registros) {
+        long inicio = System.nanoTime();
+        ImportacaoResultado resultado = ImportacaoResultado.builder().erros(new ArrayList<>()).build();
+        Set<String> emailsDoArquivo = new HashSet<>();
+        List<Registro> lote = new ArrayList<>(TAMANHO_DO_LOTE);
+        try {
+            while (registros.hasNext()) {
+                lote.add(registros.next());
+                if (lote.size() == TAMANHO_DO_LOTE) {
+                    processaLote(lote, emailsDoArquivo, resultado);
+                    lote.clear();
+                }
+            }
+        } catch (UncheckedIOException e) {
+            // arquivo malformado: os lotes anteriores já foram gravados e continuam no resultado
+            log.warn("Importação interrompida: {}", e.getCause().getMessage());
+            resultado.setErrorMessage("Importação interrompida após " + (resultado.getLidas() + lote.size()) + " linhas: " + e.getCause().getMessage());
+        }
+        processaLote(lote, emailsDoArquivo, resultado);
+        resultado.getErros().sort(Comparator.comparingLong(ImportacaoErro::linha));
+        log.info("Importação de voluntários finalizada | lidas={} importados={} erros={} tempo={}ms", resultado.getLidas(),
+                resultado.getImportados(), resultado.getErros().size(), (System.nanoTime() - inicio) / 1_000_000);
+        return resultado;
+    }
+
+    private void processaLote(List<Registro> lote, Set<String> emailsDoArquivo, ImportacaoResultado resultado) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        resultado.setLidas(resultado.getLidas() + lote.size());
+        Map<String, Long> linhaPorEmail = new HashMap<>();
+        List<Voluntario> validos = new ArrayList<>();
+        for (Registro registro : lote) {
+            String email = registro.dados() == null ? null : registro.dados().email();
+            String erro = registro.erro();
+            Voluntario voluntario = null;
+            if (erro == null) {
+                try {
+                    voluntario = converte(registro.dados());
+                    // o email sem espaços, como será gravado, é a chave da repetição, da consulta e das linhas
+                    email = voluntario.getUsuario().getEmail();
+                } catch (IllegalArgumentException e) {
+                    erro = e.getMessage();
+                }
+            }
+            if (erro == null && !emailsDoArquivo.add(email)) {
+                erro = ConstantExceptionUtil.EMAIL_REPETIDO_NA_IMPORTACAO.formatted(email);
+            }
+            if (erro != null) {
+                resultado.getErros().add(new ImportacaoErro(registro.linha(), email, erro));
+                continue;
+            }
+            linhaPorEmail.put(email, registro.linha());
+            validos.add(voluntario);
+        }
+
+        Set<String> cadastrados = repository.emailsCadastrados(linhaPorEmail.keySet());
+        validos.removeIf(v -> recusaEmailCadastrado(v, cadastrados.contains(v.getUsuario().getEmail()), linhaPorEmail, resultado));
+        if (validos.isEmpty()) {
+            return;
+        }
+
+        List<String> hashes = codificadorDeSenhas.encodeTodas(validos.stream().map(v -> v.getUsuario().getSenha()).toList(), senhasEmAndamento);
+        for (int i = 0; i < validos.size(); i++) {
+            validos.get(i).getUsuario().setSenha(hashes.get(i));
+        }
+
+        List<Voluntario> gravados = transacao.execute(status -> grava(validos, linhaPorEmail, resultado));
+        resultado.setImportados(resultado.getImportados() + gravados.size());
+        log.debug("Lote importado | linhas={} gravados={}", lote.size(), gravados.size());
+    }
+
+    private List<Voluntario> grava(List<Voluntario> voluntarios, Map<String, Long> linhaPorEmail, ImportacaoResultado resultado) {
+        Map<String, Long> usuarios = repository.insereUsuarios(voluntarios.stream().map(Voluntario::getUsuario).toList());
+        // email gravado por outra requisição entre a consulta e o INSERT
+        List<Voluntario> gravados = new ArrayList<>(voluntarios);
+        gravados.removeIf(v -> recusaEmailCadastrado(v, !usuarios.containsKey(v.getUsuario().getEmail()), linhaPorEmail, resultado));
+        gravados.forEach(v -> v.getUsuario().setId(usuarios.get(v.getUsuario().getEmail())));
+
+        Map<Long, Long> ids = repository.insereVoluntarios(gravados);
+        gravados.forEach(v -> v.setId(ids.get(v.getUsuario().getId())));
+        repository.insereDatasDisponiveis(gravados);
+        gravados.forEach(v -> indiceDisponibilidade.atualiza(v.getId(), v.getDatasDisponiveis()));
+        return gravados;
+    }
+
+    private static boolean recusaEmailCadastrado(Voluntario voluntario, boolean cadastrado, Map<String, Long> linhaPorEmail, ImportacaoResultado resultado) {
+        if (cadastrado) {
+            String email = voluntario.getUsuario().getEmail();
+            resultado.getErros().add(new ImportacaoErro(linhaPorEmail.get(email), email, ConstantExceptionUtil.EMAIL_ALREADY_EXISTS.formatted(email)));
+        }
+        return cadastrado;
+    }
+
+    // mesmas regras do cadastro individual (VoluntarioService.save); IllegalArgumentException com o motivo da recusa
+    static Voluntario converte(VoluntarioImportacaoLinha linha) {
+        if (linha.nome() == null || linha.nome().isBlank()) {
+            throw new IllegalArgumentException(ConstantExceptionUtil.INVALID_VOLUNTARIO_NAME);
+        }
+        if (linha.email() == null || !linha.email().contains("@")) {
+            throw new IllegalArgumentException(ConstantExceptionUtil.INVALID_VOLUNTARIO_EMAIL);
+        }
+        if (linha.senha() == null || linha.senha().isEmpty()) {
+            throw new IllegalArgumentException(ConstantExceptionUtil.INVALID_USUARIO_SENHA);
+        }
+        PerfisUsuariosEnum role = PerfisUsuariosEnum.VOLUNTARIO;
+        if (linha.role() != null && !linha.role().isBlank()) {
+            try {
+                role = PerfisUsuariosEnum.valueOf(linha.role().trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(ConstantExceptionUtil.INVALID_USUARIO_ROLE.formatted(linha.role()));
+            }
+        }
+        Set<LocalDate> datas = new HashSet<>();
+        if (linha.datasDisponiveis() != null) {
+            for (String data : linha.datasDisponiveis()) {
+                if (data == null || data.isBlank()) {
+                    continue;
+                }
+                try {
+                    datas.add(LocalDate.parse(data.trim()));
+                } catch (DateTimeParseException e) {
+                    throw new IllegalArgumentException(ConstantExceptionUtil.INVALID_DATA.formatted(data));
+                }
+            }
+        }
+        Usuario usuario = Usuario.builder().email(linha.email().trim()).senha(linha.senha()).role(role).build();
+        return Voluntario.builder().nome(linha.nome().trim()).usuario(usuario).datasDisponiveis(datas).build();
+    }
+
+    // campos de uma linha CSV (RFC 4180, sem quebra de linha dentro de campo)
+    static List<String> campos(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ',') {
+                campos.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString());
+        return campos;
+    }
+
+    // linha lida do arquivo: os dados ou, se nem deu para ler os campos, o erro
+    private record Registro(long linha, VoluntarioImportacaoLinha dados, String erro) {
+    }
+
+    private static class LinhasCsv implements Iterator<Registro> {
+        private final BufferedReader reader;
+        private final Map<String, Integer> colunas;
+        private long numero = 1;
+        private String proxima;
+
+        LinhasCsv(BufferedReader reader, Map<String, Integer> colunas) {
+            this.reader = reader;
+            this.colunas = colunas;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (proxima == null) {
+                    String linha = reader.readLine();
+                    if (linha == null) {
+                        return false;
+                    }
+                    numero++;
+                    if (!linha.isBlank()) {
+                        proxima = linha;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Registro next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            List<String> valores = campos(proxima);
+            proxima = null;
+            if (valores.size() != colunas.size()) {
+                return new Registro(numero, null, "Esperadas " + colunas.size() + " colunas, encontradas " + valores.size() + ".");
+            }
+            String datas = valor(valores, "datas_disponiveis");
+            return new Registro(numero, new VoluntarioImportacaoLinha(valor(valores, "nome"), valor(valores, "email"),
+                    valor(valores, "senha"), valor(valores, "role"),
+                    datas == null ? List.of() : Arrays.asList(datas.split(SEPARADOR_DE_DATAS))), null);
+        }
+
+        private String valor(List<String> valores, String coluna) {
+            Integer indice = colunas.get(coluna);
+            return indice == null ? null : valores.get(indice);
+        }
+    }
+
+    private class ElementosJson implements Iterator<Registro> {
+        private final JsonParser parser;
+        private long numero;
+        private JsonToken token;
+
+        ElementosJson(JsonParser parser) {
+            this.parser = parser;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                if (token == null) {
+                    token = parser.nextToken();
+                }
+                if (token == null) {
+                    throw new IOException("array JSON não terminado");
+                }
+                return token != JsonToken.END_ARRAY;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Registro next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            token = null;
+            numero++;
+            // só um JSON ilegível interrompe a importação; um elemento com campos do tipo errado vira erro da linha
+            JsonNode elemento;
+            try {
+                elemento = objectMapper.readTree(parser);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!elemento.isObject()) {
+                return new Registro(numero, null, "Elemento inválido: esperado um objeto, encontrado " + elemento.getNodeType() + ".");
+            }
+            try {
+                return new Registro(numero, objectMapper.treeToValue(elemento, VoluntarioImportacaoLinha.class), null);
+            } catch (JsonProcessingException e) {
+                return new Registro(numero, null, "Elemento inválido: " + e.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.VoluntarioDataDisponivel;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória data -> voluntários disponíveis, usado na geração das escalas.
+ * Cada data guarda um BitSet indexado pelo id do voluntário. O índice é carregado de
+ * voluntario_datas_disponiveis no primeiro uso e mantido pelo VoluntarioService (save/update/delete) e pela
+ * alteração de disponibilidade em lote, sempre após o commit da transação que alterou a disponibilidade.
+ */
+@Slf4j
+@Component
+public class IndiceDisponibilidade {
+
+    private final VoluntarioRepository voluntarioRepository;
+    private final Map<LocalDate, BitSet> voluntariosPorData = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean carregado;
+
+    public IndiceDisponibilidade(VoluntarioRepository voluntarioRepository) {
+        this.voluntarioRepository = voluntarioRepository;
+    }
+
+    public List<Long> voluntariosDisponiveis(LocalDate data) {
+        garanteCarregado();
+        lock.readLock().lock();
+        try {
+            BitSet voluntarios = voluntariosPorData.get(data);
+            if (voluntarios == null) {
+                return Collections.emptyList();
+            }
+            List<Long> ids = new ArrayList<>(voluntarios.cardinality());
+            for (int id = voluntarios.nextSetBit(0); id >= 0; id = voluntarios.nextSetBit(id + 1)) {
+                ids.add((long) id);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<LocalDate, List<Long>> voluntariosDisponiveis(Collection<LocalDate> datas) {
+        Map<LocalDate, List<Long>> porData = new LinkedHashMap<>();
+        for (LocalDate data : datas) {
+            porData.put(data, voluntariosDisponiveis(data));
+        }
+        return porData;
+    }
+
+    public boolean isCarregado() {
+        return carregado;
+    }
+
+    // quantidade de voluntários por data no intervalo (inclusive), só das datas com alguém disponível; para as métricas,
+    // não força a carga do índice: antes dela devolve vazio
+    public Map<LocalDate, Integer> quantidadePorData(LocalDate inicio, LocalDate fim) {
+        if (!carregado) {
+            return Collections.emptyMap();
+        }
+        lock.readLock().lock();
+        try {
+            Map<LocalDate, Integer> quantidades = new TreeMap<>();
+            voluntariosPorData.forEach((data, voluntarios) -> {
+                if (!data.isBefore(inicio) && !data.isAfter(fim)) {
+                    quantidades.put(data, voluntarios.cardinality());
+                }
+            });
+            return quantidades;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // substitui as datas do voluntário no índice (após o commit, se houver transação ativa)
+    public void atualiza(Long voluntarioId, Collection<LocalDate> datas) {
+        if (voluntarioId == null) {
+            return;
+        }
+        Set<LocalDate> novasDatas = new HashSet<>();
+        if (datas != null) {
+            datas.stream().filter(Objects::nonNull).forEach(novasDatas::add);
+        }
+        aposCommit(() -> aplica(voluntarioId, novasDatas));
+    }
+
+    // inclui e remove só as datas informadas, sem conhecer as demais datas do voluntário (alteração em lote)
+    public void altera(Long voluntarioId, Collection<LocalDate> incluir, Collection<LocalDate> remover) {
+        if (voluntarioId == null) {
+            return;
+        }
+        Set<LocalDate> incluidas = new HashSet<>();
+        if (incluir != null) {
+            incluir.stream().filter(Objects::nonNull).forEach(incluidas::add);
+        }
+        Set<LocalDate> removidas = new HashSet<>();
+        if (remover != null) {
+            remover.stream().filter(Objects::nonNull).filter(d -> !incluidas.contains(d)).forEach(removidas::add);
+        }
+        aposCommit(() -> aplicaAlteracao(voluntarioId, incluidas, removidas));
+    }
+
+    public void remove(Long voluntarioId) {
+        if (voluntarioId == null) {
+            return;
+        }
+        aposCommit(() -> aplica(voluntarioId, Collections.emptySet()));
+    }
+
+    public void recarrega() {
+        lock.writeLock().lock();
+        try {
+            List<VoluntarioDataDisponivel> disponibilidades = voluntarioRepository.findAllDisponibilidades();
+            voluntariosPorData.clear();
+            for (VoluntarioDataDisponivel disponibilidade : disponibilidades) {
+                if (disponibilidade.data() == null) continue;
+                voluntariosPorData.computeIfAbsent(disponibilidade.data(), d -> new BitSet())
+                        .set(Math.toIntExact(disponibilidade.voluntarioId()));
+            }
+            carregado = true;
+            log.info("Índice de disponibilidade carregado | datas={} registros={}", voluntariosPorData.size(), disponibilidades.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void garanteCarregado() {
+        if (!carregado) {
+            lock.writeLock().lock();
+            try {
+                if (!carregado) {
+                    recarrega();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void aplica(Long voluntarioId, Set<LocalDate> datas) {
+        lock.writeLock().lock();
+        try {
+            // enquanto não carregado não há o que manter: a carga lerá o estado já commitado
+            if (!carregado) {
+                return;
+            }
+            int bit = Math.toIntExact(voluntarioId);
+            Iterator<Map.Entry<LocalDate, BitSet>> it = voluntariosPorData.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<LocalDate, BitSet> entry = it.next();
+                if (!datas.contains(entry.getKey())) {
+                    entry.getValue().clear(bit);
+                    if (entry.getValue().isEmpty()) it.remove();
+                }
+            }
+            for (LocalDate data : datas) {
+                voluntariosPorData.computeIfAbsent(data, d -> new BitSet()).set(bit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void aplicaAlteracao(Long voluntarioId, Set<LocalDate> incluidas, Set<LocalDate> removidas) {
+        lock.writeLock().lock();
+        try {
+            if (!carregado) {
+                return;
+            }
+            int bit = Math.toIntExact(voluntarioId);
+            for (LocalDate data : removidas) {
+                BitSet voluntarios = voluntariosPorData.get(data);
+                if (voluntarios != null) {
+                    voluntarios.clear(bit);
+                    if (voluntarios.isEmpty()) voluntariosPorData.remove(data);
+                }
+            }
+            for (LocalDate data : incluidas) {
+                voluntariosPorData.computeIfAbsent(data, d -> new BitSet()).set(bit);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void aposCommit(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
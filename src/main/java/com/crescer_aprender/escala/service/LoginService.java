@@ -0,0 +1,53 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Autenticação do login com uma única consulta: o Voluntario vem com usuario e datasDisponiveis (fetch join) e serve
+ * tanto para conferir a senha quanto para montar a AuthResponse. Antes o AuthenticationManager buscava o Usuario e o
+ * controller buscava o Voluntario e, depois, as datas disponíveis (três idas ao banco).
+ */
+@Slf4j
+@Service
+public class LoginService {
+
+    private static final String SENHA_FICTICIA = "senha-de-usuario-inexistente";
+
+    private final VoluntarioRepository repository;
+    private final PasswordEncoder passwordEncoder;
+    private volatile String hashFicticio;
+
+    public LoginService(VoluntarioRepository repository, PasswordEncoder passwordEncoder) {
+        this.repository = repository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    public Voluntario autentica(String email, String senha) {
+        Optional<Voluntario> voluntario = email == null ? Optional.empty() : repository.findParaLoginByEmail(email);
+        if (voluntario.isEmpty()) {
+            // confere contra um hash qualquer para o tempo de resposta não revelar se o email existe
+            passwordEncoder.matches(senha == null ? "" : senha, hashFicticio());
+            log.debug("Login com email não cadastrado email={}", email);
+            throw new BadCredentialsException("Credenciais inválidas");
+        }
+        if (senha == null || !passwordEncoder.matches(senha, voluntario.get().getUsuario().getSenha())) {
+            log.debug("Login com senha incorreta email={}", email);
+            throw new BadCredentialsException("Credenciais inválidas");
+        }
+        return voluntario.get();
+    }
+
+    private String hashFicticio() {
+        if (hashFicticio == null) {
+            hashFicticio = passwordEncoder.encode(SENHA_FICTICIA);
+        }
+        return hashFicticio;
+    }
+}
@@ -0,0 +1,81 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.crescer_aprender.escala.service.alocacao.AlocacaoStrategy;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Gauges por data, de hoje até a janela configurada: as datas em que alguém declarou disponibilidade (do
+ * IndiceDisponibilidade, em memória) e as datas das escalas cadastradas (uma consulta por atualização), que aparecem
+ * com zero disponíveis mesmo sem ninguém disponível nelas.
+ * escala.disponibilidade.voluntarios (voluntários disponíveis) e escala.disponibilidade.faltantes (quantos faltam para o
+ * mínimo de AlocacaoStrategy.MIN_VOLUNTARIOS_POR_DIA; só as datas abaixo do mínimo aparecem). Recalculados em intervalo
+ * fixo: as datas que saem da janela ou deixam de faltar voluntários somem da série. Enquanto o índice não foi carregado
+ * não há o que medir, e o banco não é consultado.
+ */
+@Slf4j
+@Component
+public class MetricasDisponibilidade {
+
+    private final IndiceDisponibilidade indiceDisponibilidade;
+    private final EscalaRepository escalaRepository;
+    private final int janelaDias;
+    private final Clock clock;
+    private final MultiGauge disponiveis;
+    private final MultiGauge faltantes;
+
+    @Autowired
+    public MetricasDisponibilidade(IndiceDisponibilidade indiceDisponibilidade, EscalaRepository escalaRepository, MeterRegistry registry,
+                                   @Value("${escala.metricas.disponibilidade.janela-dias:90}") int janelaDias) {
+        this(indiceDisponibilidade, escalaRepository, registry, janelaDias, Clock.systemDefaultZone());
+    }
+
+    MetricasDisponibilidade(IndiceDisponibilidade indiceDisponibilidade, EscalaRepository escalaRepository, MeterRegistry registry,
+                            int janelaDias, Clock clock) {
+        this.indiceDisponibilidade = indiceDisponibilidade;
+        this.escalaRepository = escalaRepository;
+        this.janelaDias = janelaDias;
+        this.clock = clock;
+        this.disponiveis = MultiGauge.builder("escala.disponibilidade.voluntarios")
+                .description("Voluntários disponíveis na data").register(registry);
+        this.faltantes = MultiGauge.builder("escala.disponibilidade.faltantes")
+                .description("Voluntários que faltam na data para o mínimo por dia").register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${escala.metricas.disponibilidade.intervalo:1m}")
+    public void atualiza() {
+        LocalDate hoje = LocalDate.now(clock);
+        Map<LocalDate, Integer> quantidades = new TreeMap<>();
+        if (indiceDisponibilidade.isCarregado()) {
+            quantidades.putAll(indiceDisponibilidade.quantidadePorData(hoje, hoje.plusDays(janelaDias)));
+            // datas de escala sem ninguém disponível não estão no índice
+            escalaRepository.findDatasEntre(hoje, hoje.plusDays(janelaDias)).forEach(data -> quantidades.putIfAbsent(data, 0));
+        }
+        List<MultiGauge.Row<?>> linhasDisponiveis = new ArrayList<>(quantidades.size());
+        List<MultiGauge.Row<?>> linhasFaltantes = new ArrayList<>();
+        quantidades.forEach((data, quantidade) -> {
+            Tags tags = Tags.of("data", data.toString());
+            linhasDisponiveis.add(MultiGauge.Row.of(tags, quantidade));
+            if (quantidade < AlocacaoStrategy.MIN_VOLUNTARIOS_POR_DIA) {
+                linhasFaltantes.add(MultiGauge.Row.of(tags, AlocacaoStrategy.MIN_VOLUNTARIOS_POR_DIA - quantidade));
+            }
+        });
+        disponiveis.register(linhasDisponiveis, true);
+        faltantes.register(linhasFaltantes, true);
+        log.debug("Métricas de disponibilidade atualizadas | datas={} abaixoDoMinimo={}", linhasDisponiveis.size(), linhasFaltantes.size());
+    }
+}
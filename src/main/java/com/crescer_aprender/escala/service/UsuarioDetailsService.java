@@ -3,20 +3,70 @@ package com.crescer_aprender.escala.service;
 import com.crescer_aprender.escala.entity.Usuario;
 import com.crescer_aprender.escala.exception.UserEmailNotFoundException;
 import com.crescer_aprender.escala.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+
+/**
+ * Carrega o UserDetails pelo email. Chamado pelo JwtAuthenticationFilter em toda requisição autenticada, por isso os
+ * usuários ficam em um cache limitado por tamanho e por tempo; UsuarioService e VoluntarioService invalidam a entrada
+ * quando criam ou alteram um usuário (inclusive o perfil). Acertos, faltas e remoções do cache ficam nas métricas
+ * {@code cache.*} com a tag {@code cache=usuarios}.
+ */
+@Slf4j
 @Service
 public class UsuarioDetailsService implements UserDetailsService {
 
     private final UsuarioRepository usuarioRepository;
+    private final Cache<String, UserDetails> usuariosPorEmail;
 
-    public UsuarioDetailsService(UsuarioRepository usuarioRepository) {
+    public UsuarioDetailsService(UsuarioRepository usuarioRepository,
+                                 @Value("${escala.seguranca.cache-usuarios.tamanho-maximo:10000}") long tamanhoMaximo,
+                                 @Value("${escala.seguranca.cache-usuarios.expiracao:5m}") Duration expiracao,
+                                 MeterRegistry registry) {
         this.usuarioRepository = usuarioRepository;
+        this.usuariosPorEmail = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, usuariosPorEmail, "usuarios");
     }
 
+    // devolve sempre uma cópia: o AuthenticationManager apaga a senha do UserDetails depois do login (eraseCredentials)
     @Override
     public UserDetails loadUserByUsername(String email) throws UserEmailNotFoundException {
+        UserDetails userDetails = usuariosPorEmail.get(email, this::carrega);
+        return User.withUserDetails(userDetails).build();
+    }
+
+    // remove o usuário do cache agora e de novo após o commit, para uma leitura concorrente não guardar o estado antigo
+    public void invalida(String email) {
+        if (email == null) {
+            return;
+        }
+        usuariosPorEmail.invalidate(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    usuariosPorEmail.invalidate(email);
+                }
+            });
+        }
+    }
+
+    private UserDetails carrega(String email) {
+        log.debug("Usuário fora do cache, buscando no banco email={}", email);
         Usuario usuario = usuarioRepository.findByEmail(email)
                 .orElseThrow(() -> new UserEmailNotFoundException(email));
         return org.springframework.security.core.userdetails.User
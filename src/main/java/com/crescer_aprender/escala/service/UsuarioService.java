@@ -19,11 +19,13 @@ public class UsuarioService {
 
     private final UsuarioRepository repository;
     private final PasswordEncoder passwordEncoder;
+    private final UsuarioDetailsService usuarioDetailsService;
 
     @Autowired
-    public UsuarioService(UsuarioRepository repository, PasswordEncoder passwordEncoder) {
+    public UsuarioService(UsuarioRepository repository, PasswordEncoder passwordEncoder, UsuarioDetailsService usuarioDetailsService) {
         this.repository = repository;
         this.passwordEncoder = passwordEncoder;
+        this.usuarioDetailsService = usuarioDetailsService;
     }
 
     public Usuario save(Usuario usuario) {
@@ -40,6 +42,7 @@ public class UsuarioService {
             usuario.setSenha(passwordEncoder.encode(usuario.getSenha()));
         }
         Usuario saved = repository.save(usuario);
+        usuarioDetailsService.invalida(saved.getEmail());
         log.info("Usuário salvo com sucesso id={}", saved.getId());
         return saved;
     }
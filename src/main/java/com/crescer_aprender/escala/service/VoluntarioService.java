@@ -1,22 +1,30 @@
 package com.crescer_aprender.escala.service;
 
-import com.crescer_aprender.escala.entity.Escala;
-import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Usuario;
 import com.crescer_aprender.escala.entity.Voluntario;
 import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
 import com.crescer_aprender.escala.exception.*;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
 import com.crescer_aprender.escala.repository.EscalaRepository;
 import com.crescer_aprender.escala.repository.UsuarioRepository;
 import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import com.crescer_aprender.escala.security.RevogacaoTokens;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -26,18 +34,32 @@ public class VoluntarioService {
 
     private final VoluntarioRepository repository;
     private final EscalaRepository escalaRepository;
+    private final EscalaDiaJdbcRepository escalaDiaJdbcRepository;
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final IndiceDisponibilidade indiceDisponibilidade;
+    private final UsuarioDetailsService usuarioDetailsService;
+    private final RevogacaoTokens revogacaoTokens;
+    private final TransactionOperations transacao;
+    private final Timer tempoAtualizacao;
 
     @Autowired
-    public VoluntarioService(VoluntarioRepository repository, EscalaRepository escalaRepository, UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder) {
+    public VoluntarioService(VoluntarioRepository repository, EscalaRepository escalaRepository, EscalaDiaJdbcRepository escalaDiaJdbcRepository, UsuarioRepository usuarioRepository, PasswordEncoder passwordEncoder,
+                             IndiceDisponibilidade indiceDisponibilidade, UsuarioDetailsService usuarioDetailsService, RevogacaoTokens revogacaoTokens,
+                             TransactionOperations transacao, MeterRegistry registry) {
         this.repository = repository;
         this.escalaRepository = escalaRepository;
+        this.escalaDiaJdbcRepository = escalaDiaJdbcRepository;
         this.usuarioRepository = usuarioRepository;
         this.passwordEncoder = passwordEncoder;
+        this.indiceDisponibilidade = indiceDisponibilidade;
+        this.usuarioDetailsService = usuarioDetailsService;
+        this.revogacaoTokens = revogacaoTokens;
+        this.transacao = transacao;
+        this.tempoAtualizacao = Timer.builder("escala.voluntarios.atualizacao").publishPercentileHistogram().register(registry);
     }
 
-    @Transactional
+    // o hash da senha (BCrypt, no pool de senhas) é feito antes de abrir a transação: nenhuma conexão fica presa esperando a CPU
     public Voluntario save(Voluntario voluntario) {
         log.info("Iniciando salvamento de voluntário nome={}", voluntario.getNome());
         if (voluntario.getNome() == null || voluntario.getNome().isEmpty()) {
@@ -45,17 +67,12 @@ public class VoluntarioService {
             throw new InvalidVoluntarioDataException(ConstantExceptionUtil.INVALID_VOLUNTARIO_NAME);
         }
 
-        // Se houver um Usuário aninhado, valide e persista primeiro
         if (voluntario.getUsuario() != null) {
             log.debug("Voluntário contém usuário aninhado email={}", voluntario.getUsuario().getEmail());
             if (voluntario.getUsuario().getEmail() == null || !voluntario.getUsuario().getEmail().contains("@")) {
                 log.warn("Email inválido fornecido para usuário do voluntário: {}", voluntario.getUsuario().getEmail());
                 throw new InvalidVoluntarioDataException(ConstantExceptionUtil.INVALID_VOLUNTARIO_EMAIL);
             }
-            if (usuarioRepository.findByEmail(voluntario.getUsuario().getEmail()).isPresent()) {
-                log.warn("Email já existente no banco: {}", voluntario.getUsuario().getEmail());
-                throw new EmailAlreadyExistsException(voluntario.getUsuario().getEmail());
-            }
             if (voluntario.getUsuario().getRole() == null) {
                 voluntario.getUsuario().setRole(PerfisUsuariosEnum.VOLUNTARIO);
             }
@@ -63,9 +80,29 @@ public class VoluntarioService {
                 log.debug("Codificando senha para o usuário do voluntário");
                 voluntario.getUsuario().setSenha(passwordEncoder.encode(voluntario.getUsuario().getSenha()));
             }
+        }
+
+        if (voluntario.getDatasDisponiveis() != null) {
+            voluntario.setDatasDisponiveis(new HashSet<>(voluntario.getDatasDisponiveis()));
+            voluntario.getDatasDisponiveis().remove(null);
+        }
+
+        Voluntario saved = transacao.execute(status -> persiste(voluntario));
+        log.info("Voluntário salvo com sucesso id={}", saved.getId());
+        return saved;
+    }
+
+    private Voluntario persiste(Voluntario voluntario) {
+        // Se houver um Usuário aninhado, persista primeiro
+        if (voluntario.getUsuario() != null) {
+            if (usuarioRepository.findByEmail(voluntario.getUsuario().getEmail()).isPresent()) {
+                log.warn("Email já existente no banco: {}", voluntario.getUsuario().getEmail());
+                throw new EmailAlreadyExistsException(voluntario.getUsuario().getEmail());
+            }
             // salve o usuário primeiro para garantir que ele tenha um id (nenhuma cascata configurada)
             try {
                 usuarioRepository.save(voluntario.getUsuario());
+                usuarioDetailsService.invalida(voluntario.getUsuario().getEmail());
                 log.info("Usuário do voluntário salvo email={}", voluntario.getUsuario().getEmail());
             } catch (DataIntegrityViolationException dive) {
                 // Em caso de condição de corrida ou violação de restrição de banco de dados, traduzir para exceção de domínio
@@ -75,7 +112,7 @@ public class VoluntarioService {
         }
 
         Voluntario saved = repository.save(voluntario);
-        log.info("Voluntário salvo com sucesso id={}", saved.getId());
+        indiceDisponibilidade.atualiza(saved.getId(), saved.getDatasDisponiveis());
         return saved;
     }
 
@@ -85,45 +122,55 @@ public class VoluntarioService {
         return Optional.of(repository.findAll());
     }
 
+    @Transactional
     public Voluntario update(Long id, Voluntario voluntario) {
+        return tempoAtualizacao.record(() -> atualiza(id, voluntario));
+    }
+
+    private Voluntario atualiza(Long id, Voluntario voluntario) {
         Voluntario oldVoluntario = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Voluntário", id));
 
         Optional.ofNullable(voluntario.getNome()).ifPresent(oldVoluntario::setNome);
         Optional.ofNullable(voluntario.getDatasDisponiveis()).ifPresent(dates -> mergeDatasDisponiveis(oldVoluntario, dates));
 
-        Optional<List<Escala>> escalasDoVoluntario = escalaRepository.findByVoluntario(oldVoluntario);
-
-        if(escalasDoVoluntario.isPresent()){
-            for (Escala escala : escalasDoVoluntario.get()) {
-                // Para cada dia da escala, remover o voluntário do dia caso ele não esteja disponível para aquela data
-                boolean modified = false;
-                if (escala.getDias() != null) {
-                    for (EscalaDia dia : escala.getDias()) {
-                        if (dia.getVoluntarios() != null) {
-                            boolean removed = dia.getVoluntarios().removeIf(v -> v.getId().equals(oldVoluntario.getId()) &&
-                                    !oldVoluntario.getDatasDisponiveis().contains(dia.getData()));
-                            if (removed) modified = true;
-                        }
-                    }
-                }
-                if (modified) {
-                    escalaRepository.save(escala);
-                }
-            }
+        return gravaDatasDisponiveis(oldVoluntario, voluntario.getDatasDisponiveis() != null);
+    }
 
+    // inclui e remove datas sem reenviar a disponibilidade inteira; uma data nas duas listas fica incluída
+    @Transactional
+    public Voluntario alteraDatasDisponiveis(Long id, Collection<LocalDate> incluir, Collection<LocalDate> remover) {
+        Voluntario voluntario = repository.findById(id).orElseThrow(() -> new EntityNotFoundException("Voluntário", id));
+        Set<LocalDate> datas = voluntario.getDatasDisponiveis();
+        boolean removeu = remover != null && datas.removeAll(new HashSet<>(remover));
+        if (incluir != null) {
+            incluir.stream().filter(Objects::nonNull).forEach(datas::add);
         }
-        return repository.save(oldVoluntario);
+        log.info("Alterando datas disponíveis do voluntário id={} incluir={} remover={}", id,
+                incluir == null ? 0 : incluir.size(), remover == null ? 0 : remover.size());
+        return gravaDatasDisponiveis(voluntario, removeu);
+    }
+
+    private Voluntario gravaDatasDisponiveis(Voluntario voluntario, boolean limpaDiasIndisponiveis) {
+        Voluntario saved = repository.saveAndFlush(voluntario);
+        if (limpaDiasIndisponiveis) {
+            // remove o voluntário dos dias de escala em que deixou de estar disponível
+            List<Long> diasAlterados = escalaDiaJdbcRepository.removeVoluntarioDosDiasIndisponiveis(saved.getId());
+            log.info("Voluntário removido de dias em que não está mais disponível id={} dias={}", saved.getId(), diasAlterados);
+        }
+        indiceDisponibilidade.atualiza(saved.getId(), saved.getDatasDisponiveis());
+        return saved;
     }
 
     public Optional<List<Voluntario>> findVoluntariosByData(LocalDate data) {
         return repository.findVoluntariosByData(data);
     }
 
-    private void mergeDatasDisponiveis(Voluntario voluntario, List<LocalDate> novasDatas) {
-        List<LocalDate> datasAtuais = voluntario.getDatasDisponiveis();
-
-        datasAtuais.removeIf(date -> !novasDatas.contains(date));
-        novasDatas.stream().filter(date -> !datasAtuais.contains(date)).forEach(datasAtuais::add);
+    // mantém o mesmo conjunto gerenciado pelo Hibernate: só as datas que entraram ou saíram são gravadas
+    // package-private e estático para o MergeDatasBenchmark (src/jmh)
+    static void mergeDatasDisponiveis(Voluntario voluntario, Set<LocalDate> novasDatas) {
+        Set<LocalDate> datasAtuais = voluntario.getDatasDisponiveis();
+        datasAtuais.retainAll(novasDatas);
+        novasDatas.stream().filter(Objects::nonNull).forEach(datasAtuais::add);
     }
 
     public boolean delete(Long id) {
@@ -133,7 +180,10 @@ public class VoluntarioService {
                 log.warn("Não é possível deletar voluntário id={} pois ele está escalado", id);
                 throw new VoluntarioIsScheduledException();
             }
+            // o token do voluntário carrega o perfil: sem revogar, ele continuaria autenticando até expirar
+            repository.findById(id).map(Voluntario::getUsuario).map(Usuario::getId).ifPresent(revogacaoTokens::revogaUsuario);
             repository.deleteById(id);
+            indiceDisponibilidade.remove(id);
             log.info("Voluntário deletado com sucesso id={}", id);
             return true;
         } else {
@@ -0,0 +1,34 @@
+package com.crescer_aprender.escala.service.alocacao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+
+// comportamento original: embaralha os disponíveis de cada dia e pega os primeiros, sem olhar os outros dias
+@Component
+@ConditionalOnProperty(name = "escala.alocacao.estrategia", havingValue = "aleatoria")
+public class AlocacaoAleatoriaStrategy implements AlocacaoStrategy {
+
+    private final Random random;
+
+    public AlocacaoAleatoriaStrategy() {
+        this(new Random());
+    }
+
+    AlocacaoAleatoriaStrategy(Random random) {
+        this.random = random;
+    }
+
+    @Override
+    public Map<LocalDate, List<Long>> aloca(Map<LocalDate, List<Long>> candidatosPorData) {
+        Map<LocalDate, List<Long>> alocacao = new LinkedHashMap<>();
+        candidatosPorData.forEach((data, candidatos) -> {
+            List<Long> embaralhados = new ArrayList<>(candidatos);
+            Collections.shuffle(embaralhados, random);
+            alocacao.put(data, new ArrayList<>(embaralhados.subList(0, Math.min(MAX_VOLUNTARIOS_POR_DIA, embaralhados.size()))));
+        });
+        return alocacao;
+    }
+}
@@ -0,0 +1,67 @@
+package com.crescer_aprender.escala.service.alocacao;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Distribui os voluntários entre todos os dias do mês pela carga atual: a cada dia são escolhidos
+ * os disponíveis com menos dias já alocados (fila de prioridade por carga, desempate aleatório).
+ * Os dias com menos candidatos são preenchidos primeiro, para que os voluntários de dias escassos
+ * não sejam consumidos antes pelos dias com sobra. Custo O(dias x voluntários x log voluntários).
+ */
+@Component
+@ConditionalOnProperty(name = "escala.alocacao.estrategia", havingValue = "balanceada", matchIfMissing = true)
+public class AlocacaoBalanceadaStrategy implements AlocacaoStrategy {
+
+    private final Random random;
+
+    public AlocacaoBalanceadaStrategy() {
+        this(new Random());
+    }
+
+    AlocacaoBalanceadaStrategy(Random random) {
+        this.random = random;
+    }
+
+    @Override
+    public Map<LocalDate, List<Long>> aloca(Map<LocalDate, List<Long>> candidatosPorData) {
+        List<LocalDate> ordemDePreenchimento = new ArrayList<>(candidatosPorData.keySet());
+        ordemDePreenchimento.sort(Comparator.comparingInt((LocalDate data) -> candidatosPorData.get(data).size())
+                .thenComparing(Comparator.naturalOrder()));
+
+        Map<Long, Integer> cargaPorVoluntario = new HashMap<>();
+        Map<LocalDate, List<Long>> selecionadosPorData = new HashMap<>();
+        for (LocalDate data : ordemDePreenchimento) {
+            List<Long> candidatos = candidatosPorData.get(data);
+            List<Candidato> disponiveis = new ArrayList<>(candidatos.size());
+            for (Long id : new LinkedHashSet<>(candidatos)) {
+                disponiveis.add(new Candidato(id, cargaPorVoluntario.getOrDefault(id, 0), random.nextInt()));
+            }
+            // construída a partir da coleção o heap é montado em O(n); cada retirada custa O(log n)
+            PriorityQueue<Candidato> fila = new PriorityQueue<>(disponiveis);
+            List<Long> selecionados = new ArrayList<>(Math.min(MAX_VOLUNTARIOS_POR_DIA, fila.size()));
+            while (selecionados.size() < MAX_VOLUNTARIOS_POR_DIA && !fila.isEmpty()) {
+                Long id = fila.poll().id();
+                selecionados.add(id);
+                cargaPorVoluntario.merge(id, 1, Integer::sum);
+            }
+            selecionadosPorData.put(data, selecionados);
+        }
+
+        // devolve na mesma ordem das datas recebidas
+        Map<LocalDate, List<Long>> alocacao = new LinkedHashMap<>();
+        candidatosPorData.keySet().forEach(data -> alocacao.put(data, selecionadosPorData.get(data)));
+        return alocacao;
+    }
+
+    private record Candidato(Long id, int carga, int desempate) implements Comparable<Candidato> {
+        @Override
+        public int compareTo(Candidato outro) {
+            int porCarga = Integer.compare(carga, outro.carga);
+            return porCarga != 0 ? porCarga : Integer.compare(desempate, outro.desempate);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.crescer_aprender.escala.service.alocacao;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Estratégia de alocação dos voluntários nos dias de uma escala.
+ * Recebe, para cada data, os ids dos voluntários disponíveis e devolve os ids escolhidos para cada data
+ * (no máximo MAX_VOLUNTARIOS_POR_DIA). A estratégia ativa é escolhida pela propriedade escala.alocacao.estrategia.
+ */
+public interface AlocacaoStrategy {
+
+    int MIN_VOLUNTARIOS_POR_DIA = 4;
+    int MAX_VOLUNTARIOS_POR_DIA = 8;
+
+    Map<LocalDate, List<Long>> aloca(Map<LocalDate, List<Long>> candidatosPorData);
+}
@@ -0,0 +1,13 @@
+-- Flyway migration V10: revogação de tokens JWT (ver RevogacaoTokens).
+-- token_revogado: tokens revogados um a um (logout), pelo jti; a linha pode ser apagada depois que o token expira.
+-- usuario_revogacao: tokens do usuário emitidos até revogado_em deixam de valer (voluntário removido, perfil alterado).
+-- Sem FK para usuario: a revogação precisa continuar valendo depois que o usuário é apagado.
+CREATE TABLE IF NOT EXISTS token_revogado (
+  jti VARCHAR(64) PRIMARY KEY,
+  expira_em TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS usuario_revogacao (
+  usuario_id BIGINT PRIMARY KEY,
+  revogado_em TIMESTAMP WITH TIME ZONE NOT NULL
+);
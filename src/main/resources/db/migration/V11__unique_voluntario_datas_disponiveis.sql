@@ -0,0 +1,15 @@
+-- Migration V11: datas disponíveis passam a ser um conjunto por voluntário
+-- remove datas nulas e repetidas (a List permitia) e garante (voluntario_id, data) único,
+-- o que deixa o Hibernate gravar só as datas alteradas em vez de regravar todas
+
+DELETE FROM voluntario_datas_disponiveis WHERE DATAS_DISPONIVEIS IS NULL;
+
+DELETE FROM voluntario_datas_disponiveis vdd
+ USING (SELECT ctid, row_number() OVER (PARTITION BY voluntario_id, DATAS_DISPONIVEIS ORDER BY ctid) AS ordem
+          FROM voluntario_datas_disponiveis) repetidas
+ WHERE vdd.ctid = repetidas.ctid AND repetidas.ordem > 1;
+
+ALTER TABLE voluntario_datas_disponiveis ALTER COLUMN DATAS_DISPONIVEIS SET NOT NULL;
+
+ALTER TABLE voluntario_datas_disponiveis
+  ADD CONSTRAINT uk_voluntario_datas_disponiveis UNIQUE (voluntario_id, DATAS_DISPONIVEIS);
@@ -0,0 +1,29 @@
+-- Flyway migration V12: índices para as consultas de EscalaRepository, VoluntarioRepository e dos repositórios JDBC.
+-- Até aqui só havia as chaves primárias: as leituras por escala, por data e por voluntário percorriam a tabela inteira,
+-- assim como o ON DELETE CASCADE das FKs. Verificado por PlanoDeConsultasTest (EXPLAIN sem Seq Scan em massa de dados).
+
+-- dias de uma escala (grafo Escala.dias, projeções por escala_id, exportação, cascade ao remover a escala), já na ordem da data
+CREATE INDEX IF NOT EXISTS idx_escala_dia_escala_data ON escala_dia (escala_id, data_escala_dia);
+
+-- dias em uma data (limpeza das alocações quando o voluntário deixa de estar disponível)
+CREATE INDEX IF NOT EXISTS idx_escala_dia_data ON escala_dia (data_escala_dia);
+
+-- alocações de um voluntário (existsByVoluntarioId, limpeza, cascade ao remover o voluntário);
+-- a PK (escala_dia_id, voluntario_id) só atende a busca pelo dia
+CREATE INDEX IF NOT EXISTS idx_escala_dia_voluntario_voluntario ON escala_dia_voluntario (voluntario_id, escala_dia_id);
+
+-- voluntários disponíveis em uma data; uk_voluntario_datas_disponiveis (voluntario_id, data) atende a busca pelo voluntário
+CREATE INDEX IF NOT EXISTS idx_voluntario_datas_disponiveis_data ON voluntario_datas_disponiveis (DATAS_DISPONIVEIS, voluntario_id);
+
+-- datas de uma escala (element collection Escala.datas e findDatasByEscalaIds)
+CREATE INDEX IF NOT EXISTS idx_escala_datas_escala ON escala_datas (escala_id, DATAS_ESCALA);
+
+-- voluntário de um usuário (login e findByUsuarioEmail)
+CREATE INDEX IF NOT EXISTS idx_voluntario_usuario ON voluntario (USUARIO_ID);
+
+-- índices repetidos: V6-V8 criaram índices únicos em colunas que já são chave primária e V1 criou idx_usuario_email
+-- sobre a coluna que já tem a constraint UNIQUE (usuario_email_key); só custavam escrita
+DROP INDEX IF EXISTS id_escala_idx;
+DROP INDEX IF EXISTS id_usuario_idx;
+DROP INDEX IF EXISTS id_voluntario_idx;
+DROP INDEX IF EXISTS idx_usuario_email;
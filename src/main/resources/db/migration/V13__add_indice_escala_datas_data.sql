@@ -0,0 +1,4 @@
+-- Flyway migration V13: o filtro data da pesquisa de escalas volta a procurar nas datas da escala (escala_datas), que
+-- existem antes de os dias serem gerados; idx_escala_datas_escala (V12) só atende a busca pela escala.
+-- Verificado por PlanoDeConsultasTest (pesquisa por data sem Seq Scan).
+CREATE INDEX IF NOT EXISTS idx_escala_datas_data ON escala_datas (DATAS_ESCALA, escala_id);
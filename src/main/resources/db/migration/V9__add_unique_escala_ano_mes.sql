@@ -0,0 +1,4 @@
+-- Flyway migration V9: garante no banco uma única escala por ano/mês.
+-- A verificação em EscalaService.verificaSeHaEscalaCadastradaNaData não é suficiente quando
+-- meses são gerados em paralelo (POST /crescer-aprender/escala/lote); este índice fecha a corrida.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_escala_ano_mes ON escala (ANO_ESCALA, MES_ESCALA);
@@ -0,0 +1,49 @@
+package com.crescer_aprender.escala.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DetectorDePinningTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Object monitor = new Object();
+
+    @Test
+    void sleepDentroDeSynchronized_RegistraPinningComOrigem() throws Exception {
+        try (DetectorDePinning detector = new DetectorDePinning(Duration.ofMillis(10), registry)) {
+            detector.inicia();
+
+            // no Java 21, bloquear segurando um monitor prende a thread virtual à carrier
+            Thread.ofVirtual().start(() -> {
+                synchronized (monitor) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }).join();
+
+            // os eventos do JFR chegam ao stream em lotes, cerca de uma vez por segundo
+            long limite = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+            Timer timer = null;
+            while (timer == null && System.nanoTime() < limite) {
+                timer = registry.find("escala.threads.pinning").tag("origem", "com.crescer_aprender").timer();
+                Thread.sleep(100);
+            }
+            assertNotNull(timer, "pinning não registrado");
+            assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 10);
+        }
+    }
+
+    @Test
+    void origem_SemPilha_Desconhecida() {
+        assertEquals("desconhecida", DetectorDePinning.origem(null));
+    }
+}
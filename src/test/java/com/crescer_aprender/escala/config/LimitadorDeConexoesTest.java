@@ -0,0 +1,105 @@
+package com.crescer_aprender.escala.config;
+
+import com.crescer_aprender.escala.exception.BancoSobrecarregadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LimitadorDeConexoesTest {
+
+    private final DataSource alvo = mock(DataSource.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(alvo.getConnection()).thenAnswer(invocacao -> mock(Connection.class));
+    }
+
+    @Test
+    void getConnection_SemPermissao_RecusaAposEsperaMaxima() throws SQLException {
+        LimitadorDeConexoes limitador = new LimitadorDeConexoes(alvo, 2, 10, Duration.ofMillis(50), registry);
+        limitador.getConnection();
+        limitador.getConnection();
+
+        BancoSobrecarregadoException e = assertThrows(BancoSobrecarregadoException.class, limitador::getConnection);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatusCode());
+        assertEquals("1", e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        verify(alvo, times(2)).getConnection();
+        assertEquals(1.0, registry.get("escala.banco.limitador.rejeitadas").counter().count());
+        assertEquals(1, registry.get("escala.banco.limitador.espera").timer().count());
+    }
+
+    @Test
+    void close_DevolvePermissaoUmaVez() throws Exception {
+        LimitadorDeConexoes limitador = new LimitadorDeConexoes(alvo, 1, 10, Duration.ofMillis(50), registry);
+        Connection conexao = limitador.getConnection();
+
+        conexao.close();
+        conexao.close();
+
+        Connection outra = limitador.getConnection();
+        assertThrows(BancoSobrecarregadoException.class, limitador::getConnection);
+        assertNotEquals(conexao, outra);
+        assertEquals(conexao, conexao);
+    }
+
+    @Test
+    void getConnection_AguardaConexaoDevolvida() throws Exception {
+        LimitadorDeConexoes limitador = new LimitadorDeConexoes(alvo, 1, 10, Duration.ofSeconds(5), registry);
+        Connection conexao = limitador.getConnection();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<Connection> aguardando = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return limitador.getConnection();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }, executor);
+            while (registry.get("escala.banco.limitador.aguardando").gauge().value() < 1) {
+                Thread.onSpinWait();
+            }
+
+            conexao.close();
+
+            assertNotNull(aguardando.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0.0, registry.get("escala.banco.limitador.rejeitadas").counter().count());
+    }
+
+    @Test
+    void getConnection_FilaCheia_RecusaSemEsperar() throws Exception {
+        LimitadorDeConexoes limitador = new LimitadorDeConexoes(alvo, 1, 0, Duration.ofSeconds(30), registry);
+        limitador.getConnection();
+
+        long inicio = System.nanoTime();
+        assertThrows(BancoSobrecarregadoException.class, limitador::getConnection);
+
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(0, registry.get("escala.banco.limitador.espera").timer().count());
+    }
+
+    @Test
+    void getConnection_FalhaNoPool_DevolvePermissao() throws Exception {
+        LimitadorDeConexoes limitador = new LimitadorDeConexoes(alvo, 1, 10, Duration.ofMillis(50), registry);
+        when(alvo.getConnection()).thenThrow(new SQLException("pool fechado")).thenAnswer(invocacao -> mock(Connection.class));
+
+        assertThrows(SQLException.class, limitador::getConnection);
+
+        assertNotNull(limitador.getConnection());
+    }
+}
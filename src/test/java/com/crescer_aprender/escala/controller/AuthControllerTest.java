@@ -0,0 +1,48 @@
+package com.crescer_aprender.escala.controller;
+
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.support.TesteDeEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Idas ao banco por chamada de AuthController.
+ */
+class AuthControllerTest extends TesteDeEndpoint {
+
+    private Voluntario voluntario;
+
+    @BeforeEach
+    void setUp() {
+        voluntario = criaVoluntario("Maria", PerfisUsuariosEnum.VOLUNTARIO, sabados(2031, 8));
+    }
+
+    @Test
+    void login() throws Exception {
+        requisicao(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", voluntario.getUsuario().getEmail(), "senha", SENHA))), 1)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").exists())
+                .andExpect(jsonPath("$.datasDisponiveis.length()").value(sabados(2031, 8).size()));
+    }
+
+    @Test
+    void login_SenhaErrada() throws Exception {
+        requisicao(post("/auth/login").contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("email", voluntario.getUsuario().getEmail(), "senha", "errada"))), 1)
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logout() throws Exception {
+        requisicao(post("/auth/logout").header("Authorization", bearer(voluntario.getUsuario())), 1)
+                .andExpect(status().isNoContent());
+    }
+}
@@ -0,0 +1,199 @@
+package com.crescer_aprender.escala.controller;
+
+import com.crescer_aprender.escala.dto.EscalaCreateRequest;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.support.TesteDeEndpoint;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Idas ao banco por chamada de EscalaController. As leituras são medidas com 3 escalas de 4-5 dias e 8 voluntários
+ * por dia (24 voluntários): os limites não podem depender desses números.
+ */
+class EscalaControllerTest extends TesteDeEndpoint {
+
+    private static final String BASE = "/crescer-aprender/escala";
+
+    private List<Voluntario> voluntarios;
+    private List<Escala> escalas;
+    private HttpHeaders coordenador;
+    private HttpHeaders voluntario;
+
+    @BeforeEach
+    void setUp() {
+        List<LocalDate> datas = new ArrayList<>();
+        for (int mes = 8; mes <= 11; mes++) {
+            datas.addAll(sabados(2031, mes));
+        }
+        voluntarios = criaVoluntarios(24, datas);
+        escalas = List.of(criaEscala(2031, 8, sabados(2031, 8), voluntarios),
+                criaEscala(2031, 9, sabados(2031, 9), voluntarios),
+                criaEscala(2031, 10, sabados(2031, 10), voluntarios));
+        coordenador = autenticado(criaVoluntario("Coordenadora", PerfisUsuariosEnum.COORDENADOR, List.of()));
+        voluntario = autenticado(voluntarios.get(0));
+    }
+
+    @Test
+    void getAll() throws Exception {
+        requisicao(get(BASE).headers(voluntario), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)));
+    }
+
+    // cada linha é a mesma EscalaResponse de GET /escala, inclusive para uma escala com datas e sem dias gerados
+    @Test
+    void exportar_Ndjson() throws Exception {
+        escalaRepository.save(Escala.builder().ano(2031L).mes(12).datas(new ArrayList<>(sabados(2031, 12))).build());
+        Map<Long, JsonNode> esperadas = new HashMap<>();
+        objectMapper.readTree(mockMvc.perform(get(BASE).headers(voluntario)).andReturn().getResponse().getContentAsString())
+                .forEach(escala -> esperadas.put(escala.get("id").asLong(), escala));
+
+        String corpo = requisicao(get(BASE + "/exportar").param("ano", "2031").headers(voluntario), 2)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<String> linhas = corpo.lines().toList();
+        assertEquals(4, linhas.size());
+        for (String linha : linhas) {
+            JsonNode escala = objectMapper.readTree(linha);
+            assertEquals(esperadas.get(escala.get("id").asLong()), escala);
+        }
+        JsonNode dezembro = objectMapper.readTree(linhas.get(3));
+        assertEquals(12, dezembro.get("mes").asInt());
+        assertEquals(sabados(2031, 12).size(), dezembro.get("datas").size());
+        assertEquals(0, dezembro.get("dias").size());
+    }
+
+    @Test
+    void exportar_Csv() throws Exception {
+        requisicao(get(BASE + "/exportar").param("formato", "csv").headers(voluntario), 1)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getById() throws Exception {
+        requisicao(get(BASE + "/byId/{id}", escalas.get(1).getId()).headers(voluntario), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mes").value(9));
+    }
+
+    @Test
+    void getByDate() throws Exception {
+        requisicao(get(BASE + "/byDate/{data}", "2031-10-01").headers(voluntario), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mes").value(10));
+    }
+
+    @Test
+    void create_ComVoluntariosAutomaticos() throws Exception {
+        EscalaCreateRequest request = EscalaCreateRequest.builder().mes(11).ano(2031L).datas(sabados(2031, 11))
+                .incluirVoluntariosAutomaticamente(true).build();
+
+        requisicao(post(BASE).headers(coordenador).contentType(MediaType.APPLICATION_JSON).content(json(request)), 7)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dias", hasSize(sabados(2031, 11).size())));
+    }
+
+    // cada mês é gerado na sua própria transação, com as mesmas idas ao banco de um POST isolado (sem a consulta de existência)
+    @Test
+    void createLote() throws Exception {
+        List<EscalaCreateRequest> requests = List.of(
+                EscalaCreateRequest.builder().mes(11).ano(2031L).datas(sabados(2031, 11)).incluirVoluntariosAutomaticamente(true).build(),
+                EscalaCreateRequest.builder().mes(12).ano(2031L).datas(sabados(2031, 12)).incluirVoluntariosAutomaticamente(true).build());
+
+        requisicao(post(BASE + "/lote").headers(coordenador).contentType(MediaType.APPLICATION_JSON).content(json(requests)), 6 * requests.size())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    // o PUT recria os dias pelo cascade do JPA: com id IDENTITY cada escala_dia é um INSERT, então o limite cresce com as datas
+    @Test
+    void update() throws Exception {
+        Escala alteracao = Escala.builder().datas(sabados(2031, 8).subList(0, 2)).build();
+
+        requisicao(put(BASE + "/{id}", escalas.get(0).getId()).headers(coordenador).contentType(MediaType.APPLICATION_JSON).content(json(alteracao)), 9 + alteracao.getDatas().size())
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void delete_() throws Exception {
+        requisicao(delete(BASE + "/{id}", escalas.get(2).getId()).headers(coordenador), 7)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void findByMesAnoVoluntario() throws Exception {
+        requisicao(get(BASE + "/buscar-por-mes-ano-voluntario").param("mes", "8").param("ano", "2031")
+                .param("idVoluntario", voluntarios.get(0).getId().toString()).headers(voluntario), 3)
+                .andExpect(status().isOk());
+    }
+
+    // página + COUNT (o COUNT só é dispensado quando a página já traz tudo)
+    @Test
+    void pesquisa_QueryParams() throws Exception {
+        requisicao(get(BASE + "/pesquisa").param("ano", "2031").param("size", "2").headers(voluntario), 4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void pesquisa_Body() throws Exception {
+        requisicao(post(BASE + "/pesquisa").headers(voluntario).contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("ano", "2031"))), 4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(3)));
+    }
+
+    @Test
+    void pesquisaCursor_QueryParams() throws Exception {
+        requisicao(get(BASE + "/pesquisa/cursor").param("ano", "2031").param("size", "2").headers(voluntario), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void pesquisaCursor_Body() throws Exception {
+        requisicao(post(BASE + "/pesquisa/cursor").param("size", "2").headers(voluntario).contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("ano", "2031"))), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void pesquisaSlice_QueryParams() throws Exception {
+        requisicao(get(BASE + "/pesquisa/slice").param("ano", "2031").param("size", "2").headers(voluntario), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void pesquisaSlice_Body() throws Exception {
+        requisicao(post(BASE + "/pesquisa/slice").param("size", "2").headers(voluntario).contentType(MediaType.APPLICATION_JSON)
+                .content(json(Map.of("ano", "2031"))), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)));
+    }
+
+    @Test
+    void populaVoluntarios() throws Exception {
+        requisicao(put(BASE + "/popula-voluntarios/{id}", escalas.get(1).getId()).headers(coordenador), 10)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dias", hasSize(sabados(2031, 9).size())));
+    }
+}
@@ -0,0 +1,65 @@
+package com.crescer_aprender.escala.controller;
+
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.support.TesteDeEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Idas ao banco por chamada de UsuarioController.
+ */
+class UsuarioControllerTest extends TesteDeEndpoint {
+
+    private static final String BASE = "/crescer-aprender/usuarios";
+
+    private HttpHeaders coordenador;
+
+    @BeforeEach
+    void setUp() {
+        criaVoluntarios(20, sabados(2031, 8));
+        coordenador = autenticado(criaVoluntario("Coordenadora", PerfisUsuariosEnum.COORDENADOR, List.of()));
+    }
+
+    @Test
+    void save() throws Exception {
+        Voluntario novo = Voluntario.builder().nome("Nova")
+                .usuario(Usuario.builder().email("nova@teste.com").senha(SENHA).build())
+                .datasDisponiveis(Set.of(LocalDate.of(2031, 8, 2))).build();
+
+        requisicao(post(BASE).headers(coordenador).contentType(MediaType.APPLICATION_JSON).content(json(novo)), 4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").exists());
+    }
+
+    @Test
+    void importacao_Csv() throws Exception {
+        StringBuilder csv = new StringBuilder("nome,email,senha,role,datas_disponiveis\n");
+        for (int i = 0; i < 10; i++) {
+            csv.append("Importado ").append(i).append(",importado").append(i).append("@teste.com,senha").append(i)
+                    .append(",,2031-08-02;2031-08-09\n");
+        }
+
+        requisicao(post(BASE + "/importacao").headers(coordenador).contentType("text/csv").content(csv.toString()), 4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importados").value(10));
+    }
+
+    @Test
+    void getAll() throws Exception {
+        requisicao(get(BASE).headers(coordenador), 1)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(21)));
+    }
+}
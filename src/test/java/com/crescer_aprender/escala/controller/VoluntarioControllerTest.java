@@ -0,0 +1,103 @@
+package com.crescer_aprender.escala.controller;
+
+import com.crescer_aprender.escala.dto.DisponibilidadeRequest;
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.support.TesteDeEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Idas ao banco por chamada de VoluntarioController, com 30 voluntários cadastrados e 8 deles escalados.
+ */
+class VoluntarioControllerTest extends TesteDeEndpoint {
+
+    private static final String BASE = "/crescer-aprender/voluntarios";
+
+    private final List<LocalDate> datas = sabados(2031, 8);
+    private List<Voluntario> voluntarios;
+    private HttpHeaders coordenador;
+
+    @BeforeEach
+    void setUp() {
+        voluntarios = criaVoluntarios(30, datas);
+        criaEscala(2031, 8, datas.subList(0, 1), voluntarios.subList(0, 8));
+        coordenador = autenticado(criaVoluntario("Coordenadora", PerfisUsuariosEnum.COORDENADOR, List.of()));
+    }
+
+    @Test
+    void getAll() throws Exception {
+        requisicao(get(BASE).headers(coordenador), 3)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(31)));
+    }
+
+    @Test
+    void save() throws Exception {
+        Voluntario novo = Voluntario.builder().nome("Nova")
+                .usuario(Usuario.builder().email("nova@teste.com").senha(SENHA).build())
+                .datasDisponiveis(Set.copyOf(datas)).build();
+
+        requisicao(post(BASE).headers(coordenador).contentType(MediaType.APPLICATION_JSON).content(json(novo)), 4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").exists());
+    }
+
+    @Test
+    void update() throws Exception {
+        Voluntario alterado = Voluntario.builder().nome("Outro Nome").datasDisponiveis(Set.copyOf(datas.subList(1, 3))).build();
+
+        requisicao(put(BASE + "/{id}", voluntarios.get(0).getId()).headers(autenticado(voluntarios.get(0)))
+                .contentType(MediaType.APPLICATION_JSON).content(json(alterado)), 5)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nome").value("Outro Nome"));
+    }
+
+    @Test
+    void alteraDatasDisponiveis() throws Exception {
+        DisponibilidadeRequest request = DisponibilidadeRequest.builder()
+                .incluir(Set.of(LocalDate.of(2031, 9, 6))).remover(Set.of(datas.get(0))).build();
+
+        requisicao(patch(BASE + "/{id}/datas-disponiveis", voluntarios.get(0).getId()).headers(autenticado(voluntarios.get(0)))
+                .contentType(MediaType.APPLICATION_JSON).content(json(request)), 5)
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void alteraDatasDisponiveisEmLote() throws Exception {
+        Map<Long, DisponibilidadeRequest> alteracoes = new HashMap<>();
+        for (Voluntario v : voluntarios.subList(0, 20)) {
+            alteracoes.put(v.getId(), DisponibilidadeRequest.builder()
+                    .incluir(Set.of(LocalDate.of(2031, 9, 6))).remover(Set.of(datas.get(0))).build());
+        }
+
+        requisicao(patch(BASE + "/datas-disponiveis").headers(coordenador).contentType(MediaType.APPLICATION_JSON).content(json(alteracoes)), 4)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.voluntarios").value(20));
+    }
+
+    @Test
+    void delete_NaoEscalado() throws Exception {
+        requisicao(delete(BASE + "/{id}", voluntarios.get(29).getId()).headers(coordenador), 6)
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void delete_Escalado() throws Exception {
+        requisicao(delete(BASE + "/{id}", voluntarios.get(0).getId()).headers(coordenador), 2)
+                .andExpect(status().isUnprocessableEntity());
+    }
+}
@@ -0,0 +1,201 @@
+package com.crescer_aprender.escala.repository;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.support.ContadorDeStatements;
+import com.crescer_aprender.escala.support.ContadorDeStatementsConfig;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara, em um PostgreSQL embarcado, a gravação de um mês completo pelo cascade de repository.save(escala)
+ * com a gravação em lote de EscalaDiaJdbcRepository: idas ao banco, comandos SQL e tempo.
+ */
+@Slf4j
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({EscalaDiaJdbcRepository.class, ContadorDeStatementsConfig.class})
+class EscalaDiaJdbcRepositoryTest {
+
+    private static final int VOLUNTARIOS = 40;
+    private static final int VOLUNTARIOS_POR_DIA = 8;
+    private static final int RODADAS = 5;
+
+    @Autowired
+    private EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
+    @Autowired
+    private EscalaRepository escalaRepository;
+
+    @Autowired
+    private VoluntarioRepository voluntarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ContadorDeStatements contador;
+
+    private List<Voluntario> voluntarios;
+
+    @BeforeEach
+    void setUp() {
+        List<Voluntario> novos = new ArrayList<>();
+        for (int i = 0; i < VOLUNTARIOS; i++) {
+            novos.add(Voluntario.builder().nome("Voluntario " + i).datasDisponiveis(new HashSet<>()).build());
+        }
+        voluntarios = voluntarioRepository.saveAllAndFlush(novos);
+    }
+
+    // um dia para cada data do mês, com 8 voluntários em rodízio
+    private Escala mesCompleto(int ano, int mes) {
+        LocalDate inicio = LocalDate.of(ano, mes, 1);
+        Escala escala = Escala.builder().ano((long) ano).mes(mes).datas(new ArrayList<>()).build();
+        List<EscalaDia> dias = new ArrayList<>();
+        for (int d = 0; d < inicio.lengthOfMonth(); d++) {
+            List<Voluntario> doDia = new ArrayList<>();
+            for (int v = 0; v < VOLUNTARIOS_POR_DIA; v++) {
+                doDia.add(voluntarios.get((d * VOLUNTARIOS_POR_DIA + v) % VOLUNTARIOS));
+            }
+            escala.getDatas().add(inicio.plusDays(d));
+            dias.add(EscalaDia.builder().data(inicio.plusDays(d)).voluntarios(doDia).build());
+        }
+        escala.setDias(dias);
+        return escala;
+    }
+
+    private int contaAlocacoes(Long escalaId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM escala_dia_voluntario edv JOIN escala_dia ed ON ed.id = edv.escala_dia_id " +
+                "WHERE ed.escala_id = ?", Integer.class, escalaId);
+    }
+
+    private static void viaCascade(Escala escala, EscalaRepository escalaRepository) {
+        escala.getDias().forEach(d -> d.setEscala(escala));
+        escalaRepository.saveAndFlush(escala);
+    }
+
+    private void viaBulk(Escala escala, EscalaRepository escalaRepository) {
+        List<EscalaDia> dias = escala.getDias();
+        escala.setDias(null);
+        escalaRepository.saveAndFlush(escala);
+        escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+    }
+
+    private Medicao mede(int ano, BiConsumer<Escala, EscalaRepository> grava) {
+        Medicao medicao = new Medicao();
+        for (int rodada = 0; rodada < RODADAS; rodada++) {
+            Escala escala = mesCompleto(ano, rodada + 1);
+            contador.zera();
+            long inicio = System.nanoTime();
+            grava.accept(escala, escalaRepository);
+            medicao.nanos += System.nanoTime() - inicio;
+            medicao.execucoes = contador.getExecucoes();
+            medicao.statements = contador.getStatements();
+            assertEquals(escala.getDatas().size() * VOLUNTARIOS_POR_DIA, contaAlocacoes(escala.getId()));
+            entityManager.clear();
+        }
+        return medicao;
+    }
+
+    @Test
+    void insereDias_GravaDiasEAlocacoesComIdsDaSequence() {
+        Escala escala = mesCompleto(2030, 3);
+        List<EscalaDia> dias = escala.getDias();
+        escala.setDias(null);
+        escalaRepository.saveAndFlush(escala);
+
+        escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+
+        assertTrue(dias.stream().allMatch(d -> d.getId() != null));
+        assertEquals(31, dias.stream().map(EscalaDia::getId).distinct().count());
+        assertEquals(31 * VOLUNTARIOS_POR_DIA, contaAlocacoes(escala.getId()));
+
+        entityManager.clear();
+        Escala lida = escalaRepository.findById(escala.getId()).orElseThrow();
+        assertEquals(31, lida.getDias().size());
+        assertEquals(VOLUNTARIOS_POR_DIA, lida.getDias().get(0).getVoluntarios().size());
+
+        // o id seguinte gerado pelo JPA (IDENTITY) continua a mesma sequence, sem colidir com os reservados
+        Escala outra = escalaRepository.saveAndFlush(Escala.builder().ano(2030L).mes(4).build());
+        EscalaDia diaJpa = EscalaDia.builder().data(LocalDate.of(2030, 4, 1)).escala(outra).voluntarios(new ArrayList<>()).build();
+        entityManager.persist(diaJpa);
+        entityManager.flush();
+        assertTrue(dias.stream().noneMatch(d -> d.getId().equals(diaJpa.getId())));
+    }
+
+    @Test
+    void removeDias_ApagaDiasEAlocacoesDaEscala() {
+        Escala escala = mesCompleto(2030, 5);
+        viaBulk(escala, escalaRepository);
+
+        assertEquals(31, escalaDiaJdbcRepository.removeDias(escala.getId()));
+        assertEquals(0, contaAlocacoes(escala.getId()));
+    }
+
+    @Test
+    void removeVoluntarioDosDiasIndisponiveis_UmComandoSoNosDiasForaDaDisponibilidade() {
+        Escala marco = mesCompleto(2030, 3);
+        viaBulk(marco, escalaRepository);
+        Escala abril = mesCompleto(2030, 4);
+        viaBulk(abril, escalaRepository);
+        // o voluntário 0 está nos dias 1, 6, 11, ... de cada mês; continua disponível só em 1º/03 e 1º/04
+        Voluntario voluntario = voluntarios.get(0);
+        voluntario.setDatasDisponiveis(new HashSet<>(List.of(LocalDate.of(2030, 3, 1), LocalDate.of(2030, 4, 1))));
+        voluntarioRepository.saveAndFlush(voluntario);
+        int alocacoesDoVoluntario = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM escala_dia_voluntario WHERE voluntario_id = ?", Integer.class, voluntario.getId());
+        int alocacoesDosOutros = contaAlocacoes(marco.getId()) + contaAlocacoes(abril.getId()) - alocacoesDoVoluntario;
+        contador.zera();
+
+        List<Long> diasAlterados = escalaDiaJdbcRepository.removeVoluntarioDosDiasIndisponiveis(voluntario.getId());
+
+        assertEquals(1, contador.getExecucoes());
+        assertEquals(alocacoesDoVoluntario - 2, diasAlterados.size());
+        List<LocalDate> restantes = jdbcTemplate.queryForList("SELECT ed.data_escala_dia FROM escala_dia_voluntario edv " +
+                "JOIN escala_dia ed ON ed.id = edv.escala_dia_id WHERE edv.voluntario_id = ? ORDER BY 1", LocalDate.class, voluntario.getId());
+        assertEquals(List.of(LocalDate.of(2030, 3, 1), LocalDate.of(2030, 4, 1)), restantes);
+        assertEquals(alocacoesDosOutros, contaAlocacoes(marco.getId()) + contaAlocacoes(abril.getId()) - restantes.size());
+        assertTrue(escalaDiaJdbcRepository.removeVoluntarioDosDiasIndisponiveis(voluntario.getId()).isEmpty());
+    }
+
+    @Test
+    void insereDias_ComparadoAoCascade() {
+        Medicao cascade = mede(2031, EscalaDiaJdbcRepositoryTest::viaCascade);
+        Medicao bulk = mede(2032, this::viaBulk);
+
+        log.info("Gravação de um mês (31 dias x {} voluntários), média de {} rodadas | cascade: {} idas ao banco, {} comandos, {} ms | lote: {} idas ao banco, {} comandos, {} ms",
+                VOLUNTARIOS_POR_DIA, RODADAS, cascade.execucoes, cascade.statements, cascade.nanos / RODADAS / 1_000_000,
+                bulk.execucoes, bulk.statements, bulk.nanos / RODADAS / 1_000_000);
+
+        // cascade: com IDENTITY cada dia é um INSERT separado (só as linhas de escala_dia_voluntario entram em batch)
+        assertTrue(cascade.execucoes >= 31, "idas ao banco no cascade: " + cascade.execucoes);
+        assertTrue(cascade.statements >= 31 + 31 * VOLUNTARIOS_POR_DIA);
+        // lote: escala + datas, reserva de ids e um batch por tabela
+        assertTrue(bulk.execucoes < 10, "idas ao banco no lote: " + bulk.execucoes);
+    }
+
+    private static class Medicao {
+        long nanos;
+        int execucoes;
+        int statements;
+    }
+}
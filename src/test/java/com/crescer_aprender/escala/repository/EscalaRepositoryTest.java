@@ -0,0 +1,194 @@
+package com.crescer_aprender.escala.repository;
+
+import com.crescer_aprender.escala.dto.EscalaDataLinha;
+import com.crescer_aprender.escala.dto.EscalaDiaVoluntarioLinha;
+import com.crescer_aprender.escala.dto.EscalaExportacaoLinha;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.support.ContadorDeStatements;
+import com.crescer_aprender.escala.support.ContadorDeStatementsConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * As leituras de Escala usadas pelos endpoints precisam de um número fixo de consultas, independente de quantas
+ * escalas, dias e voluntários são serializados (sem N+1 ao percorrer dias -> voluntarios -> usuario/datasDisponiveis).
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({EscalaDiaJdbcRepository.class, ContadorDeStatementsConfig.class})
+class EscalaRepositoryTest {
+
+    private static final int LIMITE_DE_CONSULTAS = 6;
+
+    @Autowired
+    private EscalaRepository escalaRepository;
+
+    @Autowired
+    private VoluntarioRepository voluntarioRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ContadorDeStatements contador;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private int anosCriados;
+
+    // meses de 2040 (2041 na segunda chamada, ...) com um dia por semana, cada um com 8 dos 30 voluntários (todos com usuário e datas disponíveis)
+    private List<Escala> criaEscalas(int quantidade) {
+        int ano = 2040 + anosCriados++;
+        List<Voluntario> voluntarios = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Usuario usuario = usuarioRepository.save(Usuario.builder().email("voluntario" + i + "-" + ano + "@teste.com")
+                    .senha("senha").role(PerfisUsuariosEnum.VOLUNTARIO).build());
+            voluntarios.add(voluntarioRepository.save(Voluntario.builder().nome("Voluntario " + i).usuario(usuario)
+                    .datasDisponiveis(new HashSet<>(List.of(LocalDate.of(2040, 1, 1), LocalDate.of(2040, 2, 1)))).build()));
+        }
+        List<Escala> escalas = new ArrayList<>();
+        for (int mes = 1; mes <= quantidade; mes++) {
+            Escala escala = escalaRepository.save(Escala.builder().ano((long) ano).mes(mes).datas(new ArrayList<>()).build());
+            List<EscalaDia> dias = new ArrayList<>();
+            for (LocalDate data = LocalDate.of(ano, mes, 7); data.getMonthValue() == mes; data = data.plusWeeks(1)) {
+                escala.getDatas().add(data);
+                int inicio = dias.size() * 8;
+                List<Voluntario> doDia = new ArrayList<>();
+                for (int v = 0; v < 8; v++) {
+                    doDia.add(voluntarios.get((inicio + v) % voluntarios.size()));
+                }
+                dias.add(EscalaDia.builder().data(data).voluntarios(doDia).build());
+            }
+            escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+            escalas.add(escala);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        contador.zera();
+        return escalas;
+    }
+
+    // consultas feitas até a resposta estar serializada, como no controller
+    private int consultasAteSerializar(Object resultado) throws Exception {
+        objectMapper.writeValueAsString(resultado);
+        return contador.getExecucoes();
+    }
+
+    @Test
+    void findAllPaginado_ConsultasLimitadas() throws Exception {
+        criaEscalas(5);
+
+        Page<Escala> pagina = escalaRepository.findAll(EscalaSpecifications.byFilters(Map.of("ano", "2040")), PageRequest.of(0, 3));
+        int consultas = consultasAteSerializar(pagina.getContent());
+
+        assertEquals(3, pagina.getContent().size());
+        assertEquals(5, pagina.getTotalElements());
+        // consulta da página + count + os mesmos lotes das demais leituras
+        assertTrue(consultas <= LIMITE_DE_CONSULTAS + 2, "consultas: " + consultas);
+    }
+
+    @Test
+    void projecoesDaResposta_TrazemSoDatasEVoluntariosResumidos() throws Exception {
+        List<Escala> escalas = criaEscalas(2);
+        List<Long> ids = escalas.stream().map(Escala::getId).toList();
+
+        List<EscalaDataLinha> datas = escalaRepository.findDatasByEscalaIds(ids);
+        List<EscalaDiaVoluntarioLinha> linhas = escalaRepository.findDiasComVoluntariosByEscalaIds(ids);
+
+        int diasCriados = escalas.stream().mapToInt(e -> e.getDatas().size()).sum();
+        assertEquals(diasCriados, datas.size());
+        assertEquals(diasCriados * 8, linhas.size());
+        assertTrue(linhas.stream().allMatch(l -> l.voluntarioNome().startsWith("Voluntario ")));
+        assertFalse(objectMapper.writeValueAsString(linhas).contains("senha"));
+        assertEquals(2, contador.getExecucoes());
+    }
+
+    @Test
+    void streamLinhasExportacao_OrdenadoPorEscalaEFiltradoPorAno() {
+        List<Escala> de2040 = criaEscalas(2);
+        List<Escala> de2041 = criaEscalas(1);
+
+        List<EscalaExportacaoLinha> todas;
+        try (Stream<EscalaExportacaoLinha> linhas = escalaRepository.streamLinhasExportacao(null)) {
+            todas = linhas.toList();
+        }
+        List<EscalaExportacaoLinha> so2041;
+        try (Stream<EscalaExportacaoLinha> linhas = escalaRepository.streamLinhasExportacao(2041L)) {
+            so2041 = linhas.toList();
+        }
+
+        int dias = de2040.stream().mapToInt(e -> e.getDatas().size()).sum() + de2041.get(0).getDatas().size();
+        assertEquals(dias * 8, todas.size());
+        assertEquals(List.of(de2040.get(0).getId(), de2040.get(1).getId(), de2041.get(0).getId()),
+                todas.stream().map(EscalaExportacaoLinha::escalaId).distinct().toList());
+        assertEquals(de2041.get(0).getDatas().size() * 8, so2041.size());
+        assertTrue(so2041.stream().allMatch(l -> l.ano() == 2041L));
+    }
+
+    @Test
+    void scrollPorKeyset_PercorreTodasAsPaginasSemCount() {
+        List<Escala> de2040 = criaEscalas(5);
+        criaEscalas(2);
+
+        List<Long> percorridas = new ArrayList<>();
+        ScrollPosition posicao = ScrollPosition.keyset();
+        Window<Escala> janela;
+        do {
+            ScrollPosition atual = posicao;
+            janela = escalaRepository.findBy(EscalaSpecifications.byFilters(Map.of("ano", "2040")),
+                    q -> q.sortBy(Sort.by("ano", "mes", "id")).limit(2).scroll(atual));
+            janela.forEach(e -> percorridas.add(e.getId()));
+            posicao = janela.hasNext() ? janela.positionAt(janela.size() - 1) : null;
+        } while (posicao != null);
+
+        assertEquals(de2040.stream().map(Escala::getId).toList(), percorridas);
+        // 3 páginas, uma consulta cada: o keyset não precisa de OFFSET nem de COUNT
+        assertEquals(3, contador.getExecucoes());
+        assertTrue(contador.getConsultas().stream().noneMatch(sql -> sql.toLowerCase().contains("count(")), contador.getConsultas().toString());
+        assertTrue(contador.getConsultas().stream().noneMatch(sql -> sql.toLowerCase().contains("offset")), contador.getConsultas().toString());
+    }
+
+    @Test
+    void slice_NaoExecutaCount() {
+        criaEscalas(5);
+
+        Slice<Escala> fatia = escalaRepository.findBy(EscalaSpecifications.byFilters(Map.of("ano", "2040")),
+                q -> q.slice(PageRequest.of(0, 3, Sort.by("ano", "mes", "id"))));
+
+        assertEquals(3, fatia.getNumberOfElements());
+        assertTrue(fatia.hasNext());
+        assertEquals(1, contador.getExecucoes());
+        assertTrue(contador.getConsultas().stream().noneMatch(sql -> sql.toLowerCase().contains("count(")), contador.getConsultas().toString());
+    }
+}
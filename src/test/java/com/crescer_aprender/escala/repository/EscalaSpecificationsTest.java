@@ -0,0 +1,139 @@
+package com.crescer_aprender.escala.repository;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.exception.InvalidFiltroPesquisaException;
+import com.crescer_aprender.escala.support.ContadorDeStatements;
+import com.crescer_aprender.escala.support.ContadorDeStatementsConfig;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({EscalaDiaJdbcRepository.class, ContadorDeStatementsConfig.class})
+class EscalaSpecificationsTest {
+
+    @Autowired
+    private EscalaRepository escalaRepository;
+
+    @Autowired
+    private VoluntarioRepository voluntarioRepository;
+
+    @Autowired
+    private EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ContadorDeStatements contador;
+
+    private Voluntario ana;
+    private Voluntario bruno;
+    private Escala marco;
+    private Escala abril;
+
+    // março: ana e bruno nos dois domingos; abril: só bruno; maio: sem dias
+    @BeforeEach
+    void setUp() {
+        ana = voluntarioRepository.save(Voluntario.builder().nome("Ana").datasDisponiveis(new HashSet<>()).build());
+        bruno = voluntarioRepository.save(Voluntario.builder().nome("Bruno").datasDisponiveis(new HashSet<>()).build());
+        marco = criaEscala(3, List.of(LocalDate.of(2050, 3, 6), LocalDate.of(2050, 3, 13)), List.of(ana, bruno));
+        abril = criaEscala(4, List.of(LocalDate.of(2050, 4, 3)), List.of(bruno));
+        criaEscala(5, List.of(), List.of());
+        entityManager.flush();
+        entityManager.clear();
+        contador.zera();
+    }
+
+    private Escala criaEscala(int mes, List<LocalDate> datas, List<Voluntario> voluntarios) {
+        Escala escala = escalaRepository.save(Escala.builder().ano(2050L).mes(mes).datas(new ArrayList<>(datas)).build());
+        escalaDiaJdbcRepository.insereDias(escala.getId(), datas.stream()
+                .map(data -> EscalaDia.builder().data(data).voluntarios(voluntarios).build()).toList());
+        return escala;
+    }
+
+    private List<Long> ids(Map<String, String> filtros) {
+        return escalaRepository.findAll(EscalaSpecifications.byFilters(filtros)).stream().map(Escala::getId).sorted().toList();
+    }
+
+    @Test
+    void byFilters_Voluntario_FiltraPelosDiasEmQueEstaEscalado() {
+        assertEquals(List.of(marco.getId()), ids(Map.of("ano", "2050", "voluntario", String.valueOf(ana.getId()))));
+        assertEquals(List.of(marco.getId(), abril.getId()), ids(Map.of("ano", "2050", "voluntarioId", String.valueOf(bruno.getId()))));
+    }
+
+    @Test
+    void byFilters_DataEVoluntario_UmaLinhaPorEscalaSemDistinct() {
+        Page<Escala> pagina = escalaRepository.findAll(EscalaSpecifications.byFilters(
+                Map.of("data", "2050-03-13", "voluntario", String.valueOf(bruno.getId()), "page", "0", "size", "10")), PageRequest.of(0, 10));
+
+        assertEquals(List.of(marco.getId()), pagina.getContent().stream().map(Escala::getId).toList());
+        assertEquals(1, pagina.getTotalElements());
+        String sql = contador.getConsultas().get(0).toLowerCase();
+        assertTrue(sql.contains("exists"), sql);
+        assertFalse(sql.contains("distinct"), sql);
+    }
+
+    @Test
+    void byFilters_SemFiltros_TrazTodas() {
+        assertEquals(3, ids(Map.of("ano", "2050")).size());
+        assertFalse(ids(Map.of()).isEmpty());
+    }
+
+    @Test
+    void byFilters_ChaveDesconhecida_DeveLancarExcecao() {
+        assertThrows(InvalidFiltroPesquisaException.class, () -> EscalaSpecifications.byFilters(Map.of("dias", "1")));
+        assertThrows(InvalidFiltroPesquisaException.class, () -> EscalaSpecifications.byFilters(Map.of("errorMessage", "x")));
+    }
+
+    @Test
+    void byFilters_ValorInvalido_DeveLancarExcecao() {
+        assertThrows(InvalidFiltroPesquisaException.class, () -> EscalaSpecifications.byFilters(Map.of("ano", "dois mil")));
+        assertThrows(InvalidFiltroPesquisaException.class, () -> EscalaSpecifications.byFilters(Map.of("data", "13/03/2050")));
+        assertThrows(InvalidFiltroPesquisaException.class, () -> EscalaSpecifications.byFilters(Map.of("data", "2050-03-06", "datas", "2050-03-13")));
+    }
+
+    @Test
+    void byFilters_Data_ConsideraAsDatasDaEscalaMesmoSemDiasGerados() {
+        Escala junho = escalaRepository.save(Escala.builder().ano(2050L).mes(6).datas(new ArrayList<>(List.of(LocalDate.of(2050, 6, 5)))).build());
+        entityManager.flush();
+
+        assertEquals(List.of(junho.getId()), ids(Map.of("data", "2050-06-05")));
+        assertEquals(List.of(marco.getId()), ids(Map.of("datas", "2050-03-13")));
+        assertEquals(List.of(), ids(Map.of("data", "2050-03-14")));
+    }
+
+    @Test
+    void byFilters_MesmaCombinacaoDeChavesEmOutraOrdem_MesmoSql() {
+        Map<String, String> umaOrdem = new LinkedHashMap<>();
+        umaOrdem.put("voluntario", "1");
+        umaOrdem.put("ano", "2050");
+        Map<String, String> outraOrdem = new LinkedHashMap<>();
+        outraOrdem.put("ano", "2051");
+        outraOrdem.put("voluntarioId", "2");
+
+        // o SQL gerado é o mesmo para as duas ordens, mudando só os parâmetros
+        escalaRepository.findAll(EscalaSpecifications.byFilters(umaOrdem));
+        escalaRepository.findAll(EscalaSpecifications.byFilters(outraOrdem));
+        assertEquals(2, contador.getConsultas().size());
+        assertEquals(contador.getConsultas().get(0), contador.getConsultas().get(1));
+    }
+}
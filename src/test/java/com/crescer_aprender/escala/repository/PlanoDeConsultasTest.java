@@ -0,0 +1,235 @@
+package com.crescer_aprender.escala.repository;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.support.ContadorDeStatements;
+import com.crescer_aprender.escala.support.ContadorDeStatementsConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Repete com EXPLAIN cada consulta que os repositórios enviam ao banco (com os mesmos parâmetros) sobre uma massa
+ * de dados grande e falha se alguma fizer Seq Scan: sem os índices da V12 todas as buscas por escala, data e
+ * voluntário abaixo percorriam a tabela inteira. As leituras de tudo (findAll de escalas, findAllDisponibilidades,
+ * exportação sem filtro) ficam de fora: para elas o Seq Scan é o plano certo.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({EscalaDiaJdbcRepository.class, VoluntarioJdbcRepository.class, ContadorDeStatementsConfig.class})
+class PlanoDeConsultasTest {
+
+    private static final int VOLUNTARIOS = 20_000;
+    private static final LocalDate PRIMEIRA_DATA = LocalDate.of(2020, 1, 4);
+
+    // as datas são achadas pelo índice (voluntario_datas_disponiveis continua proibida de Seq Scan), mas juntar os
+    // voluntários delas sai mais barato, ou quase, lendo a tabela (estreita) inteira para o hash do que buscando um a um
+    // pela PK; qual dos dois o planejador escolhe depende das estatísticas do momento, então os dois planos são aceitos.
+    // Numa escala real a fração disponível em cada data é ainda maior.
+    // O mesmo vale para escala (uma linha por mês) ao juntar as datas da janela das métricas, achadas pelo índice
+    private static final Map<String, Set<String>> SEQ_SCAN_ESPERADO = Map.of(
+            "findVoluntariosByData", Set.of("voluntario"),
+            "findVoluntariosDisponiveisNasDatas", Set.of("voluntario"),
+            "findDatasEntre", Set.of("escala"));
+
+    @Autowired
+    private EscalaRepository escalaRepository;
+
+    @Autowired
+    private VoluntarioRepository voluntarioRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
+    @Autowired
+    private VoluntarioJdbcRepository voluntarioJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContadorDeStatements contador;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private Long voluntarioId;
+    private String email;
+    private Escala escala;
+    private List<Long> escalaIds;
+
+    // 20 mil voluntários com 10 datas disponíveis cada (espalhadas por ~8 anos), 200 anos de escalas com 4 dias por mês
+    // e 8 voluntários por dia; ANALYZE na mesma transação para o planejador enxergar os volumes
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("INSERT INTO usuario (email, senha, role) SELECT 'plano' || i || '@teste.com', 'x', 'VOLUNTARIO' " +
+                "FROM generate_series(1, ?) i", VOLUNTARIOS);
+        jdbcTemplate.update("INSERT INTO voluntario (nom_usuario, usuario_id) SELECT 'Voluntario ' || u.id, u.id FROM usuario u " +
+                "WHERE u.email LIKE 'plano%'");
+        jdbcTemplate.update("INSERT INTO voluntario_datas_disponiveis (voluntario_id, datas_disponiveis) " +
+                "SELECT v.id, ?::date + ((v.id * 7 + k * 131) % 3000)::int FROM voluntario v, generate_series(0, 9) k " +
+                "ON CONFLICT DO NOTHING", PRIMEIRA_DATA);
+        jdbcTemplate.update("INSERT INTO escala (mes_escala, ano_escala) SELECT m, a FROM generate_series(1900, 2099) a, generate_series(1, 12) m");
+        jdbcTemplate.update("INSERT INTO escala_datas (escala_id, datas_escala) " +
+                "SELECT e.id, make_date(e.ano_escala::int, e.mes_escala, d) FROM escala e, (VALUES (4), (11), (18), (25)) s(d)");
+        jdbcTemplate.update("INSERT INTO escala_dia (data_escala_dia, escala_id) SELECT datas_escala, escala_id FROM escala_datas");
+        jdbcTemplate.update("INSERT INTO escala_dia_voluntario (escala_dia_id, voluntario_id) " +
+                "SELECT ed.id, p.id + ((ed.id * 8 + k) % ?) FROM escala_dia ed, generate_series(0, 7) k, " +
+                "(SELECT min(id) AS id FROM voluntario WHERE nom_usuario LIKE 'Voluntario %') p", VOLUNTARIOS);
+        jdbcTemplate.execute("ANALYZE");
+
+        voluntarioId = jdbcTemplate.queryForObject("SELECT v.id FROM voluntario v JOIN usuario u ON u.id = v.usuario_id " +
+                "WHERE u.email = 'plano4321@teste.com'", Long.class);
+        email = "plano4321@teste.com";
+        escala = escalaRepository.findByAnoAndMes(2040, 3).orElseThrow();
+        escalaIds = escalaRepository.findAll(EscalaSpecifications.byFilters(Map.of("ano", "2041")), PageRequest.of(0, 12))
+                .map(Escala::getId).getContent();
+        contador.zera();
+    }
+
+    @Test
+    void consultasDeEscala_SemSeqScan() {
+        Map<String, Executavel> consultas = new LinkedHashMap<>();
+        consultas.put("findByAnoAndMes", () -> escalaRepository.findByAnoAndMes(2042, 1).orElseThrow());
+        consultas.put("findEscalaByMesAnoVoluntario", () -> escalaRepository.findEscalaByMesAnoVoluntario(3, 2040L, voluntarioId));
+        consultas.put("existsByVoluntarioId", () -> escalaRepository.existsByVoluntarioId(voluntarioId));
+        consultas.put("findDatasEntre", () -> escalaRepository.findDatasEntre(LocalDate.of(2040, 3, 1), LocalDate.of(2040, 5, 30)));
+        consultas.put("findDatasByEscalaIds", () -> escalaRepository.findDatasByEscalaIds(escalaIds));
+        consultas.put("findDiasComVoluntariosByEscalaIds", () -> escalaRepository.findDiasComVoluntariosByEscalaIds(escalaIds));
+        consultas.put("streamLinhasExportacao(ano)", () -> {
+            try (Stream<?> linhas = escalaRepository.streamLinhasExportacao(2040L)) {
+                linhas.toList();
+            }
+        });
+        consultas.put("streamDatasExportacao(ano)", () -> {
+            try (Stream<?> datas = escalaRepository.streamDatasExportacao(2040L)) {
+                datas.toList();
+            }
+        });
+        consultas.put("pesquisa por ano", () -> escalaRepository.findAll(EscalaSpecifications.byFilters(Map.of("ano", "2040")), PageRequest.of(0, 5)));
+        consultas.put("pesquisa por data", () -> escalaRepository.findAll(EscalaSpecifications.byFilters(Map.of("data", "2040-03-11")), PageRequest.of(0, 5)));
+        consultas.put("pesquisa por voluntario", () -> escalaRepository.findAll(
+                EscalaSpecifications.byFilters(Map.of("voluntarioId", voluntarioId.toString())), PageRequest.of(0, 5)));
+
+        assertSemSeqScan(consultas);
+    }
+
+    @Test
+    void consultasDeVoluntario_SemSeqScan() {
+        LocalDate data = PRIMEIRA_DATA.plusDays(1_000);
+        Map<String, Executavel> consultas = new LinkedHashMap<>();
+        consultas.put("findVoluntariosByData", () -> carrega(voluntarioRepository.findVoluntariosByData(data).orElseThrow()));
+        consultas.put("findVoluntariosByIds", () -> carrega(voluntarioRepository.findVoluntariosByIds(
+                List.of(voluntarioId, voluntarioId + 1, voluntarioId + 2)).orElseThrow()));
+        consultas.put("findVoluntariosDisponiveisNasDatas", () -> carrega(voluntarioRepository.findVoluntariosDisponiveisNasDatas(
+                List.of(data, data.plusDays(7)))));
+        consultas.put("findByUsuarioEmail", () -> carrega(List.of(voluntarioRepository.findByUsuarioEmail(email).orElseThrow())));
+        consultas.put("findParaLoginByEmail", () -> voluntarioRepository.findParaLoginByEmail(email).orElseThrow());
+        consultas.put("getDatasDisponiveisByIdVoluntario", () -> voluntarioRepository.getDatasDisponiveisByIdVoluntario(voluntarioId));
+        consultas.put("usuario findByEmail", () -> usuarioRepository.findByEmail(email).orElseThrow());
+
+        assertSemSeqScan(consultas);
+    }
+
+    @Test
+    void comandosJdbc_SemSeqScan() {
+        LocalDate data = LocalDate.of(2040, 3, 11);
+        Map<String, Executavel> consultas = new LinkedHashMap<>();
+        consultas.put("emailsCadastrados", () -> voluntarioJdbcRepository.emailsCadastrados(List.of(email, "nao.existe@teste.com")));
+        consultas.put("voluntariosCadastrados", () -> voluntarioJdbcRepository.voluntariosCadastrados(List.of(voluntarioId, -1L)));
+        consultas.put("removeDatasDisponiveis", () -> voluntarioJdbcRepository.removeDatasDisponiveis(List.of(voluntarioId), List.of(data)));
+        consultas.put("removeVoluntarioDosDiasIndisponiveis", () -> escalaDiaJdbcRepository.removeVoluntarioDosDiasIndisponiveis(voluntarioId));
+        consultas.put("removeVoluntariosDasDatas", () -> escalaDiaJdbcRepository.removeVoluntariosDasDatas(
+                List.of(voluntarioId, voluntarioId + 1), List.of(data, data)));
+        consultas.put("removeDias", () -> escalaDiaJdbcRepository.removeDias(escala.getId()));
+
+        assertSemSeqScan(consultas);
+    }
+
+    // executa cada chamada, repete com EXPLAIN o SQL que ela enviou e junta as tabelas lidas por Seq Scan
+    private void assertSemSeqScan(Map<String, Executavel> consultas) {
+        List<String> falhas = new ArrayList<>();
+        consultas.forEach((nome, chamada) -> {
+            contador.zera();
+            try {
+                chamada.executa();
+            } catch (Exception e) {
+                throw new IllegalStateException(nome, e);
+            }
+            List<ContadorDeStatements.Executada> executadas = contador.getExecutadas();
+            assertFalse(executadas.isEmpty(), nome + " não consultou o banco");
+            for (ContadorDeStatements.Executada executada : executadas) {
+                JsonNode plano = explica(executada);
+                List<String> seqScans = new ArrayList<>();
+                seqScans(plano, seqScans);
+                seqScans.removeAll(SEQ_SCAN_ESPERADO.getOrDefault(nome, Set.of()));
+                if (!seqScans.isEmpty()) {
+                    falhas.add(nome + ": Seq Scan em " + seqScans + "\n" + executada.sql() + "\n" + plano.toPrettyString());
+                }
+            }
+        });
+        assertTrue(falhas.isEmpty(), String.join("\n\n", falhas));
+    }
+
+    private JsonNode explica(ContadorDeStatements.Executada executada) {
+        String plano = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement("EXPLAIN (FORMAT JSON) " + executada.sql());
+            for (ParameterSetOperation parametro : executada.parametros()) {
+                try {
+                    parametro.getMethod().invoke(ps, parametro.getArgs());
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return ps;
+        }, rs -> rs.next() ? rs.getString(1) : null);
+        try {
+            return objectMapper.readTree(plano).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException(plano, e);
+        }
+    }
+
+    private static void seqScans(JsonNode no, List<String> tabelas) {
+        if ("Seq Scan".equals(no.path("Node Type").asText())) {
+            tabelas.add(no.path("Relation Name").asText());
+        }
+        no.path("Plans").forEach(filho -> seqScans(filho, tabelas));
+    }
+
+    private static void carrega(List<Voluntario> voluntarios) {
+        voluntarios.forEach(v -> {
+            v.getDatasDisponiveis().size();
+            if (v.getUsuario() != null) {
+                v.getUsuario().getEmail();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Executavel {
+        void executa() throws Exception;
+    }
+}
@@ -0,0 +1,109 @@
+package com.crescer_aprender.escala.repository;
+
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.support.ContadorDeStatements;
+import com.crescer_aprender.escala.support.ContadorDeStatementsConfig;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(ContadorDeStatementsConfig.class)
+class VoluntarioRepositoryTest {
+
+    @Autowired
+    private VoluntarioRepository voluntarioRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ContadorDeStatements contador;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findParaLoginByEmail_UmUnicoSelect() {
+        Usuario usuario = usuarioRepository.save(Usuario.builder().email("maria@gmail.com").senha("hash").role(PerfisUsuariosEnum.VOLUNTARIO).build());
+        List<LocalDate> datas = List.of(LocalDate.of(2025, 8, 2), LocalDate.of(2025, 8, 9), LocalDate.of(2025, 8, 16));
+        voluntarioRepository.save(Voluntario.builder().nome("Maria").usuario(usuario).datasDisponiveis(new HashSet<>(datas)).build());
+        entityManager.flush();
+        entityManager.clear();
+        contador.zera();
+
+        Voluntario voluntario = voluntarioRepository.findParaLoginByEmail("maria@gmail.com").orElseThrow();
+        // tudo o que o login usa: senha e perfil do usuário, nome e datas do voluntário
+        assertEquals("hash", voluntario.getUsuario().getSenha());
+        assertEquals(PerfisUsuariosEnum.VOLUNTARIO, voluntario.getUsuario().getRole());
+        assertEquals("Maria", voluntario.getNome());
+        assertEquals(datas, List.copyOf(voluntario.getDatasDisponiveis()));
+
+        assertEquals(1, contador.getExecucoes(), contador.getConsultas().toString());
+    }
+
+    @Test
+    void findParaLoginByEmail_VoluntarioSemDatas() {
+        Usuario usuario = usuarioRepository.save(Usuario.builder().email("joao@gmail.com").senha("hash").role(PerfisUsuariosEnum.COORDENADOR).build());
+        voluntarioRepository.save(Voluntario.builder().nome("João").usuario(usuario).datasDisponiveis(new HashSet<>()).build());
+        entityManager.flush();
+        entityManager.clear();
+
+        Voluntario voluntario = voluntarioRepository.findParaLoginByEmail("joao@gmail.com").orElseThrow();
+
+        assertTrue(voluntario.getDatasDisponiveis().isEmpty());
+        assertTrue(voluntarioRepository.findParaLoginByEmail("ninguem@gmail.com").isEmpty());
+    }
+
+    @Test
+    void datasDisponiveis_AlteracaoGravaSoAsDatasQueMudaram() {
+        Set<LocalDate> ano = new HashSet<>();
+        for (LocalDate data = LocalDate.of(2025, 1, 4); data.getYear() == 2025; data = data.plusWeeks(1)) {
+            ano.add(data);
+        }
+        Voluntario salvo = voluntarioRepository.saveAndFlush(Voluntario.builder().nome("Maria").datasDisponiveis(ano).build());
+        entityManager.clear();
+        Voluntario voluntario = voluntarioRepository.findById(salvo.getId()).orElseThrow();
+        voluntario.getDatasDisponiveis().size();
+        contador.zera();
+
+        voluntario.getDatasDisponiveis().remove(LocalDate.of(2025, 1, 4));
+        voluntario.getDatasDisponiveis().add(LocalDate.of(2026, 1, 3));
+        voluntarioRepository.saveAndFlush(voluntario);
+
+        // a List (bag) apagava as 52 datas e regravava todas; o conjunto grava só a data removida e a incluída
+        assertEquals(2, contador.getStatements(), contador.getConsultas().toString());
+        assertEquals(1, contador.getConsultas().stream().filter(sql -> sql.startsWith("delete")).count());
+        assertEquals(1, contador.getConsultas().stream().filter(sql -> sql.startsWith("insert")).count());
+        assertEquals(ano.size(), jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM voluntario_datas_disponiveis WHERE voluntario_id = ?", Integer.class, voluntario.getId()));
+    }
+
+    @Test
+    void datasDisponiveis_MesmaDataDuasVezesViolaUnicidade() {
+        Voluntario voluntario = voluntarioRepository.saveAndFlush(Voluntario.builder().nome("Maria")
+                .datasDisponiveis(new HashSet<>(Set.of(LocalDate.of(2025, 8, 2)))).build());
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO voluntario_datas_disponiveis (voluntario_id, datas_disponiveis) VALUES (?, ?)",
+                voluntario.getId(), LocalDate.of(2025, 8, 2)));
+    }
+}
@@ -0,0 +1,97 @@
+package com.crescer_aprender.escala.security;
+
+import com.crescer_aprender.escala.exception.SenhasSobrecarregadasException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodificadorDeSenhasTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    // uma thread e uma vaga na fila: a terceira operação simultânea é recusada
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), new ThreadPoolExecutor.AbortPolicy());
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void codificaEConfere_NoPoolComMetricas() {
+        CodificadorDeSenhas codificador = new CodificadorDeSenhas(new BCryptPasswordEncoder(4), executor, Duration.ofSeconds(5), registry);
+
+        String hash = codificador.encode("maria123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertTrue(codificador.matches("maria123", hash));
+        assertFalse(codificador.matches("errada", hash));
+        assertEquals(1, registry.get("escala.senhas.hash").tag("operacao", "codifica").timer().count());
+        assertEquals(2, registry.get("escala.senhas.hash").tag("operacao", "confere").timer().count());
+        assertEquals(0, registry.get("escala.senhas.rejeitadas").counter().count());
+    }
+
+    @Test
+    void filaCheia_RecusaNaHora() throws Exception {
+        CountDownLatch libera = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        PasswordEncoder lento = new LentoAte(libera, ocupado);
+        CodificadorDeSenhas codificador = new CodificadorDeSenhas(lento, executor, Duration.ofSeconds(5), registry);
+
+        CompletableFuture<String> naThread = CompletableFuture.supplyAsync(() -> codificador.encode("a"));
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> naFila = CompletableFuture.supplyAsync(() -> codificador.encode("b"));
+        while (executor.getQueue().isEmpty()) {
+            Thread.onSpinWait();
+        }
+
+        long inicio = System.nanoTime();
+        assertThrows(SenhasSobrecarregadasException.class, () -> codificador.encode("c"));
+        assertTrue(System.nanoTime() - inicio < TimeUnit.SECONDS.toNanos(1), "a recusa não deve esperar a fila");
+        assertEquals(1, registry.get("escala.senhas.rejeitadas").counter().count());
+
+        libera.countDown();
+        assertEquals("hash-a", naThread.get(5, TimeUnit.SECONDS));
+        assertEquals("hash-b", naFila.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void esperaEstourada_Recusa() {
+        CountDownLatch nuncaLibera = new CountDownLatch(1);
+        CodificadorDeSenhas codificador = new CodificadorDeSenhas(new LentoAte(nuncaLibera, new CountDownLatch(1)), executor,
+                Duration.ofMillis(50), registry);
+
+        assertThrows(SenhasSobrecarregadasException.class, () -> codificador.matches("a", "hash-a"));
+        assertEquals(1, registry.get("escala.senhas.rejeitadas").counter().count());
+    }
+
+    private record LentoAte(CountDownLatch libera, CountDownLatch ocupado) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            ocupado.countDown();
+            try {
+                libera.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "hash-" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.crescer_aprender.escala.security;
+
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.enums.ModosAutenticacaoEnum;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.service.UsuarioDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UsuarioDetailsService usuarioDetailsService;
+
+    @Mock
+    private RevogacaoTokens revogacaoTokens;
+
+    private final JwtService jwtService = new JwtService("um-segredo-de-teste-com-mais-de-32-bytes", 100);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        token = jwtService.generateToken(Usuario.builder().id(7L).email("coord@gmail.com").role(PerfisUsuariosEnum.COORDENADOR).build());
+    }
+
+    @AfterEach
+    void limpaContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private MockHttpServletResponse executa(ModosAutenticacaoEnum modo) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/crescer-aprender/escala");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new JwtAuthenticationFilter(jwtService, usuarioDetailsService, revogacaoTokens, modo, registry)
+                .doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Test
+    void modoToken_AutenticaPeloPerfilDoTokenSemConsultarUsuario() throws Exception {
+        executa(ModosAutenticacaoEnum.TOKEN);
+
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals("coord@gmail.com", autenticacao.getName());
+        assertTrue(autenticacao.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("COORDENADOR")));
+        verifyNoInteractions(usuarioDetailsService);
+        assertEquals(1, registry.get("escala.autenticacao.jwt").tag("resultado", "autenticado").timer().count());
+    }
+
+    @Test
+    void modoBanco_CarregaOUsuario() throws Exception {
+        when(usuarioDetailsService.loadUserByUsername("coord@gmail.com"))
+                .thenReturn(User.withUsername("coord@gmail.com").password("hash").authorities("VOLUNTARIO").build());
+
+        executa(ModosAutenticacaoEnum.BANCO);
+
+        assertTrue(SecurityContextHolder.getContext().getAuthentication().getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("VOLUNTARIO")));
+        verify(usuarioDetailsService).loadUserByUsername("coord@gmail.com");
+    }
+
+    @Test
+    void tokenRevogado_Responde401() throws Exception {
+        when(revogacaoTokens.isRevogado(any())).thenReturn(true);
+
+        MockHttpServletResponse response = executa(ModosAutenticacaoEnum.TOKEN);
+
+        assertEquals(401, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertEquals(1, registry.get("escala.autenticacao.jwt").tag("resultado", "revogado").timer().count());
+        assertEquals(0, registry.get("escala.autenticacao.jwt").tag("resultado", "autenticado").timer().count());
+    }
+}
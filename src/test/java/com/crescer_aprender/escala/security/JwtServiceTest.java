@@ -0,0 +1,93 @@
+package com.crescer_aprender.escala.security;
+
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SEGREDO = "um-segredo-de-teste-com-mais-de-32-bytes";
+
+    private JwtService jwtService;
+    private UserDetails maria;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SEGREDO, 100);
+        maria = User.withUsername("maria@gmail.com").password("hash").authorities("VOLUNTARIO").build();
+    }
+
+    @Test
+    void verifica_TokenGerado() {
+        String token = jwtService.generateToken(maria);
+
+        TokenVerificado verificado = jwtService.verifica(token);
+
+        assertEquals("maria@gmail.com", verificado.username());
+        assertTrue(verificado.expiracao().isAfter(Instant.now().plus(JwtService.VALIDADE_DO_TOKEN).minusSeconds(60)));
+        assertTrue(jwtService.isTokenValid(verificado, maria));
+        assertFalse(jwtService.isTokenValid(verificado, User.withUsername("outro@gmail.com").password("x").authorities("VOLUNTARIO").build()));
+    }
+
+    @Test
+    void verifica_TokenDoUsuarioTrazIdPerfilEJti() {
+        Usuario usuario = Usuario.builder().id(7L).email("maria@gmail.com").senha("hash").role(PerfisUsuariosEnum.COORDENADOR).build();
+
+        TokenVerificado verificado = jwtService.verifica(jwtService.generateToken(usuario));
+
+        assertEquals("maria@gmail.com", verificado.username());
+        assertEquals(7L, verificado.usuarioId());
+        assertEquals(PerfisUsuariosEnum.COORDENADOR, verificado.role());
+        assertNotNull(verificado.id());
+        assertNotEquals(verificado.id(), jwtService.verifica(jwtService.generateToken(usuario)).id());
+        assertFalse(verificado.emitidoEm().isAfter(Instant.now()));
+    }
+
+    @Test
+    void verifica_MesmoTokenVemDoCache() {
+        String token = jwtService.generateToken(maria);
+
+        assertSame(jwtService.verifica(token), jwtService.verifica(token));
+    }
+
+    @Test
+    void verifica_AssinaturaDeOutraChave_DeveLancarExcecao() {
+        String token = new JwtService("outro-segredo-de-teste-com-mais-de-32-bytes", 100).generateToken(maria);
+
+        assertThrows(JwtException.class, () -> jwtService.verifica(token));
+    }
+
+    @Test
+    void verifica_TokenExpirado_DeveLancarExcecao() {
+        String token = Jwts.builder().subject("maria@gmail.com")
+                .issuedAt(Date.from(Instant.now().minusSeconds(120)))
+                .expiration(Date.from(Instant.now().minusSeconds(60)))
+                .signWith(Keys.hmacShaKeyFor(SEGREDO.getBytes(StandardCharsets.UTF_8)), Jwts.SIG.HS256)
+                .compact();
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verifica(token));
+    }
+
+    @Test
+    void segredoCurto_ChaveDerivadaContinuaValida() {
+        JwtService comSegredoCurto = new JwtService("teste-de-chave-secreta", 100);
+
+        String token = comSegredoCurto.generateToken(maria);
+
+        assertEquals("maria@gmail.com", comSegredoCurto.extractUsername(token));
+        assertThrows(JwtException.class, () -> jwtService.verifica(token));
+    }
+}
@@ -0,0 +1,80 @@
+package com.crescer_aprender.escala.security;
+
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(RevogacaoTokens.class)
+class RevogacaoTokensTest {
+
+    @Autowired
+    private RevogacaoTokens revogacaoTokens;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // outra instância da aplicação, que só enxerga as revogações pelo banco
+    private RevogacaoTokens outraInstancia;
+
+    @BeforeEach
+    void setUp() {
+        outraInstancia = new RevogacaoTokens(jdbcTemplate);
+    }
+
+    private static TokenVerificado token(Long usuarioId, Instant emitidoEm) {
+        return new TokenVerificado(UUID.randomUUID().toString(), "maria@gmail.com", usuarioId, null,
+                emitidoEm.truncatedTo(ChronoUnit.SECONDS), emitidoEm.plus(JwtService.VALIDADE_DO_TOKEN));
+    }
+
+    @Test
+    void revogaToken_SoOTokenInformado() {
+        TokenVerificado revogado = token(1L, Instant.now());
+        TokenVerificado outro = token(1L, Instant.now());
+
+        revogacaoTokens.revogaToken(revogado);
+
+        assertTrue(revogacaoTokens.isRevogado(revogado));
+        assertFalse(revogacaoTokens.isRevogado(outro));
+        assertFalse(outraInstancia.isRevogado(revogado));
+        outraInstancia.atualiza();
+        assertTrue(outraInstancia.isRevogado(revogado));
+    }
+
+    @Test
+    void revogaUsuario_TokensEmitidosAntesDeixamDeValer() {
+        TokenVerificado antigo = token(2L, Instant.now().minusSeconds(60));
+        TokenVerificado deOutroUsuario = token(3L, Instant.now().minusSeconds(60));
+
+        revogacaoTokens.revogaUsuario(2L);
+        outraInstancia.atualiza();
+
+        TokenVerificado novoLogin = token(2L, Instant.now().plusSeconds(2));
+        for (RevogacaoTokens instancia : new RevogacaoTokens[]{revogacaoTokens, outraInstancia}) {
+            assertTrue(instancia.isRevogado(antigo));
+            assertFalse(instancia.isRevogado(deOutroUsuario));
+            assertFalse(instancia.isRevogado(novoLogin));
+        }
+    }
+
+    @Test
+    void atualiza_DescartaTokensJaExpirados() {
+        jdbcTemplate.update("INSERT INTO token_revogado (jti, expira_em) VALUES (?, ?)", "expirado", Timestamp.from(Instant.now().minusSeconds(1)));
+
+        outraInstancia.atualiza();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM token_revogado WHERE jti = 'expirado'", Integer.class));
+    }
+}
@@ -0,0 +1,154 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.DisponibilidadeLoteResultado;
+import com.crescer_aprender.escala.dto.DisponibilidadeRequest;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.exception.EntityNotFoundException;
+import com.crescer_aprender.escala.exception.InvalidVoluntarioDataException;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.crescer_aprender.escala.repository.VoluntarioJdbcRepository;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import com.crescer_aprender.escala.support.ContadorDeStatements;
+import com.crescer_aprender.escala.support.ContadorDeStatementsConfig;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Alteração de disponibilidade de vários voluntários contra um PostgreSQL embarcado: o número de comandos não
+ * depende de quantos voluntários e datas vêm no lote, e só as alocações nas datas removidas saem das escalas.
+ */
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({VoluntarioJdbcRepository.class, EscalaDiaJdbcRepository.class, ContadorDeStatementsConfig.class})
+class DisponibilidadeLoteServiceTest {
+
+    private static final LocalDate SABADO_1 = LocalDate.of(2031, 3, 1);
+    private static final LocalDate SABADO_2 = LocalDate.of(2031, 3, 8);
+    private static final LocalDate SABADO_3 = LocalDate.of(2031, 3, 15);
+
+    private final IndiceDisponibilidade indiceDisponibilidade = mock(IndiceDisponibilidade.class);
+
+    @Autowired
+    private VoluntarioJdbcRepository voluntarioJdbcRepository;
+
+    @Autowired
+    private EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
+    @Autowired
+    private VoluntarioRepository voluntarioRepository;
+
+    @Autowired
+    private EscalaRepository escalaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ContadorDeStatements contador;
+
+    private DisponibilidadeLoteService service;
+    private List<Voluntario> voluntarios;
+    private List<EscalaDia> dias;
+
+    // 20 voluntários disponíveis nos três sábados e escalados em todos eles
+    @BeforeEach
+    void setUp() {
+        service = new DisponibilidadeLoteService(voluntarioJdbcRepository, escalaDiaJdbcRepository, indiceDisponibilidade, 100);
+        List<Voluntario> novos = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            novos.add(Voluntario.builder().nome("Voluntario " + i).datasDisponiveis(new HashSet<>(Set.of(SABADO_1, SABADO_2, SABADO_3))).build());
+        }
+        voluntarios = voluntarioRepository.saveAllAndFlush(novos);
+        Escala escala = escalaRepository.saveAndFlush(Escala.builder().ano(2031L).mes(3).datas(new ArrayList<>(List.of(SABADO_1, SABADO_2, SABADO_3))).build());
+        dias = new ArrayList<>();
+        for (LocalDate data : List.of(SABADO_1, SABADO_2, SABADO_3)) {
+            dias.add(EscalaDia.builder().data(data).voluntarios(voluntarios).build());
+        }
+        escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+        contador.zera();
+    }
+
+    private Long id(int voluntario) {
+        return voluntarios.get(voluntario).getId();
+    }
+
+    private List<LocalDate> datasDisponiveis(Long voluntarioId) {
+        return jdbcTemplate.queryForList("SELECT datas_disponiveis FROM voluntario_datas_disponiveis WHERE voluntario_id = ? ORDER BY 1",
+                LocalDate.class, voluntarioId);
+    }
+
+    private List<LocalDate> datasEscaladas(Long voluntarioId) {
+        return jdbcTemplate.queryForList("SELECT ed.data_escala_dia FROM escala_dia_voluntario edv JOIN escala_dia ed ON ed.id = edv.escala_dia_id " +
+                "WHERE edv.voluntario_id = ? ORDER BY 1", LocalDate.class, voluntarioId);
+    }
+
+    @Test
+    void altera_NumeroFixoDeComandosELimpezaSoNasDatasRemovidas() {
+        LocalDate novaData = LocalDate.of(2031, 3, 22);
+        Map<Long, DisponibilidadeRequest> alteracoes = new HashMap<>();
+        // os 10 primeiros deixam o primeiro sábado; o 10 troca o segundo pelo dia 22; o 11 manda o terceiro nas duas listas
+        for (int i = 0; i < 10; i++) {
+            alteracoes.put(id(i), DisponibilidadeRequest.builder().remover(Set.of(SABADO_1)).build());
+        }
+        alteracoes.put(id(10), DisponibilidadeRequest.builder().incluir(Set.of(novaData)).remover(Set.of(SABADO_2)).build());
+        alteracoes.put(id(11), DisponibilidadeRequest.builder().incluir(Set.of(SABADO_3)).remover(Set.of(SABADO_3)).build());
+
+        DisponibilidadeLoteResultado resultado = service.altera(alteracoes);
+
+        // ids + DELETE das datas + INSERT das datas + limpeza dos dias
+        assertEquals(4, contador.getExecucoes());
+        assertEquals(12, resultado.getVoluntarios());
+        assertEquals(11, resultado.getDatasRemovidas());
+        assertEquals(1, resultado.getDatasIncluidas());
+        assertEquals(List.of(dias.get(0).getId(), dias.get(1).getId()), resultado.getDiasAlterados());
+
+        assertEquals(List.of(SABADO_2, SABADO_3), datasDisponiveis(id(0)));
+        assertEquals(List.of(SABADO_2, SABADO_3), datasEscaladas(id(0)));
+        assertEquals(List.of(SABADO_1, SABADO_3, novaData), datasDisponiveis(id(10)));
+        assertEquals(List.of(SABADO_1, SABADO_3), datasEscaladas(id(10)));
+        assertEquals(List.of(SABADO_1, SABADO_2, SABADO_3), datasEscaladas(id(11)));
+        assertEquals(List.of(SABADO_1, SABADO_2, SABADO_3), datasEscaladas(id(19)));
+        verify(indiceDisponibilidade).altera(id(10), Set.of(novaData), Set.of(SABADO_2));
+        verify(indiceDisponibilidade).altera(id(11), Set.of(SABADO_3), Set.of());
+    }
+
+    @Test
+    void altera_VoluntarioInexistente_NaoAlteraNada() {
+        Map<Long, DisponibilidadeRequest> alteracoes = Map.of(
+                id(0), DisponibilidadeRequest.builder().remover(Set.of(SABADO_1)).build(),
+                -1L, DisponibilidadeRequest.builder().remover(Set.of(SABADO_1)).build());
+
+        EntityNotFoundException erro = assertThrows(EntityNotFoundException.class, () -> service.altera(alteracoes));
+
+        assertTrue(erro.getReason().contains("-1"));
+        assertEquals(List.of(SABADO_1, SABADO_2, SABADO_3), datasDisponiveis(id(0)));
+        verifyNoInteractions(indiceDisponibilidade);
+    }
+
+    @Test
+    void altera_LoteVazioOuGrandeDemais() {
+        assertThrows(InvalidVoluntarioDataException.class, () -> service.altera(Map.of()));
+        DisponibilidadeLoteService pequeno = new DisponibilidadeLoteService(voluntarioJdbcRepository, escalaDiaJdbcRepository, indiceDisponibilidade, 1);
+        assertThrows(InvalidVoluntarioDataException.class, () -> pequeno.altera(Map.of(
+                id(0), new DisponibilidadeRequest(), id(1), new DisponibilidadeRequest())));
+    }
+}
@@ -0,0 +1,109 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.EscalaDataLinha;
+import com.crescer_aprender.escala.dto.EscalaExportacaoLinha;
+import com.crescer_aprender.escala.enums.FormatosExportacaoEnum;
+import com.crescer_aprender.escala.exception.InvalidFormatoExportacaoException;
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EscalaExportacaoServiceTest {
+
+    @Mock
+    private EscalaRepository escalaRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private EscalaExportacaoService exportacaoService;
+
+    private final AtomicBoolean streamFechado = new AtomicBoolean();
+    private final AtomicBoolean datasFechado = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportacaoService = new EscalaExportacaoService(escalaRepository, objectMapper);
+        when(escalaRepository.streamLinhasExportacao(any())).thenAnswer(i -> Stream.of(
+                new EscalaExportacaoLinha(1L, 7, 2025L, 10L, LocalDate.of(2025, 7, 5), 1L, "Ana"),
+                new EscalaExportacaoLinha(1L, 7, 2025L, 10L, LocalDate.of(2025, 7, 5), 2L, "Silva, Bruno"),
+                new EscalaExportacaoLinha(1L, 7, 2025L, 11L, LocalDate.of(2025, 7, 12), 1L, "Ana"),
+                new EscalaExportacaoLinha(2L, 8, 2025L, null, null, null, null)
+        ).onClose(() -> streamFechado.set(true)));
+        // agosto tem data mas ainda não tem dias gerados
+        when(escalaRepository.streamDatasExportacao(any())).thenAnswer(i -> Stream.of(
+                new EscalaDataLinha(1L, LocalDate.of(2025, 7, 5)),
+                new EscalaDataLinha(1L, LocalDate.of(2025, 7, 12)),
+                new EscalaDataLinha(1L, LocalDate.of(2025, 7, 19)),
+                new EscalaDataLinha(2L, LocalDate.of(2025, 8, 2))
+        ).onClose(() -> datasFechado.set(true)));
+    }
+
+    private String exporta(FormatosExportacaoEnum formato) throws Exception {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+        exportacaoService.exporta(2025L, formato, saida);
+        return saida.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void exporta_NdjsonUmaEscalaPorLinha() throws Exception {
+        String[] linhas = exporta(FormatosExportacaoEnum.NDJSON).split("\n");
+
+        assertEquals(2, linhas.length);
+        JsonNode julho = objectMapper.readTree(linhas[0]);
+        assertEquals(7, julho.get("mes").asInt());
+        assertEquals(2, julho.get("dias").size());
+        assertEquals("2025-07-05", julho.get("dias").get(0).get("data").asText());
+        assertEquals(2, julho.get("dias").get(0).get("voluntarios").size());
+        assertEquals(List.of("2025-07-05", "2025-07-12", "2025-07-19"), textos(julho.get("datas")));
+        JsonNode agosto = objectMapper.readTree(linhas[1]);
+        assertEquals(0, agosto.get("dias").size());
+        assertEquals(List.of("2025-08-02"), textos(agosto.get("datas")));
+        assertTrue(streamFechado.get());
+        assertTrue(datasFechado.get());
+        verify(escalaRepository).streamLinhasExportacao(2025L);
+        verify(escalaRepository).streamDatasExportacao(2025L);
+    }
+
+    private static List<String> textos(JsonNode array) {
+        List<String> textos = new ArrayList<>();
+        array.forEach(no -> textos.add(no.asText()));
+        return textos;
+    }
+
+    @Test
+    void exporta_CsvUmaLinhaPorDiaEVoluntario() throws Exception {
+        List<String> linhas = exporta(FormatosExportacaoEnum.CSV).lines().toList();
+
+        assertEquals(EscalaExportacaoService.CABECALHO_CSV, linhas.get(0));
+        assertEquals(5, linhas.size());
+        assertEquals("1,2025,7,10,2025-07-05,2,\"Silva, Bruno\"", linhas.get(2));
+        assertEquals("2,2025,8,,,,", linhas.get(4));
+        assertTrue(streamFechado.get());
+        verify(escalaRepository, never()).streamDatasExportacao(any());
+    }
+
+    @Test
+    void formato_InvalidoDeveLancarExcecao() {
+        assertEquals(FormatosExportacaoEnum.CSV, FormatosExportacaoEnum.de("csv"));
+        assertThrows(InvalidFormatoExportacaoException.class, () -> FormatosExportacaoEnum.de("xml"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.EscalaCreateRequest;
+import com.crescer_aprender.escala.dto.EscalaLoteResultado;
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.exception.EscalaAlreadyExistsException;
+import com.crescer_aprender.escala.exception.InvalidEscalaLoteException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class EscalaLoteServiceTest {
+
+    @Mock
+    private EscalaService escalaService;
+
+    private ExecutorService executor;
+    private EscalaLoteService escalaLoteService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        executor = Executors.newFixedThreadPool(3, Thread.ofVirtual().factory());
+        escalaLoteService = new EscalaLoteService(escalaService, executor, 6);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static EscalaCreateRequest request(int mes) {
+        return EscalaCreateRequest.builder()
+                .ano(2026L)
+                .mes(mes)
+                .datas(List.of(LocalDate.of(2026, mes, 7)))
+                .incluirVoluntariosAutomaticamente(Boolean.TRUE)
+                .build();
+    }
+
+    @Test
+    void saveAll_GeraTodosOsMesesEmParaleloNaOrdemDaRequest() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(escalaService.saveFromRequest(any())).thenAnswer(i -> {
+            EscalaCreateRequest request = i.getArgument(0);
+            threads.add(Thread.currentThread().toString());
+            return Escala.builder().id(100L + request.getMes()).mes(request.getMes()).ano(request.getAno()).build();
+        });
+
+        List<EscalaLoteResultado> resultados = escalaLoteService.saveAll(List.of(request(1), request(2), request(3), request(4)));
+
+        assertEquals(List.of(1, 2, 3, 4), resultados.stream().map(EscalaLoteResultado::getMes).toList());
+        assertTrue(resultados.stream().allMatch(EscalaLoteResultado::isSucesso));
+        assertEquals(List.of(101L, 102L, 103L, 104L), resultados.stream().map(EscalaLoteResultado::getEscalaId).toList());
+        assertTrue(threads.stream().noneMatch(t -> t.contains("main")));
+        verify(escalaService, times(4)).saveFromRequest(any());
+    }
+
+    @Test
+    void saveAll_ReportaFalhaPorMes() {
+        when(escalaService.saveFromRequest(any())).thenAnswer(i -> {
+            EscalaCreateRequest request = i.getArgument(0);
+            if (request.getMes() == 2) {
+                throw new EscalaAlreadyExistsException(request.getAno(), request.getMes());
+            }
+            return Escala.builder().id(1L).mes(request.getMes()).ano(request.getAno()).build();
+        });
+
+        List<EscalaLoteResultado> resultados = escalaLoteService.saveAll(List.of(request(1), request(2), request(3)));
+
+        assertTrue(resultados.get(0).isSucesso());
+        assertFalse(resultados.get(1).isSucesso());
+        assertTrue(resultados.get(1).getErrorMessage().contains("já existe"));
+        assertTrue(resultados.get(2).isSucesso());
+    }
+
+    @Test
+    void saveAll_MesRepetidoNoLoteNaoEhGeradoDuasVezes() {
+        when(escalaService.saveFromRequest(any())).thenAnswer(i -> {
+            EscalaCreateRequest request = i.getArgument(0);
+            return Escala.builder().id(1L).mes(request.getMes()).ano(request.getAno()).build();
+        });
+
+        List<EscalaLoteResultado> resultados = escalaLoteService.saveAll(List.of(request(5), request(5)));
+
+        assertTrue(resultados.get(0).isSucesso());
+        assertFalse(resultados.get(1).isSucesso());
+        verify(escalaService, times(1)).saveFromRequest(any());
+    }
+
+    @Test
+    void saveAll_LoteVazioOuGrandeDemais_DeveLancarExcecao() {
+        assertThrows(InvalidEscalaLoteException.class, () -> escalaLoteService.saveAll(Collections.emptyList()));
+
+        List<EscalaCreateRequest> requests = new ArrayList<>();
+        for (int mes = 1; mes <= 7; mes++) requests.add(request(mes));
+        assertThrows(InvalidEscalaLoteException.class, () -> escalaLoteService.saveAll(requests));
+        verifyNoInteractions(escalaService);
+    }
+}
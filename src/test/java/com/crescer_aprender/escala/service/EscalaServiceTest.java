@@ -4,24 +4,40 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 import com.crescer_aprender.escala.dto.EscalaCreateRequest;
+import com.crescer_aprender.escala.dto.EscalaCursorResponse;
+import com.crescer_aprender.escala.dto.EscalaDataLinha;
+import com.crescer_aprender.escala.dto.EscalaDiaRequest;
+import com.crescer_aprender.escala.dto.EscalaDiaVoluntarioLinha;
+import com.crescer_aprender.escala.dto.EscalaResponse;
+import com.crescer_aprender.escala.dto.VoluntarioResumo;
 import com.crescer_aprender.escala.entity.Escala;
 import com.crescer_aprender.escala.entity.EscalaDia;
 import com.crescer_aprender.escala.entity.Voluntario;
 import com.crescer_aprender.escala.exception.EscalaAlreadyExistsException;
 import com.crescer_aprender.escala.exception.EntityNotFoundException;
+import com.crescer_aprender.escala.exception.InvalidCursorException;
 import com.crescer_aprender.escala.exception.InvalidVoluntarioDataException;
 import com.crescer_aprender.escala.exception.VoluntarioNotExistException;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
 import com.crescer_aprender.escala.repository.EscalaRepository;
 import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import com.crescer_aprender.escala.service.alocacao.AlocacaoBalanceadaStrategy;
+import com.crescer_aprender.escala.service.alocacao.AlocacaoStrategy;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDate;
@@ -35,12 +51,25 @@ class EscalaServiceTest {
     @Mock
     private VoluntarioRepository voluntarioRepository;
 
+    @Mock
+    private IndiceDisponibilidade indiceDisponibilidade;
+
+    @Mock
+    private EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
+    @Spy
+    private AlocacaoStrategy alocacaoStrategy = new AlocacaoBalanceadaStrategy();
+
+    @Spy
+    private MeterRegistry registry = new SimpleMeterRegistry();
+
     @InjectMocks
     private EscalaService escalaService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        when(indiceDisponibilidade.voluntariosDisponiveis(anyCollection())).thenCallRealMethod();
     }
 
     private Escala criaEscalaExemplo() {
@@ -64,9 +93,9 @@ class EscalaServiceTest {
                 .id(id)
                 .nome("Voluntario " + id);
         if (datas != null && datas.length > 0) {
-            builder.datasDisponiveis(new ArrayList<>(Arrays.asList(datas)));
+            builder.datasDisponiveis(new HashSet<>(Arrays.asList(datas)));
         } else {
-            builder.datasDisponiveis(new ArrayList<>());
+            builder.datasDisponiveis(new HashSet<>());
         }
         return builder.build();
     }
@@ -94,54 +123,64 @@ class EscalaServiceTest {
     }
 
     @Test
-    void testFindById_Presente() {
-        Escala escala = criaEscalaExemplo();
-        when(escalaRepository.findById(1L)).thenReturn(Optional.of(escala));
-
-        Optional<Escala> resultado = escalaService.findById(1L);
-        assertTrue(resultado.isPresent());
-        assertEquals(escala, resultado.get());
+    void testLoadAllResponse_MontaDiasAPartirDasProjecoes() {
+        Escala julho = criaEscalaExemplo();
+        Escala agosto = Escala.builder().id(2L).ano(2025L).mes(8).build();
+        when(escalaRepository.findAll()).thenReturn(List.of(julho, agosto));
+        when(escalaRepository.findDatasByEscalaIds(anyCollection())).thenReturn(List.of(
+                new EscalaDataLinha(1L, LocalDate.of(2025, 7, 5)),
+                new EscalaDataLinha(1L, LocalDate.of(2025, 7, 12))));
+        when(escalaRepository.findDiasComVoluntariosByEscalaIds(anyCollection())).thenReturn(List.of(
+                new EscalaDiaVoluntarioLinha(1L, 10L, LocalDate.of(2025, 7, 5), 1L, "Ana"),
+                new EscalaDiaVoluntarioLinha(1L, 10L, LocalDate.of(2025, 7, 5), 2L, "Bruno"),
+                new EscalaDiaVoluntarioLinha(1L, 11L, LocalDate.of(2025, 7, 12), null, null)));
+
+        List<EscalaResponse> respostas = escalaService.loadAllResponse().orElseThrow();
+
+        assertEquals(2, respostas.size());
+        EscalaResponse resposta = respostas.get(0);
+        assertEquals(List.of(LocalDate.of(2025, 7, 5), LocalDate.of(2025, 7, 12)), resposta.getDatas());
+        assertEquals(2, resposta.getDias().size());
+        assertEquals(List.of(new VoluntarioResumo(1L, "Ana"), new VoluntarioResumo(2L, "Bruno")), resposta.getDias().get(0).getVoluntarios());
+        assertTrue(resposta.getDias().get(1).getVoluntarios().isEmpty());
+        assertTrue(respostas.get(1).getDias().isEmpty());
+        // as entidades não são percorridas: só as duas projeções, uma vez para todas as escalas
+        verify(escalaRepository, times(1)).findDiasComVoluntariosByEscalaIds(anyCollection());
     }
 
     @Test
-    void testFindById_NaoEncontrado() {
+    void testFindResponseById_NaoEncontrado() {
         when(escalaRepository.findById(1L)).thenReturn(Optional.empty());
 
-        Optional<Escala> resultado = escalaService.findById(1L);
-        assertTrue(resultado.isEmpty());
+        assertTrue(escalaService.findResponseById(1L).isEmpty());
+        verify(escalaRepository, never()).findDiasComVoluntariosByEscalaIds(anyCollection());
     }
 
     @Test
-    void testLoadAll_ComResultados() {
-        List<Escala> escalas = Arrays.asList(criaEscalaExemplo());
-        when(escalaRepository.findAll()).thenReturn(escalas);
+    void testSave_ComEscalaExistente_DeveLancarExcecao() {
+        EscalaCreateRequest escalaRequest = criaEscalaRequestExemplo();
+        Escala escala = criaEscalaExemplo();
 
-        Optional<List<Escala>> resultado = escalaService.loadAll();
-        assertTrue(resultado.isPresent());
-        assertEquals(1, resultado.get().size());
-    }
+        when(escalaRepository.findByAnoAndMes(escala.getAno().intValue(), escala.getMes())).thenReturn(Optional.of(escala));
 
-    @Test
-    void testLoadAll_Vazio() {
-        when(escalaRepository.findAll()).thenReturn(Collections.emptyList());
+        EscalaAlreadyExistsException exception = assertThrows(EscalaAlreadyExistsException.class,
+                () -> escalaService.saveFromRequest(escalaRequest));
 
-        Optional<List<Escala>> resultado = escalaService.loadAll();
-        assertTrue(resultado.isPresent());
-        assertTrue(resultado.get().isEmpty());
+        assertTrue(exception.getMessage().contains("já existe"));
+        verify(escalaRepository, never()).save(any());
     }
 
     @Test
-    void testSave_ComEscalaExistente_DeveLancarExcecao() {
+    void testSave_EscalaGravadaPorTransacaoConcorrente_DeveLancarExcecao() {
         EscalaCreateRequest escalaRequest = criaEscalaRequestExemplo();
-        Escala escala = criaEscalaExemplo();
-
-        when(escalaRepository.findByAnoAndMes(escala.getAno().intValue(), escala.getMes())).thenReturn(Optional.of(escala));
+        when(escalaRepository.findByAnoAndMes(2025, 7)).thenReturn(Optional.empty());
+        when(escalaRepository.save(any())).thenThrow(new DataIntegrityViolationException("insert",
+                new RuntimeException("duplicate key value violates unique constraint \"ux_escala_ano_mes\"")));
 
         EscalaAlreadyExistsException exception = assertThrows(EscalaAlreadyExistsException.class,
                 () -> escalaService.saveFromRequest(escalaRequest));
 
         assertTrue(exception.getMessage().contains("já existe"));
-        verify(escalaRepository, never()).save(any());
     }
 
     @Test
@@ -168,10 +207,10 @@ class EscalaServiceTest {
         todos.addAll(voluntariosData2);
 
         when(escalaRepository.findByAnoAndMes(escala.getAno().intValue(), escala.getMes())).thenReturn(Optional.empty());
-        when(voluntarioRepository.findVoluntariosByData(LocalDate.of(2025, 7, 5)))
-                .thenReturn(Optional.of(new ArrayList<>(voluntariosData1)));
-        when(voluntarioRepository.findVoluntariosByData(LocalDate.of(2025, 7, 12)))
-                .thenReturn(Optional.of(new ArrayList<>(voluntariosData2)));
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025, 7, 5)))
+                .thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025, 7, 12)))
+                .thenReturn(List.of(5L, 6L, 7L, 8L));
         when(escalaRepository.save(any())).thenAnswer(i -> i.getArgument(0));
         when(voluntarioRepository.findVoluntariosByIds(Mockito.anyList())).thenReturn(Optional.of(todos));
 
@@ -188,6 +227,47 @@ class EscalaServiceTest {
         assertTrue(aggregated.size() <= 8);
     }
 
+    @Test
+    void testSave_GravaDiasEmLoteForaDoCascade() {
+        EscalaCreateRequest request = criaRequestComDias(List.of(2L));
+        when(escalaRepository.findByAnoAndMes(2025, 7)).thenReturn(Optional.empty());
+        when(voluntarioRepository.findVoluntariosAgrupadosPorData(anyCollection())).thenReturn(disponiveisPorData());
+        when(escalaRepository.save(any())).thenAnswer(i -> {
+            Escala escala = i.getArgument(0);
+            // o cascade não deve receber os dias
+            assertNull(escala.getDias());
+            escala.setId(10L);
+            return escala;
+        });
+
+        Escala saved = escalaService.saveFromRequest(request);
+
+        assertEquals(10L, saved.getId());
+        assertEquals(2, saved.getDias().size());
+        verify(escalaDiaJdbcRepository, times(1)).insereDias(10L, saved.getDias());
+    }
+
+    @Test
+    void testPopulaEscalaComVoluntarios_SubstituiDiasEmLote() {
+        Escala escala = criaEscalaExemplo();
+        escala.setDias(new ArrayList<>());
+        when(escalaRepository.findById(1L)).thenReturn(Optional.of(escala));
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025, 7, 5))).thenReturn(List.of(1L));
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025, 7, 12))).thenReturn(List.of(2L));
+        when(voluntarioRepository.findVoluntariosByIds(anyList()))
+                .thenReturn(Optional.of(List.of(criaVoluntarioExemplo(1L), criaVoluntarioExemplo(2L))));
+
+        Escala populada = escalaService.populaEscalaComVoluntarios(1L);
+
+        assertEquals(2, populada.getDias().size());
+        // a entidade gerenciada não recebe os dias gravados em lote
+        assertTrue(escala.getDias().isEmpty());
+        InOrder ordem = inOrder(escalaDiaJdbcRepository);
+        ordem.verify(escalaDiaJdbcRepository).removeDias(1L);
+        ordem.verify(escalaDiaJdbcRepository).insereDias(1L, populada.getDias());
+        verify(escalaRepository, never()).save(any());
+    }
+
     @Test
     void testUpdate_Sucesso() {
         Escala antiga = criaEscalaExemplo();
@@ -201,8 +281,11 @@ class EscalaServiceTest {
         // para o update, mocks de disponibilidade por data (mínimo 4 voluntários)
         List<Voluntario> disponiveisData1 = Arrays.asList(criaVoluntarioExemplo(1L, LocalDate.of(2025,7,5)), criaVoluntarioExemplo(2L, LocalDate.of(2025,7,5)), criaVoluntarioExemplo(3L, LocalDate.of(2025,7,5)), criaVoluntarioExemplo(4L, LocalDate.of(2025,7,5)));
         List<Voluntario> disponiveisData2 = Arrays.asList(criaVoluntarioExemplo(5L, LocalDate.of(2025,7,12)), criaVoluntarioExemplo(6L, LocalDate.of(2025,7,12)), criaVoluntarioExemplo(7L, LocalDate.of(2025,7,12)), criaVoluntarioExemplo(8L, LocalDate.of(2025,7,12)));
-        when(voluntarioRepository.findVoluntariosByData(LocalDate.of(2025,7,5))).thenReturn(Optional.of(disponiveisData1));
-        when(voluntarioRepository.findVoluntariosByData(LocalDate.of(2025,7,12))).thenReturn(Optional.of(disponiveisData2));
+        List<Voluntario> todos = new ArrayList<>(disponiveisData1);
+        todos.addAll(disponiveisData2);
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025,7,5))).thenReturn(List.of(1L, 2L, 3L, 4L));
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025,7,12))).thenReturn(List.of(5L, 6L, 7L, 8L));
+        when(voluntarioRepository.findVoluntariosByIds(Mockito.anyList())).thenReturn(Optional.of(todos));
         when(escalaRepository.save(any())).thenAnswer(i -> i.getArgument(0));
 
         Escala atualizada = escalaService.update(1L, atualizacao);
@@ -257,7 +340,7 @@ class EscalaServiceTest {
     }
 
     @Test
-    void testFindByFilters_Paginated_ReturnsPage() {
+    void testFindResponseByFilters_Paginated_ReturnsPage() {
         Escala escala = criaEscalaExemplo();
         Map<String, String> filters = Map.of("mes", String.valueOf(escala.getMes()));
         List<Escala> content = List.of(escala);
@@ -266,11 +349,45 @@ class EscalaServiceTest {
         when(escalaRepository.findAll(Mockito.<Specification<Escala>>any(), any(Pageable.class)))
                 .thenReturn(page);
 
-        Page<Escala> resultado = escalaService.findByFiltersPaginated(filters, PageRequest.of(0, 10));
+        Page<EscalaResponse> resultado = escalaService.findResponseByFiltersPaginated(filters, PageRequest.of(0, 10));
         assertNotNull(resultado);
         assertEquals(1, resultado.getTotalElements());
         assertEquals(1, resultado.getContent().size());
-        assertEquals(escala, resultado.getContent().get(0));
+        assertEquals(escala.getId(), resultado.getContent().get(0).getId());
+    }
+
+    @Test
+    void testEscalaCursor_CodificaEDecodificaAPosicao() {
+        Escala escala = Escala.builder().id(42L).ano(2025L).mes(7).build();
+
+        KeysetScrollPosition posicao = EscalaCursor.decodifica(EscalaCursor.codifica(escala));
+
+        assertEquals(List.of("ano", "mes", "id"), new ArrayList<>(posicao.getKeys().keySet()));
+        assertEquals(2025L, posicao.getKeys().get("ano"));
+        assertEquals(7, posicao.getKeys().get("mes"));
+        assertEquals(42L, posicao.getKeys().get("id"));
+        assertTrue(EscalaCursor.decodifica(null).isInitial());
+    }
+
+    @Test
+    void testEscalaCursor_Invalido_DeveLancarExcecao() {
+        assertThrows(InvalidCursorException.class, () -> EscalaCursor.decodifica("nao-e-um-cursor"));
+        String semId = Base64.getUrlEncoder().encodeToString("v1:2025:7".getBytes());
+        assertThrows(InvalidCursorException.class, () -> EscalaCursor.decodifica(semId));
+    }
+
+    @Test
+    void testFindResponseByFiltersCursor_DevolveProximoCursorDaUltimaEscala() {
+        Escala primeira = Escala.builder().id(1L).ano(2025L).mes(1).build();
+        Escala segunda = Escala.builder().id(2L).ano(2025L).mes(2).build();
+        Window<Escala> janela = Window.from(List.of(primeira, segunda), i -> ScrollPosition.offset(i), true);
+        when(escalaRepository.findBy(Mockito.<Specification<Escala>>any(), any())).thenReturn(janela);
+
+        EscalaCursorResponse resposta = escalaService.findResponseByFiltersCursor(Map.of("ano", "2025", "size", "2"), null, 2);
+
+        assertEquals(2, resposta.getContent().size());
+        assertTrue(resposta.isTemProximo());
+        assertEquals(EscalaCursor.codifica(segunda), resposta.getProximoCursor());
     }
 
     @Test
@@ -281,12 +398,12 @@ class EscalaServiceTest {
         List<Voluntario> voluntariosData2 = Arrays.asList(criaVoluntarioExemplo(2L));
 
         when(escalaRepository.findByAnoAndMes(escala.getAno().intValue(), escala.getMes())).thenReturn(Optional.empty());
-        when(voluntarioRepository.findVoluntariosByData(LocalDate.of(2025, 7, 5)))
-                .thenReturn(Optional.of(new ArrayList<>(voluntariosData1)));
-        when(voluntarioRepository.findVoluntariosByData(LocalDate.of(2025, 7, 12)))
-                .thenReturn(Optional.of(new ArrayList<>(voluntariosData2)));
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025, 7, 5))).thenReturn(List.of(1L));
+        when(indiceDisponibilidade.voluntariosDisponiveis(LocalDate.of(2025, 7, 12))).thenReturn(List.of(2L));
+        List<Voluntario> todos = new ArrayList<>(voluntariosData1);
+        todos.addAll(voluntariosData2);
         when(voluntarioRepository.findVoluntariosByIds(List.of(1L, 2L)))
-                .thenReturn(Optional.of(new ArrayList<>(List.of(criaVoluntarioExemplo(1L)))));
+                .thenReturn(Optional.of(todos));
         when(escalaRepository.save(any())).thenAnswer(i -> i.getArgument(0));
 
         Escala saved = escalaService.saveFromRequest(escala);
@@ -298,6 +415,75 @@ class EscalaServiceTest {
             assertTrue(dia.getVoluntarios().size() >= 1);
         }
         verify(escalaRepository, times(1)).save(any());
+        // os voluntários escolhidos são carregados de uma vez, e não uma consulta por data
+        verify(voluntarioRepository, times(1)).findVoluntariosByIds(anyList());
+        verify(voluntarioRepository, never()).findVoluntariosByData(any());
+        // um candidato por dia: os dois dias ficam abaixo do mínimo
+        assertEquals(1, registry.get("escala.escalas.geracao").tag("operacao", "cria").timer().count());
+        assertEquals(2, registry.get("escala.dias.candidatos").summary().count());
+        assertEquals(2.0, registry.get("escala.dias.poucos-voluntarios").counter().count());
+    }
+
+    private EscalaCreateRequest criaRequestComDias(List<Long> idsDia1) {
+        EscalaCreateRequest request = criaEscalaRequestExemplo();
+        request.setIncluirVoluntariosAutomaticamente(Boolean.TRUE);
+        request.setDias(List.of(
+                EscalaDiaRequest.builder().data(LocalDate.of(2025, 7, 5)).voluntarios(idsDia1).build(),
+                EscalaDiaRequest.builder().data(LocalDate.of(2025, 7, 12)).build()
+        ));
+        return request;
+    }
+
+    private Map<LocalDate, List<Voluntario>> disponiveisPorData() {
+        Map<LocalDate, List<Voluntario>> porData = new LinkedHashMap<>();
+        porData.put(LocalDate.of(2025, 7, 5), List.of(criaVoluntarioExemplo(1L, LocalDate.of(2025, 7, 5)), criaVoluntarioExemplo(2L, LocalDate.of(2025, 7, 5))));
+        porData.put(LocalDate.of(2025, 7, 12), List.of(criaVoluntarioExemplo(3L, LocalDate.of(2025, 7, 12))));
+        return porData;
+    }
+
+    @Test
+    void testSave_ComDias_BuscaDisponibilidadeUmaVez() {
+        EscalaCreateRequest request = criaRequestComDias(List.of(2L));
+        when(escalaRepository.findByAnoAndMes(2025, 7)).thenReturn(Optional.empty());
+        when(voluntarioRepository.findVoluntariosAgrupadosPorData(anyCollection())).thenReturn(disponiveisPorData());
+        when(escalaRepository.save(any())).thenAnswer(i -> i.getArgument(0));
+
+        Escala saved = escalaService.saveFromRequest(request);
+
+        assertEquals(List.of(2L), saved.getDias().get(0).getVoluntarios().stream().map(Voluntario::getId).toList());
+        assertEquals(List.of(3L), saved.getDias().get(1).getVoluntarios().stream().map(Voluntario::getId).toList());
+        verify(voluntarioRepository, times(1)).findVoluntariosAgrupadosPorData(anyCollection());
+        verify(alocacaoStrategy, times(1)).aloca(Map.of(LocalDate.of(2025, 7, 12), List.of(3L)));
+        verify(voluntarioRepository, never()).findVoluntariosByIds(anyList());
+        verify(voluntarioRepository, never()).findVoluntariosByData(any());
+    }
+
+    @Test
+    void testSave_ComDias_VoluntarioIndisponivel_DeveLancarExcecao() {
+        EscalaCreateRequest request = criaRequestComDias(List.of(1L, 3L));
+        when(escalaRepository.findByAnoAndMes(2025, 7)).thenReturn(Optional.empty());
+        when(voluntarioRepository.findVoluntariosAgrupadosPorData(anyCollection())).thenReturn(disponiveisPorData());
+        when(voluntarioRepository.findVoluntariosByIds(List.of(3L)))
+                .thenReturn(Optional.of(List.of(criaVoluntarioExemplo(3L, LocalDate.of(2025, 7, 12)))));
+
+        InvalidVoluntarioDataException exception = assertThrows(InvalidVoluntarioDataException.class,
+                () -> escalaService.saveFromRequest(request));
+
+        assertTrue(exception.getMessage().contains("não disponíveis"));
+        verify(escalaRepository, never()).save(any());
+    }
+
+    @Test
+    void testSave_ComDias_VoluntarioInexistente_DeveLancarExcecao() {
+        EscalaCreateRequest request = criaRequestComDias(List.of(1L, 99L));
+        when(escalaRepository.findByAnoAndMes(2025, 7)).thenReturn(Optional.empty());
+        when(voluntarioRepository.findVoluntariosAgrupadosPorData(anyCollection())).thenReturn(disponiveisPorData());
+        when(voluntarioRepository.findVoluntariosByIds(List.of(99L))).thenReturn(Optional.of(Collections.emptyList()));
+
+        VoluntarioNotExistException exception = assertThrows(VoluntarioNotExistException.class,
+                () -> escalaService.saveFromRequest(request));
+
+        assertTrue(exception.getMessage().contains("99"));
     }
 
 //    @Test
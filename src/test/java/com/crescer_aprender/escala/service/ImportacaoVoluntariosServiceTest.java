@@ -0,0 +1,234 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.ImportacaoErro;
+import com.crescer_aprender.escala.dto.ImportacaoResultado;
+import com.crescer_aprender.escala.exception.InvalidImportacaoException;
+import com.crescer_aprender.escala.repository.VoluntarioJdbcRepository;
+import com.crescer_aprender.escala.security.CodificadorDeSenhas;
+import com.crescer_aprender.escala.support.ContadorDeStatements;
+import com.crescer_aprender.escala.support.ContadorDeStatementsConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Importação contra um PostgreSQL embarcado: o número de idas ao banco depende do número de lotes, não de linhas,
+ * e cada linha recusada aparece nos erros com o número da linha e o motivo.
+ */
+@Slf4j
+@DataJpaTest
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import({VoluntarioJdbcRepository.class, ContadorDeStatementsConfig.class})
+class ImportacaoVoluntariosServiceTest {
+
+    // custo baixo só para o teste não ser dominado pelo BCrypt
+    private final BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(4);
+    private final ExecutorService senhaExecutor = Executors.newFixedThreadPool(2);
+    private final IndiceDisponibilidade indiceDisponibilidade = mock(IndiceDisponibilidade.class);
+
+    @Autowired
+    private VoluntarioJdbcRepository voluntarioJdbcRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ContadorDeStatements contador;
+
+    private ImportacaoVoluntariosService service;
+
+    @BeforeEach
+    void setUp() {
+        service = criaService(voluntarioJdbcRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        senhaExecutor.shutdownNow();
+    }
+
+    private ImportacaoVoluntariosService criaService(VoluntarioJdbcRepository repository) {
+        CodificadorDeSenhas codificador = new CodificadorDeSenhas(bcrypt, senhaExecutor, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        return new ImportacaoVoluntariosService(repository, codificador, indiceDisponibilidade,
+                new TransactionTemplate(transactionManager), new ObjectMapper(), 2);
+    }
+
+    private static InputStream texto(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int conta(String sql, Object... parametros) {
+        return jdbcTemplate.queryForObject(sql, Integer.class, parametros);
+    }
+
+    @Test
+    void importaCsv_LotesComUmComandoPorTabelaEErrosPorLinha() throws IOException {
+        jdbcTemplate.update("INSERT INTO usuario (email, senha, role) VALUES ('ja.existe@teste.com', 'x', 'VOLUNTARIO')");
+        int validos = 1_100;
+        StringBuilder csv = new StringBuilder("nome,email,senha,role,datas_disponiveis\n");
+        for (int i = 0; i < validos; i++) {
+            csv.append("Voluntario ").append(i).append(",v").append(i).append("@teste.com,senha").append(i)
+                    .append(i == 0 ? ",COORDENADOR" : ",").append(",2025-08-02;2025-08-09\n");
+        }
+        csv.append("Repetido,v1@teste.com,outra,,\n");                         // linha 1102
+        csv.append("Antigo,ja.existe@teste.com,senha,,\n");                     // linha 1103
+        csv.append("Data Ruim,data@teste.com,senha,,2025-13-01\n");             // linha 1104
+        csv.append("Sem Senha,semsenha@teste.com,,,\n");                        // linha 1105
+        csv.append("Colunas,a mais,@teste.com,senha,,\n");                      // linha 1106
+        csv.append("\"Silva, Ana\",ana@teste.com,senha,voluntario,\n");         // linha 1107
+        contador.zera();
+
+        long inicio = System.nanoTime();
+        ImportacaoResultado resultado = service.importaCsv(texto(csv.toString()));
+        log.info("Importação de {} linhas em {} ms com {} idas ao banco", resultado.getLidas(), (System.nanoTime() - inicio) / 1_000_000, contador.getExecucoes());
+
+        assertNull(resultado.getErrorMessage());
+        assertEquals(validos + 6, resultado.getLidas());
+        assertEquals(validos + 1, resultado.getImportados());
+        assertEquals(List.of(1102L, 1103L, 1104L, 1105L, 1106L), resultado.getErros().stream().map(ImportacaoErro::linha).toList());
+        assertTrue(resultado.getErros().get(1).mensagem().contains("já está em uso"));
+        assertTrue(resultado.getErros().get(2).mensagem().contains("2025-13-01"));
+
+        // 3 lotes: consulta de emails + usuario + voluntario + datas por lote
+        assertTrue(contador.getExecucoes() <= 3 * 4, "idas ao banco: " + contador.getExecucoes());
+        assertEquals(validos + 1, conta("SELECT count(*) FROM voluntario v JOIN usuario u ON u.id = v.usuario_id WHERE u.email LIKE '%@teste.com' AND u.email <> 'ja.existe@teste.com'"));
+        assertEquals(validos * 2, conta("SELECT count(*) FROM voluntario_datas_disponiveis"));
+        assertEquals("COORDENADOR", jdbcTemplate.queryForObject("SELECT role FROM usuario WHERE email = 'v0@teste.com'", String.class));
+        assertEquals("Silva, Ana", jdbcTemplate.queryForObject("SELECT v.nom_usuario FROM voluntario v JOIN usuario u ON u.id = v.usuario_id WHERE u.email = 'ana@teste.com'", String.class));
+        assertTrue(bcrypt.matches("senha7", jdbcTemplate.queryForObject("SELECT senha FROM usuario WHERE email = 'v7@teste.com'", String.class)));
+        verify(indiceDisponibilidade, times(validos + 1)).atualiza(anyLong(), any());
+    }
+
+    @Test
+    void importaJson_LeElementoAElemento() throws IOException {
+        String json = """
+                [
+                  {"nome": "Maria", "email": "maria@json.com", "senha": "m123", "datasDisponiveis": ["2025-08-02"]},
+                  {"nome": "Perfil Ruim", "email": "ruim@json.com", "senha": "x", "role": "ADMIN"},
+                  {"nome": "João", "email": "joao@json.com", "senha": "j123", "role": "COORDENADOR", "datasDisponiveis": []}
+                ]""";
+
+        ImportacaoResultado resultado = service.importaJson(texto(json));
+
+        assertEquals(3, resultado.getLidas());
+        assertEquals(2, resultado.getImportados());
+        assertEquals(List.of(new ImportacaoErro(2, "ruim@json.com", "Perfil ADMIN inválido.")), resultado.getErros());
+        assertEquals(LocalDate.of(2025, 8, 2), jdbcTemplate.queryForObject("SELECT d.datas_disponiveis FROM voluntario_datas_disponiveis d " +
+                "JOIN voluntario v ON v.id = d.voluntario_id JOIN usuario u ON u.id = v.usuario_id WHERE u.email = 'maria@json.com'", LocalDate.class));
+    }
+
+    @Test
+    void importaJson_ElementoComTipoErrado_ViraErroDaLinha() throws IOException {
+        String json = """
+                [
+                  {"nome": "Maria", "email": "maria@tipo.com", "senha": "m123"},
+                  {"nome": "Datas Soltas", "email": "soltas@tipo.com", "senha": "x", "datasDisponiveis": "2025-01-01"},
+                  42,
+                  {"nome": "João", "email": "joao@tipo.com", "senha": "j123"}
+                ]""";
+
+        ImportacaoResultado resultado = service.importaJson(texto(json));
+
+        assertNull(resultado.getErrorMessage());
+        assertEquals(4, resultado.getLidas());
+        assertEquals(2, resultado.getImportados());
+        assertEquals(List.of(2L, 3L), resultado.getErros().stream().map(ImportacaoErro::linha).toList());
+        assertTrue(resultado.getErros().get(0).mensagem().startsWith("Elemento inválido"));
+        assertEquals(0, conta("SELECT count(*) FROM usuario WHERE email = 'soltas@tipo.com'"));
+    }
+
+    @Test
+    void importaJson_Malformado_MantemOQueJaFoiLido() throws IOException {
+        String json = "[{\"nome\": \"Maria\", \"email\": \"maria@quebrado.com\", \"senha\": \"m123\"}, {\"nome\": ";
+
+        ImportacaoResultado resultado = service.importaJson(texto(json));
+
+        assertNotNull(resultado.getErrorMessage());
+        assertEquals(1, resultado.getImportados());
+        assertEquals(1, conta("SELECT count(*) FROM usuario WHERE email = 'maria@quebrado.com'"));
+    }
+
+    @Test
+    void importaCsv_SemColunaObrigatoria() {
+        assertThrows(InvalidImportacaoException.class, () -> service.importaCsv(texto("nome,email\nMaria,maria@teste.com\n")));
+        assertThrows(InvalidImportacaoException.class, () -> service.importaCsv(texto("")));
+    }
+
+    @Test
+    void emailGravadoPorOutraRequisicao_ViraErroDaLinha() throws IOException {
+        jdbcTemplate.update("INSERT INTO usuario (email, senha, role) VALUES ('corrida@teste.com', 'x', 'VOLUNTARIO')");
+        // simula o email sendo gravado entre a consulta do lote e o INSERT
+        VoluntarioJdbcRepository semConsulta = new VoluntarioJdbcRepository(jdbcTemplate) {
+            @Override
+            public Set<String> emailsCadastrados(Collection<String> emails) {
+                return Set.of();
+            }
+        };
+
+        ImportacaoResultado resultado = criaService(semConsulta).importaCsv(texto(
+                "nome,email,senha\nCorrida,corrida@teste.com,s1\nOutro,outro@teste.com,s2\n"));
+
+        assertEquals(1, resultado.getImportados());
+        assertEquals(List.of(2L), resultado.getErros().stream().map(ImportacaoErro::linha).toList());
+        assertEquals(0, conta("SELECT count(*) FROM voluntario v JOIN usuario u ON u.id = v.usuario_id WHERE u.email = 'corrida@teste.com'"));
+    }
+
+    @Test
+    void emailComEspacos_JaCadastrado_ViraErroDaLinha() throws IOException {
+        jdbcTemplate.update("INSERT INTO usuario (email, senha, role) VALUES ('espaco@teste.com', 'x', 'VOLUNTARIO')");
+
+        ImportacaoResultado resultado = service.importaCsv(texto("nome,email,senha\nEspaco, espaco@teste.com ,s1\nOutro,outro@teste.com,s2\n"));
+
+        assertEquals(1, resultado.getImportados());
+        assertEquals(1, resultado.getErros().size());
+        assertEquals(2L, resultado.getErros().get(0).linha());
+        assertTrue(resultado.getErros().get(0).mensagem().contains("já está em uso"));
+        assertEquals(1, conta("SELECT count(*) FROM usuario WHERE email = 'espaco@teste.com'"));
+    }
+
+    @Test
+    void emailComEspacos_RepetidoNoArquivo_SoOPrimeiroEImportado() throws IOException {
+        ImportacaoResultado resultado = service.importaCsv(texto("nome,email,senha\nAna,ana@espaco.com,s1\nAna De Novo, ana@espaco.com,s2\n"));
+
+        assertEquals(1, resultado.getImportados());
+        assertEquals(List.of(3L), resultado.getErros().stream().map(ImportacaoErro::linha).toList());
+        assertEquals(1, conta("SELECT count(*) FROM usuario WHERE email = 'ana@espaco.com'"));
+    }
+
+    @Test
+    void campos_AspasESeparadorDentroDoCampo() {
+        assertEquals(List.of("Silva, Ana", "ana@teste.com", "diz \"oi\"", ""),
+                ImportacaoVoluntariosService.campos("\"Silva, Ana\",ana@teste.com,\"diz \"\"oi\"\"\","));
+    }
+}
@@ -0,0 +1,90 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.VoluntarioDataDisponivel;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class IndiceDisponibilidadeTest {
+
+    private static final LocalDate SABADO_1 = LocalDate.of(2025, 7, 5);
+    private static final LocalDate SABADO_2 = LocalDate.of(2025, 7, 12);
+
+    @Mock
+    private VoluntarioRepository voluntarioRepository;
+
+    @InjectMocks
+    private IndiceDisponibilidade indice;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(voluntarioRepository.findAllDisponibilidades()).thenReturn(List.of(
+                new VoluntarioDataDisponivel(1L, SABADO_1),
+                new VoluntarioDataDisponivel(2L, SABADO_1),
+                new VoluntarioDataDisponivel(2L, SABADO_2),
+                new VoluntarioDataDisponivel(3L, SABADO_2)
+        ));
+    }
+
+    @Test
+    void voluntariosDisponiveis_CarregaUmaUnicaVez() {
+        assertEquals(List.of(1L, 2L), indice.voluntariosDisponiveis(SABADO_1));
+        assertEquals(List.of(2L, 3L), indice.voluntariosDisponiveis(SABADO_2));
+        assertTrue(indice.voluntariosDisponiveis(LocalDate.of(2025, 7, 19)).isEmpty());
+
+        verify(voluntarioRepository, times(1)).findAllDisponibilidades();
+    }
+
+    @Test
+    void voluntariosDisponiveis_PorVariasDatas() {
+        Map<LocalDate, List<Long>> porData = indice.voluntariosDisponiveis(List.of(SABADO_2, SABADO_1));
+
+        assertEquals(List.of(SABADO_2, SABADO_1), List.copyOf(porData.keySet()));
+        assertEquals(List.of(2L, 3L), porData.get(SABADO_2));
+    }
+
+    @Test
+    void atualiza_SubstituiDatasDoVoluntario() {
+        indice.voluntariosDisponiveis(SABADO_1);
+
+        indice.atualiza(2L, List.of(SABADO_2, LocalDate.of(2025, 7, 19)));
+
+        assertEquals(List.of(1L), indice.voluntariosDisponiveis(SABADO_1));
+        assertEquals(List.of(2L, 3L), indice.voluntariosDisponiveis(SABADO_2));
+        assertEquals(List.of(2L), indice.voluntariosDisponiveis(LocalDate.of(2025, 7, 19)));
+    }
+
+    @Test
+    void altera_MexeSoNasDatasInformadas() {
+        indice.voluntariosDisponiveis(SABADO_1);
+
+        // SABADO_2 nas duas listas fica incluído
+        indice.altera(2L, List.of(LocalDate.of(2025, 7, 19), SABADO_2), List.of(SABADO_1, SABADO_2));
+        indice.altera(3L, null, List.of(SABADO_2));
+
+        assertEquals(List.of(1L), indice.voluntariosDisponiveis(SABADO_1));
+        assertEquals(List.of(2L), indice.voluntariosDisponiveis(SABADO_2));
+        assertEquals(List.of(2L), indice.voluntariosDisponiveis(LocalDate.of(2025, 7, 19)));
+    }
+
+    @Test
+    void remove_TiraVoluntarioDeTodasAsDatas() {
+        indice.voluntariosDisponiveis(SABADO_1);
+
+        indice.remove(2L);
+
+        assertEquals(List.of(1L), indice.voluntariosDisponiveis(SABADO_1));
+        assertEquals(List.of(3L), indice.voluntariosDisponiveis(SABADO_2));
+    }
+}
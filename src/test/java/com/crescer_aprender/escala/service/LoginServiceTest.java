@@ -0,0 +1,77 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginServiceTest {
+
+    @Mock
+    private VoluntarioRepository repository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @InjectMocks
+    private LoginService loginService;
+
+    private Voluntario maria;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        maria = Voluntario.builder().id(1L).nome("Maria").datasDisponiveis(Set.of(LocalDate.of(2025, 8, 2)))
+                .usuario(Usuario.builder().id(2L).email("maria@gmail.com").senha("hash-maria").role(PerfisUsuariosEnum.VOLUNTARIO).build())
+                .build();
+    }
+
+    @Test
+    void autentica_SenhaCorreta_DevolveVoluntarioDaMesmaConsulta() {
+        when(repository.findParaLoginByEmail("maria@gmail.com")).thenReturn(Optional.of(maria));
+        when(passwordEncoder.matches("maria123", "hash-maria")).thenReturn(true);
+
+        Voluntario autenticado = loginService.autentica("maria@gmail.com", "maria123");
+
+        assertSame(maria, autenticado);
+        verify(repository).findParaLoginByEmail("maria@gmail.com");
+        verifyNoMoreInteractions(repository);
+    }
+
+    @Test
+    void autentica_SenhaIncorreta() {
+        when(repository.findParaLoginByEmail("maria@gmail.com")).thenReturn(Optional.of(maria));
+        when(passwordEncoder.matches("errada", "hash-maria")).thenReturn(false);
+
+        assertThrows(BadCredentialsException.class, () -> loginService.autentica("maria@gmail.com", "errada"));
+    }
+
+    @Test
+    void autentica_EmailInexistente_AindaConfereUmHash() {
+        when(repository.findParaLoginByEmail("ninguem@gmail.com")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode(anyString())).thenReturn("hash-ficticio");
+
+        assertThrows(BadCredentialsException.class, () -> loginService.autentica("ninguem@gmail.com", "qualquer"));
+        assertThrows(BadCredentialsException.class, () -> loginService.autentica("ninguem@gmail.com", "outra"));
+
+        // o hash fictício é gerado uma vez e conferido a cada tentativa, como seria com um usuário existente
+        verify(passwordEncoder, times(1)).encode(anyString());
+        verify(passwordEncoder, times(2)).matches(anyString(), eq("hash-ficticio"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.dto.VoluntarioDataDisponivel;
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricasDisponibilidadeTest {
+
+    private static final LocalDate HOJE = LocalDate.of(2025, 7, 1);
+    private static final LocalDate SABADO_1 = LocalDate.of(2025, 7, 5);
+    private static final LocalDate SABADO_2 = LocalDate.of(2025, 7, 12);
+    private static final LocalDate SABADO_3 = LocalDate.of(2025, 7, 19);
+
+    private final VoluntarioRepository voluntarioRepository = mock(VoluntarioRepository.class);
+    private final EscalaRepository escalaRepository = mock(EscalaRepository.class);
+    private final IndiceDisponibilidade indice = new IndiceDisponibilidade(voluntarioRepository);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MetricasDisponibilidade metricas;
+
+    @BeforeEach
+    void setUp() {
+        List<VoluntarioDataDisponivel> disponibilidades = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            disponibilidades.add(new VoluntarioDataDisponivel(id, SABADO_1));
+        }
+        disponibilidades.add(new VoluntarioDataDisponivel(1L, SABADO_2));
+        disponibilidades.add(new VoluntarioDataDisponivel(1L, HOJE.minusDays(1)));
+        when(voluntarioRepository.findAllDisponibilidades()).thenReturn(disponibilidades);
+        // escala de julho: o terceiro sábado não tem ninguém disponível
+        when(escalaRepository.findDatasEntre(HOJE, HOJE.plusDays(30))).thenReturn(List.of(SABADO_1, SABADO_2, SABADO_3));
+        Clock clock = Clock.fixed(HOJE.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        metricas = new MetricasDisponibilidade(indice, escalaRepository, registry, 30, clock);
+    }
+
+    @Test
+    void atualiza_GaugesPorDataDaJanela() {
+        indice.recarrega();
+
+        metricas.atualiza();
+
+        assertEquals(5.0, registry.get("escala.disponibilidade.voluntarios").tag("data", "2025-07-05").gauge().value());
+        assertEquals(1.0, registry.get("escala.disponibilidade.voluntarios").tag("data", "2025-07-12").gauge().value());
+        // datas passadas ficam de fora; só o dia abaixo do mínimo aparece nos faltantes
+        assertNull(registry.find("escala.disponibilidade.voluntarios").tag("data", "2025-06-30").gauge());
+        assertEquals(3.0, registry.get("escala.disponibilidade.faltantes").tag("data", "2025-07-12").gauge().value());
+        assertNull(registry.find("escala.disponibilidade.faltantes").tag("data", "2025-07-05").gauge());
+    }
+
+    @Test
+    void atualiza_DataDeEscalaSemNinguemDisponivel_FaltamTodos() {
+        indice.recarrega();
+
+        metricas.atualiza();
+
+        assertEquals(0.0, registry.get("escala.disponibilidade.voluntarios").tag("data", "2025-07-19").gauge().value());
+        assertEquals(4.0, registry.get("escala.disponibilidade.faltantes").tag("data", "2025-07-19").gauge().value());
+        // sem escala e sem disponibilidade a data continua fora da série
+        assertNull(registry.find("escala.disponibilidade.faltantes").tag("data", "2025-07-26").gauge());
+    }
+
+    @Test
+    void atualiza_IndiceNaoCarregado_NaoConsultaOBanco() {
+        metricas.atualiza();
+
+        assertTrue(registry.find("escala.disponibilidade.voluntarios").gauges().isEmpty());
+        verifyNoInteractions(voluntarioRepository, escalaRepository);
+    }
+}
@@ -0,0 +1,77 @@
+package com.crescer_aprender.escala.service;
+
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.exception.UserEmailNotFoundException;
+import com.crescer_aprender.escala.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class UsuarioDetailsServiceTest {
+
+    @Mock
+    private UsuarioRepository usuarioRepository;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private UsuarioDetailsService usuarioDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        usuarioDetailsService = new UsuarioDetailsService(usuarioRepository, 100, Duration.ofMinutes(5), registry);
+        when(usuarioRepository.findByEmail("maria@gmail.com")).thenReturn(Optional.of(
+                Usuario.builder().id(1L).email("maria@gmail.com").senha("hash").role(PerfisUsuariosEnum.VOLUNTARIO).build()));
+    }
+
+    @Test
+    void loadUserByUsername_SegundaChamadaVemDoCache() {
+        UserDetails primeira = usuarioDetailsService.loadUserByUsername("maria@gmail.com");
+        UserDetails segunda = usuarioDetailsService.loadUserByUsername("maria@gmail.com");
+
+        assertEquals("maria@gmail.com", segunda.getUsername());
+        assertEquals(primeira.getAuthorities(), segunda.getAuthorities());
+        verify(usuarioRepository, times(1)).findByEmail("maria@gmail.com");
+        assertEquals(1, registry.get("cache.gets").tag("cache", "usuarios").tag("result", "hit").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "usuarios").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void loadUserByUsername_SenhaApagadaNoLoginNaoAfetaOCache() {
+        ((CredentialsContainer) usuarioDetailsService.loadUserByUsername("maria@gmail.com")).eraseCredentials();
+
+        assertEquals("hash", usuarioDetailsService.loadUserByUsername("maria@gmail.com").getPassword());
+    }
+
+    @Test
+    void invalida_ProximaChamadaBuscaNoBanco() {
+        usuarioDetailsService.loadUserByUsername("maria@gmail.com");
+        when(usuarioRepository.findByEmail("maria@gmail.com")).thenReturn(Optional.of(
+                Usuario.builder().id(1L).email("maria@gmail.com").senha("hash").role(PerfisUsuariosEnum.COORDENADOR).build()));
+
+        usuarioDetailsService.invalida("maria@gmail.com");
+        UserDetails recarregado = usuarioDetailsService.loadUserByUsername("maria@gmail.com");
+
+        assertTrue(recarregado.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("COORDENADOR")));
+        verify(usuarioRepository, times(2)).findByEmail("maria@gmail.com");
+    }
+
+    @Test
+    void loadUserByUsername_UsuarioInexistenteNaoFicaNoCache() {
+        when(usuarioRepository.findByEmail("nao@existe.com")).thenReturn(Optional.empty());
+
+        assertThrows(UserEmailNotFoundException.class, () -> usuarioDetailsService.loadUserByUsername("nao@existe.com"));
+        assertThrows(UserEmailNotFoundException.class, () -> usuarioDetailsService.loadUserByUsername("nao@existe.com"));
+        verify(usuarioRepository, times(2)).findByEmail("nao@existe.com");
+    }
+}
@@ -4,13 +4,18 @@ import com.crescer_aprender.escala.entity.Usuario;
 import com.crescer_aprender.escala.entity.Voluntario;
 import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
 import com.crescer_aprender.escala.exception.*;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
 import com.crescer_aprender.escala.repository.EscalaRepository;
 import com.crescer_aprender.escala.repository.VoluntarioRepository;
 import com.crescer_aprender.escala.repository.UsuarioRepository;
+import com.crescer_aprender.escala.security.RevogacaoTokens;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionOperations;
 import java.time.LocalDate;
 import java.util.*;
 
@@ -25,12 +30,30 @@ public class VoluntarioServiceTest {
     @Mock
     private EscalaRepository escalaRepository;
 
+    @Mock
+    private EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
     @Mock
     private UsuarioRepository usuarioRepository;
 
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private IndiceDisponibilidade indiceDisponibilidade;
+
+    @Mock
+    private UsuarioDetailsService usuarioDetailsService;
+
+    @Mock
+    private RevogacaoTokens revogacaoTokens;
+
+    @Spy
+    private TransactionOperations transacao = TransactionOperations.withoutTransaction();
+
+    @Spy
+    private MeterRegistry registry = new SimpleMeterRegistry();
+
     @InjectMocks
     private VoluntarioService voluntarioService;
 
@@ -43,7 +66,7 @@ public class VoluntarioServiceTest {
         voluntario = Voluntario.builder()
                 .id(1L)
                 .nome("Maria")
-                .datasDisponiveis(new ArrayList<>(Arrays.asList(
+                .datasDisponiveis(new HashSet<>(Arrays.asList(
                         LocalDate.of(2025, 8, 2),
                         LocalDate.of(2025, 8, 9)
                 )))
@@ -75,11 +98,37 @@ public class VoluntarioServiceTest {
         assertEquals(2L, saved.getUsuario().getId());
         // senha deve ter sido codificada
         assertEquals("encoded-senha", saved.getUsuario().getSenha());
+        verify(usuarioDetailsService).invalida("maria@gmail.com");
 
         verify(usuarioRepository).findByEmail("maria@gmail.com");
         verify(passwordEncoder).encode("maria123");
         verify(usuarioRepository).save(any(Usuario.class));
         verify(voluntarioRepository).save(any(Voluntario.class));
+        verify(indiceDisponibilidade).atualiza(1L, saved.getDatasDisponiveis());
+    }
+
+    @Test
+    void save_CodificaSenhaAntesDeAbrirTransacao() {
+        when(usuarioRepository.findByEmail("maria@gmail.com")).thenReturn(Optional.empty());
+        when(passwordEncoder.encode("maria123")).thenReturn("encoded-senha");
+        when(voluntarioRepository.save(any(Voluntario.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        voluntarioService.save(voluntario);
+
+        InOrder ordem = inOrder(passwordEncoder, transacao, usuarioRepository);
+        ordem.verify(passwordEncoder).encode("maria123");
+        ordem.verify(transacao).execute(any());
+        ordem.verify(usuarioRepository).findByEmail("maria@gmail.com");
+    }
+
+    @Test
+    void save_PoolDeSenhasSobrecarregado_NaoAcessaBanco() {
+        when(passwordEncoder.encode("maria123")).thenThrow(new SenhasSobrecarregadasException());
+
+        assertThrows(SenhasSobrecarregadasException.class, () -> voluntarioService.save(voluntario));
+
+        verify(transacao, never()).execute(any());
+        verifyNoInteractions(usuarioRepository, voluntarioRepository);
     }
 
     @Test
@@ -122,17 +171,58 @@ public class VoluntarioServiceTest {
     void update_Sucesso() {
         Voluntario updateVoluntario = Voluntario.builder()
                 .nome("Maria Atualizada")
-                .datasDisponiveis(new ArrayList<>(Arrays.asList(LocalDate.of(2025, 8, 16))))
+                .datasDisponiveis(new HashSet<>(Arrays.asList(LocalDate.of(2025, 8, 16))))
                 .build();
 
         when(voluntarioRepository.findById(1L)).thenReturn(Optional.of(voluntario));
-        when(escalaRepository.findByVoluntario(any())).thenReturn(Optional.empty());
-        when(voluntarioRepository.save(any())).thenReturn(voluntario);
+        when(voluntarioRepository.saveAndFlush(any())).thenReturn(voluntario);
+        when(escalaDiaJdbcRepository.removeVoluntarioDosDiasIndisponiveis(1L)).thenReturn(List.of(10L, 11L));
 
         Voluntario result = voluntarioService.update(1L, updateVoluntario);
 
         assertEquals("Maria Atualizada", result.getNome());
-        assertTrue(result.getDatasDisponiveis().contains(LocalDate.of(2025, 8, 16)));
+        assertEquals(Set.of(LocalDate.of(2025, 8, 16)), result.getDatasDisponiveis());
+        // as datas são gravadas antes da limpeza dos dias, que é um único comando
+        InOrder ordem = inOrder(voluntarioRepository, escalaDiaJdbcRepository);
+        ordem.verify(voluntarioRepository).saveAndFlush(voluntario);
+        ordem.verify(escalaDiaJdbcRepository).removeVoluntarioDosDiasIndisponiveis(1L);
+        verifyNoInteractions(escalaRepository);
+        verify(indiceDisponibilidade).atualiza(1L, result.getDatasDisponiveis());
+    }
+
+    @Test
+    void update_SemDatas_NaoMexeNasEscalas() {
+        when(voluntarioRepository.findById(1L)).thenReturn(Optional.of(voluntario));
+        when(voluntarioRepository.saveAndFlush(any())).thenReturn(voluntario);
+
+        voluntarioService.update(1L, Voluntario.builder().nome("Maria Atualizada").build());
+
+        verify(escalaDiaJdbcRepository, never()).removeVoluntarioDosDiasIndisponiveis(any());
+    }
+
+    @Test
+    void alteraDatasDisponiveis_IncluiERemoveSoAsDatasInformadas() {
+        when(voluntarioRepository.findById(1L)).thenReturn(Optional.of(voluntario));
+        when(voluntarioRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Voluntario result = voluntarioService.alteraDatasDisponiveis(1L,
+                Set.of(LocalDate.of(2025, 8, 16), LocalDate.of(2025, 8, 9)), Set.of(LocalDate.of(2025, 8, 2), LocalDate.of(2025, 8, 9)));
+
+        // 09/08 está nas duas listas e fica incluída
+        assertEquals(Set.of(LocalDate.of(2025, 8, 9), LocalDate.of(2025, 8, 16)), result.getDatasDisponiveis());
+        verify(escalaDiaJdbcRepository).removeVoluntarioDosDiasIndisponiveis(1L);
+        verify(indiceDisponibilidade).atualiza(1L, result.getDatasDisponiveis());
+    }
+
+    @Test
+    void alteraDatasDisponiveis_SoInclusao_NaoLimpaDias() {
+        when(voluntarioRepository.findById(1L)).thenReturn(Optional.of(voluntario));
+        when(voluntarioRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        Voluntario result = voluntarioService.alteraDatasDisponiveis(1L, Set.of(LocalDate.of(2025, 8, 16)), null);
+
+        assertEquals(3, result.getDatasDisponiveis().size());
+        verify(escalaDiaJdbcRepository, never()).removeVoluntarioDosDiasIndisponiveis(any());
     }
 
     @Test
@@ -148,12 +238,16 @@ public class VoluntarioServiceTest {
 
     @Test
     void delete_Sucesso() {
+        voluntario.getUsuario().setId(2L);
         when(voluntarioRepository.existsById(1L)).thenReturn(true);
+        when(voluntarioRepository.findById(1L)).thenReturn(Optional.of(voluntario));
         when(escalaRepository.existsByVoluntarioId(anyLong())).thenReturn(false);
         doNothing().when(voluntarioRepository).deleteById(1L);
 
         assertTrue(voluntarioService.delete(1L));
         verify(voluntarioRepository).deleteById(1L);
+        verify(indiceDisponibilidade).remove(1L);
+        verify(revogacaoTokens).revogaUsuario(2L);
     }
 
     @Test
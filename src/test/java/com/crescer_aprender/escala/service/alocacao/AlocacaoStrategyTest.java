@@ -0,0 +1,116 @@
+package com.crescer_aprender.escala.service.alocacao;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AlocacaoStrategyTest {
+
+    private static final LocalDate PRIMEIRO_SABADO = LocalDate.of(2025, 7, 5);
+
+    private final AlocacaoStrategy balanceada = new AlocacaoBalanceadaStrategy(new Random(42));
+    private final AlocacaoStrategy aleatoria = new AlocacaoAleatoriaStrategy(new Random(42));
+
+    private static List<Long> ids(long deInclusivo, long ateInclusivo) {
+        return LongStream.rangeClosed(deInclusivo, ateInclusivo).boxed().toList();
+    }
+
+    private static Map<LocalDate, List<Long>> mesComTodosDisponiveis(int sabados, List<Long> voluntarios) {
+        Map<LocalDate, List<Long>> candidatos = new LinkedHashMap<>();
+        for (int i = 0; i < sabados; i++) {
+            candidatos.put(PRIMEIRO_SABADO.plusWeeks(i), voluntarios);
+        }
+        return candidatos;
+    }
+
+    private static Map<Long, Long> cargaPorVoluntario(Map<LocalDate, List<Long>> alocacao) {
+        return alocacao.values().stream().flatMap(List::stream)
+                .collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+    }
+
+    @Test
+    void balanceada_RespeitaLimiteMaximoEDisponibilidade() {
+        Map<LocalDate, List<Long>> candidatos = mesComTodosDisponiveis(4, ids(1, 20));
+        candidatos.put(PRIMEIRO_SABADO.plusWeeks(4), ids(1, 3));
+
+        Map<LocalDate, List<Long>> alocacao = balanceada.aloca(candidatos);
+
+        assertEquals(List.copyOf(candidatos.keySet()), List.copyOf(alocacao.keySet()));
+        alocacao.forEach((data, selecionados) -> {
+            assertTrue(selecionados.size() <= AlocacaoStrategy.MAX_VOLUNTARIOS_POR_DIA);
+            assertTrue(candidatos.get(data).containsAll(selecionados));
+            assertEquals(selecionados.size(), new HashSet<>(selecionados).size());
+        });
+        assertEquals(8, alocacao.get(PRIMEIRO_SABADO).size());
+        assertEquals(ids(1, 3), alocacao.get(PRIMEIRO_SABADO.plusWeeks(4)).stream().sorted().toList());
+    }
+
+    @Test
+    void balanceada_DistribuiCargaIgualmente() {
+        // 40 voluntários, 5 sábados x 8 vagas = 40 vagas: todos devem ser escalados exatamente uma vez
+        Map<LocalDate, List<Long>> alocacao = balanceada.aloca(mesComTodosDisponiveis(5, ids(1, 40)));
+
+        Map<Long, Long> carga = cargaPorVoluntario(alocacao);
+        assertEquals(40, carga.size());
+        assertTrue(carga.values().stream().allMatch(c -> c == 1));
+    }
+
+    @Test
+    void balanceada_PreencheDiasEscassosPrimeiro() {
+        // os voluntários 1..4 são os únicos do último sábado; não devem ser gastos nos sábados com sobra
+        Map<LocalDate, List<Long>> candidatos = new LinkedHashMap<>();
+        candidatos.put(PRIMEIRO_SABADO, ids(1, 12));
+        candidatos.put(PRIMEIRO_SABADO.plusWeeks(1), ids(1, 12));
+        candidatos.put(PRIMEIRO_SABADO.plusWeeks(2), ids(1, 4));
+
+        Map<LocalDate, List<Long>> alocacao = balanceada.aloca(candidatos);
+
+        Map<Long, Long> carga = cargaPorVoluntario(alocacao);
+        assertEquals(ids(1, 4), alocacao.get(PRIMEIRO_SABADO.plusWeeks(2)).stream().sorted().toList());
+        long maxima = Collections.max(carga.values());
+        long minima = Collections.min(carga.values());
+        assertTrue(maxima - minima <= 1, "carga desbalanceada: " + carga);
+    }
+
+    @Test
+    void balanceada_DiaSemCandidatosFicaVazio() {
+        Map<LocalDate, List<Long>> candidatos = new LinkedHashMap<>();
+        candidatos.put(PRIMEIRO_SABADO, List.of());
+
+        assertTrue(balanceada.aloca(candidatos).get(PRIMEIRO_SABADO).isEmpty());
+    }
+
+    @Test
+    void balanceada_MesCom10MilVoluntarios() {
+        Random random = new Random(7);
+        List<Long> voluntarios = ids(1, 10_000);
+        Map<LocalDate, List<Long>> candidatos = new LinkedHashMap<>();
+        for (int dia = 0; dia < 31; dia++) {
+            candidatos.put(LocalDate.of(2025, 7, 1).plusDays(dia), voluntarios.stream().filter(id -> random.nextInt(3) == 0).toList());
+        }
+
+        Map<LocalDate, List<Long>> alocacao = balanceada.aloca(candidatos);
+
+        assertEquals(31, alocacao.size());
+        assertTrue(alocacao.values().stream().allMatch(s -> s.size() == AlocacaoStrategy.MAX_VOLUNTARIOS_POR_DIA));
+        // 31 x 8 vagas com milhares de candidatos: ninguém precisa ser escalado duas vezes
+        assertTrue(cargaPorVoluntario(alocacao).values().stream().allMatch(c -> c == 1));
+    }
+
+    @Test
+    void aleatoria_SelecionaAteOitoPorDia() {
+        Map<LocalDate, List<Long>> candidatos = mesComTodosDisponiveis(2, ids(1, 20));
+        candidatos.put(PRIMEIRO_SABADO.plusWeeks(2), ids(1, 2));
+
+        Map<LocalDate, List<Long>> alocacao = aleatoria.aloca(candidatos);
+
+        assertEquals(8, alocacao.get(PRIMEIRO_SABADO).size());
+        assertEquals(2, alocacao.get(PRIMEIRO_SABADO.plusWeeks(2)).size());
+        alocacao.forEach((data, selecionados) -> assertTrue(candidatos.get(data).containsAll(selecionados)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.crescer_aprender.escala.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Conta o que chega ao banco pelo DataSource de teste (ver ContadorDeStatementsConfig).
+ * execucoes = idas ao banco (um executeBatch conta uma vez); statements = comandos SQL, contando cada linha de um batch;
+ * consultas = o texto SQL de cada ida ao banco; executadas = o SQL com os parâmetros da primeira linha, para repetir
+ * a consulta com EXPLAIN (ver PlanoDeConsultasTest).
+ */
+public class ContadorDeStatements implements QueryExecutionListener {
+
+    private final AtomicInteger execucoes = new AtomicInteger();
+    private final AtomicInteger statements = new AtomicInteger();
+    private final List<String> consultas = new CopyOnWriteArrayList<>();
+    private final List<Executada> executadas = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execucoes.incrementAndGet();
+        statements.addAndGet(queryInfoList.stream().mapToInt(q -> Math.max(1, q.getParametersList().size())).sum());
+        queryInfoList.forEach(q -> consultas.add(q.getQuery()));
+        queryInfoList.forEach(q -> executadas.add(new Executada(q.getQuery(),
+                q.getParametersList().isEmpty() ? List.of() : List.copyOf(q.getParametersList().get(0)))));
+    }
+
+    public void zera() {
+        execucoes.set(0);
+        statements.set(0);
+        consultas.clear();
+        executadas.clear();
+    }
+
+    public int getExecucoes() {
+        return execucoes.get();
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public List<String> getConsultas() {
+        return List.copyOf(consultas);
+    }
+
+    public List<Executada> getExecutadas() {
+        return List.copyOf(executadas);
+    }
+
+    public record Executada(String sql, List<ParameterSetOperation> parametros) {
+    }
+}
@@ -0,0 +1,35 @@
+package com.crescer_aprender.escala.support;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+// envolve o DataSource do contexto de teste com o datasource-proxy, registrando o ContadorDeStatements
+@TestConfiguration(proxyBeanMethods = false)
+public class ContadorDeStatementsConfig {
+
+    @Bean
+    public ContadorDeStatements contadorDeStatements() {
+        return new ContadorDeStatements();
+    }
+
+    @Bean
+    public static BeanPostProcessor dataSourceComContador(ObjectProvider<ContadorDeStatements> contador) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(contador.getObject())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
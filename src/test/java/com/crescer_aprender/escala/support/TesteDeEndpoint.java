@@ -0,0 +1,170 @@
+package com.crescer_aprender.escala.support;
+
+import com.crescer_aprender.escala.entity.Escala;
+import com.crescer_aprender.escala.entity.EscalaDia;
+import com.crescer_aprender.escala.entity.Usuario;
+import com.crescer_aprender.escala.entity.Voluntario;
+import com.crescer_aprender.escala.enums.PerfisUsuariosEnum;
+import com.crescer_aprender.escala.repository.EscalaDiaJdbcRepository;
+import com.crescer_aprender.escala.repository.EscalaRepository;
+import com.crescer_aprender.escala.repository.UsuarioRepository;
+import com.crescer_aprender.escala.repository.VoluntarioRepository;
+import com.crescer_aprender.escala.security.JwtService;
+import com.crescer_aprender.escala.service.IndiceDisponibilidade;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.AutoConfigureEmbeddedDatabase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * Base dos testes de endpoint: a aplicação inteira contra um PostgreSQL embarcado, com o DataSource envolvido pelo
+ * ContadorDeStatements. {@link #requisicao} executa a chamada pelo MockMvc (com OSIV, segurança e serialização, como
+ * em produção) e falha se ela for ao banco mais vezes que o limite informado; a mensagem lista o SQL de cada ida.
+ * Um executeBatch conta como uma ida. Os dados são gravados direto pelos repositórios e apagados depois de cada teste.
+ */
+@SpringBootTest(properties = {"escala.seguranca.revogacao.intervalo=1h", "escala.metricas.disponibilidade.intervalo=1h"})
+@AutoConfigureMockMvc
+@AutoConfigureEmbeddedDatabase(provider = AutoConfigureEmbeddedDatabase.DatabaseProvider.ZONKY)
+@Import(ContadorDeStatementsConfig.class)
+public abstract class TesteDeEndpoint {
+
+    protected static final String SENHA = "senha123";
+    // custo baixo: o BCrypt do login confere qualquer custo gravado no hash
+    private static final String HASH_DA_SENHA = new BCryptPasswordEncoder(4).encode(SENHA);
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected ContadorDeStatements contador;
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    protected UsuarioRepository usuarioRepository;
+
+    @Autowired
+    protected VoluntarioRepository voluntarioRepository;
+
+    @Autowired
+    protected EscalaRepository escalaRepository;
+
+    @Autowired
+    protected EscalaDiaJdbcRepository escalaDiaJdbcRepository;
+
+    @Autowired
+    protected IndiceDisponibilidade indiceDisponibilidade;
+
+    @Autowired
+    private JwtService jwtService;
+
+    // índice carregado antes dos dados (que o mantêm em dia): a carga preguiçosa não cai dentro da requisição medida
+    @BeforeEach
+    void carregaIndice() {
+        indiceDisponibilidade.recarrega();
+    }
+
+    @AfterEach
+    void limpaBanco() {
+        jdbcTemplate.execute("TRUNCATE escala_dia_voluntario, escala_dia, escala_datas, escala, voluntario_datas_disponiveis, " +
+                "voluntario, usuario, token_revogado, usuario_revogacao RESTART IDENTITY CASCADE");
+    }
+
+    // executa a requisição (e o dispatch assíncrono, se houver) e confere as idas ao banco feitas até a resposta
+    protected ResultActions requisicao(MockHttpServletRequestBuilder requisicao, int maximoDeStatements) throws Exception {
+        contador.zera();
+        ResultActions resultado = mockMvc.perform(requisicao);
+        MvcResult mvcResult = resultado.andReturn();
+        if (mvcResult.getRequest().isAsyncStarted()) {
+            mvcResult.getAsyncResult();
+            resultado = mockMvc.perform(asyncDispatch(mvcResult));
+        }
+        int statements = contador.getExecucoes();
+        assertTrue(statements <= maximoDeStatements, String.format("%s %s foi ao banco %d vezes (máximo %d):%n%s",
+                mvcResult.getRequest().getMethod(), mvcResult.getRequest().getRequestURI(), statements, maximoDeStatements,
+                String.join("\n", contador.getConsultas())));
+        return resultado;
+    }
+
+    protected String json(Object corpo) throws Exception {
+        return objectMapper.writeValueAsString(corpo);
+    }
+
+    protected String bearer(Usuario usuario) {
+        return "Bearer " + jwtService.generateToken(usuario);
+    }
+
+    protected HttpHeaders autenticado(Voluntario voluntario) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, bearer(voluntario.getUsuario()));
+        return headers;
+    }
+
+    protected Voluntario criaVoluntario(String nome, PerfisUsuariosEnum perfil, Collection<LocalDate> datasDisponiveis) {
+        String email = nome.toLowerCase().replace(' ', '.') + "@teste.com";
+        Usuario usuario = usuarioRepository.save(Usuario.builder().email(email).senha(HASH_DA_SENHA).role(perfil).build());
+        Voluntario voluntario = voluntarioRepository.save(Voluntario.builder().nome(nome).usuario(usuario)
+                .datasDisponiveis(new HashSet<>(datasDisponiveis)).build());
+        indiceDisponibilidade.atualiza(voluntario.getId(), datasDisponiveis);
+        return voluntario;
+    }
+
+    // voluntários sem perfil de coordenador, disponíveis em todas as datas informadas
+    protected List<Voluntario> criaVoluntarios(int quantidade, Collection<LocalDate> datasDisponiveis) {
+        List<Voluntario> voluntarios = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            voluntarios.add(criaVoluntario("Voluntario " + i, PerfisUsuariosEnum.VOLUNTARIO, datasDisponiveis));
+        }
+        return voluntarios;
+    }
+
+    // escala do mês com um dia por data, cada um com até 8 voluntários em rodízio
+    protected Escala criaEscala(int ano, int mes, List<LocalDate> datas, List<Voluntario> voluntarios) {
+        Escala escala = escalaRepository.save(Escala.builder().ano((long) ano).mes(mes).datas(new ArrayList<>(datas)).build());
+        List<EscalaDia> dias = new ArrayList<>();
+        for (LocalDate data : datas) {
+            List<Voluntario> doDia = new ArrayList<>();
+            for (int v = 0; v < Math.min(8, voluntarios.size()); v++) {
+                doDia.add(voluntarios.get((dias.size() * 8 + v) % voluntarios.size()));
+            }
+            dias.add(EscalaDia.builder().data(data).voluntarios(doDia).build());
+        }
+        escalaDiaJdbcRepository.insereDias(escala.getId(), dias);
+        return escala;
+    }
+
+    // sábados do mês
+    protected static List<LocalDate> sabados(int ano, int mes) {
+        List<LocalDate> sabados = new ArrayList<>();
+        for (LocalDate data = LocalDate.of(ano, mes, 1); data.getMonthValue() == mes; data = data.plusDays(1)) {
+            if (data.getDayOfWeek() == java.time.DayOfWeek.SATURDAY) {
+                sabados.add(data);
+            }
+        }
+        return sabados;
+    }
+}